@@ -0,0 +1,63 @@
+// PATH: src/jmh/java/com/verto/shop/benchmark/CatalogBenchmark.java
+package com.verto.shop.benchmark;
+
+import com.verto.shop.model.Product;
+import com.verto.shop.service.ProductQuery;
+import com.verto.shop.service.ProductService;
+import com.verto.shop.service.ProductSort;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService lookups and listing at several catalog sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int catalogSize;
+
+    private ProductService productService;
+    private String[] probes;
+    private int next;
+    private ProductQuery firstPageByPrice;
+
+    @Setup
+    public void setUp() {
+        productService = new ProductService();
+        productService.replaceAll(Fixtures.products(catalogSize));
+        probes = Fixtures.randomIds(catalogSize, 4096);
+        firstPageByPrice = new ProductQuery(ProductSort.PRICE_ASC, null, null, null, null, 50);
+        productService.getCatalog().scan(firstPageByPrice, p -> { }); // build the sorted view up front
+    }
+
+    @Benchmark
+    public Object findById() {
+        return productService.findById(probes[next++ & 4095]);
+    }
+
+    @Benchmark
+    public Object findByIdMiss() {
+        return productService.findById("missing");
+    }
+
+    @Benchmark
+    public void getAll(Blackhole bh) {
+        List<Product> all = productService.getAll();
+        bh.consume(all.size());
+        bh.consume(all.get(all.size() - 1));
+    }
+
+    @Benchmark
+    public void firstPageByPrice(Blackhole bh) {
+        bh.consume(productService.getCatalog().scan(firstPageByPrice, bh::consume));
+    }
+}
@@ -0,0 +1,64 @@
+// PATH: src/jmh/java/com/verto/shop/benchmark/CheckoutBenchmark.java
+package com.verto.shop.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.model.Order;
+import com.verto.shop.service.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CheckoutService pricing path (merge, lookup, pricing, stock, order building)
+ * at several cart sizes. The journal is a no-op so disk speed is not measured here;
+ * see OrderJournalBenchmark for that. The metrics param compares the path with
+ * ShopMetrics recording into a registry against the no-op metrics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    @Param({"1", "5", "20", "100"})
+    public int cartSize;
+
+    @Param({"off", "on"})
+    public String metrics;
+
+    private CheckoutService checkoutService;
+    private CheckoutRequest cart;
+
+    @Setup
+    public void setUp() {
+        ProductService productService = new ProductService();
+        productService.replaceAll(Fixtures.products(CATALOG_SIZE));
+        OrderJournal noopJournal = new OrderJournal(System.getProperty("java.io.tmpdir"), JournalDurability.BATCHED, 1024) {
+            @Override public long[] appendAll(List<Order> orders) { return new long[orders.size()]; }
+        };
+        InventoryService inventoryService = new InventoryService(productService, noopJournal);
+        for (int i = 0; i < CATALOG_SIZE; i++) inventoryService.setStock(Fixtures.id(i), Long.MAX_VALUE / 4);
+        OrderStore noopStore = new OrderStore(noopJournal, 1024) {
+            @Override public void add(Order order, long journalPosition) { }
+        };
+        PricingEngine pricing = new PricingEngine(productService, new ObjectMapper(), "", 1000);
+        checkoutService = new CheckoutService(productService, inventoryService, noopJournal,
+                Validation.buildDefaultValidatorFactory().getValidator(), new SnowflakeOrderIdGenerator(1),
+                "on".equals(metrics) ? new ShopMetrics(new SimpleMeterRegistry(), true) : ShopMetrics.noop(),
+                noopStore, pricing);
+        cart = Fixtures.cart(cartSize, CATALOG_SIZE);
+    }
+
+    @Benchmark
+    public Object checkout() {
+        return checkoutService.checkout(cart);
+    }
+}
@@ -0,0 +1,73 @@
+// PATH: src/jmh/java/com/verto/shop/benchmark/CheckoutParsingBenchmark.java
+package com.verto.shop.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.service.CheckoutRequestReader;
+import com.verto.shop.service.ProductService;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout body parsing: Jackson binding followed by Bean Validation (the old
+ * path) against the streaming CheckoutRequestReader, for accepted carts and for
+ * bodies the reader rejects. An oversized cart has 10,000 lines; the unknown
+ * product body names an unknown id on its first line, followed by 10,000 more.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutParsingBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+    private static final int HUGE_CART = 10_000;
+
+    @Param({"valid-5", "valid-100", "oversized", "unknownProduct"})
+    public String payload;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private CheckoutRequestReader reader;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws Exception {
+        ProductService productService = new ProductService();
+        productService.replaceAll(Fixtures.products(CATALOG_SIZE));
+        reader = new CheckoutRequestReader(productService, 100, 1000, 64);
+        CheckoutRequest request = switch (payload) {
+            case "valid-5" -> Fixtures.cart(5, CATALOG_SIZE);
+            case "valid-100" -> Fixtures.cart(100, CATALOG_SIZE);
+            case "oversized" -> Fixtures.cart(HUGE_CART, CATALOG_SIZE);
+            case "unknownProduct" -> {
+                CheckoutRequest cart = Fixtures.cart(HUGE_CART, CATALOG_SIZE);
+                cart.getItems().add(0, new CheckoutRequest.Item("p_unknown", 1));
+                yield cart;
+            }
+            default -> throw new IllegalArgumentException(payload);
+        };
+        body = objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public Object bindAndValidate() throws Exception {
+        CheckoutRequest request = objectMapper.readValue(body, CheckoutRequest.class);
+        return validator.validate(request);
+    }
+
+    @Benchmark
+    public Object streaming() throws Exception {
+        try {
+            return reader.read(new ByteArrayInputStream(body));
+        } catch (CheckoutRequestReader.RejectedException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+// PATH: src/jmh/java/com/verto/shop/benchmark/Fixtures.java
+package com.verto.shop.benchmark;
+
+import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic test data shared by the benchmarks
+final class Fixtures {
+
+    private Fixtures() {}
+
+    static List<Product> products(int count) {
+        Random random = new Random(7);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(new Product(id(i), "Product " + i, "Description of product " + i,
+                    100 + random.nextInt(100_000), "/images/p" + i + ".jpg", i % 10 == 0 ? "USD" : "INR"));
+        }
+        return products;
+    }
+
+    private static final String[] ADJECTIVES = {"wireless", "mechanical", "compact", "ergonomic", "portable", "gaming", "silent", "smart"};
+    private static final String[] NOUNS = {"mouse", "keyboard", "hub", "headphones", "stand", "monitor", "cable", "charger", "lamp", "speaker"};
+
+    // Products with word-like names and descriptions plus a unique model number, for search
+    static List<Product> searchableProducts(int count) {
+        Random random = new Random(5);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " m" + i;
+            String description = "A " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " for work";
+            products.add(new Product(id(i), name, description, 100 + random.nextInt(100_000), "/images/p" + i + ".jpg", "INR"));
+        }
+        return products;
+    }
+
+    static String id(int i) {
+        return String.format("p_%07d", i);
+    }
+
+    static String[] randomIds(int catalogSize, int count) {
+        Random random = new Random(11);
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) ids[i] = id(random.nextInt(catalogSize));
+        return ids;
+    }
+
+    static CheckoutRequest cart(int lines, int catalogSize) {
+        List<CheckoutRequest.Item> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) items.add(new CheckoutRequest.Item(id((i * 7919) % catalogSize), 1 + i % 3));
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(items);
+        CheckoutRequest.User user = new CheckoutRequest.User();
+        user.setName("Bench User");
+        user.setEmail("bench@example.com");
+        request.setUser(user);
+        return request;
+    }
+}
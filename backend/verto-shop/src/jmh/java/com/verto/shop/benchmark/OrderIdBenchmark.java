@@ -0,0 +1,39 @@
+// PATH: src/jmh/java/com/verto/shop/benchmark/OrderIdBenchmark.java
+package com.verto.shop.benchmark;
+
+import com.verto.shop.service.SnowflakeOrderIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order id generation, single-threaded and contended, against the old
+ * UUID-derived ids as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderIdBenchmark {
+
+    private final SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(1);
+
+    @Benchmark
+    public String snowflake() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String snowflakeContended() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String uuidBaseline() {
+        return UUID.randomUUID().toString().toUpperCase().replace("-", "").substring(0, 12);
+    }
+}
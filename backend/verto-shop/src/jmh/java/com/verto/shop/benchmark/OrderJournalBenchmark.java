@@ -0,0 +1,59 @@
+// PATH: src/jmh/java/com/verto/shop/benchmark/OrderJournalBenchmark.java
+package com.verto.shop.benchmark;
+
+import com.verto.shop.model.Order;
+import com.verto.shop.model.OrderLine;
+import com.verto.shop.service.JournalDurability;
+import com.verto.shop.service.OrderJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable order append throughput per durability mode, with 8 concurrent
+ * appenders so BATCHED can group commits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class OrderJournalBenchmark {
+
+    @Param({"PER_ORDER", "BATCHED"})
+    public JournalDurability durability;
+
+    private Path dir;
+    private OrderJournal journal;
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal-bench");
+        journal = new OrderJournal(dir.toString(), durability, 256 << 20);
+        journal.open();
+        order = new Order("0ABCDEFGHJKMN", System.currentTimeMillis(), 19_000, "Bench User", "bench@example.com",
+                List.of(new OrderLine("p_0000001", "Wireless Mouse", 5000, 2), new OrderLine("p_0000002", "Keyboard", 9000, 1)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void append() {
+        journal.append(order);
+    }
+}
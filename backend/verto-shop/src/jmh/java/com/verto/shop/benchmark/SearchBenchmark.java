@@ -0,0 +1,60 @@
+// PATH: src/jmh/java/com/verto/shop/benchmark/SearchBenchmark.java
+package com.verto.shop.benchmark;
+
+import com.verto.shop.model.Product;
+import com.verto.shop.service.ProductCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product search and autocomplete on a 1M-product catalog, plus the cost of
+ * carrying the index over to a new snapshot when a few products change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SearchBenchmark {
+
+    private static final int CATALOG_SIZE = 1_000_000;
+
+    // A common word, two common words, a selective combination, a unique model number,
+    // and a word found in every description (only description matches)
+    @Param({"compact", "wireless mouse", "silent lamp work", "m424242", "work"})
+    public String query;
+
+    private ProductCatalog catalog;
+    private List<Product> changes;
+
+    @Setup
+    public void setUp() {
+        catalog = ProductCatalog.of(1, Fixtures.searchableProducts(CATALOG_SIZE));
+        catalog.search("warm", 1); // build the index up front
+        changes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            changes.add(new Product(Fixtures.id(i * 9973), "Refurbished speaker m" + i, "Like new", 500, null, "INR"));
+        }
+    }
+
+    @Benchmark
+    public Object search() {
+        return catalog.search(query, 20);
+    }
+
+    @Benchmark
+    public Object autocomplete() {
+        return catalog.suggest(query.substring(0, Math.min(3, query.length())), 10);
+    }
+
+    // A whole new snapshot with 100 changed products. This includes copying the id map and product
+    // list; for the index itself, only the changed terms' postings and trie paths are rebuilt.
+    @Benchmark
+    public Object upsert100() {
+        return catalog.withUpserts(2, changes);
+    }
+}
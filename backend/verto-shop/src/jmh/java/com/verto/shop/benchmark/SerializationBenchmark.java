@@ -0,0 +1,45 @@
+// PATH: src/jmh/java/com/verto/shop/benchmark/SerializationBenchmark.java
+package com.verto.shop.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.verto.shop.model.OrderResponse;
+import com.verto.shop.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of product lists and of the checkout response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"5", "100", "1000"})
+    public int listSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Product> products;
+    private OrderResponse orderResponse;
+
+    @Setup
+    public void setUp() {
+        products = Fixtures.products(listSize);
+        orderResponse = new OrderResponse(true, "0ABCDEFGHJKMN", 19_000);
+    }
+
+    @Benchmark
+    public byte[] productList() throws Exception {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] orderResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(orderResponse);
+    }
+}
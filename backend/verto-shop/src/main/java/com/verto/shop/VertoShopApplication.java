@@ -21,11 +21,17 @@ public class VertoShopApplication {
         return new WebMvcConfigurer() {
             @Override
             public void addCorsMappings(CorsRegistry registry) {
+                // Admin endpoints are not for the storefront: browsers may only read them.
+                // Registered first, so it wins over /api/** below.
+                registry.addMapping("/api/admin/**")
+                        .allowedOrigins("http://localhost:5173", "http://localhost:3000")
+                        .allowedMethods("GET", "OPTIONS");
                 // Allows access to all /api/ endpoints from the standard frontend development port.
                 registry.addMapping("/api/**")
                         .allowedOrigins("http://localhost:5173", "http://localhost:3000") // Allow common React/Vite ports
-                        .allowedMethods("GET", "POST", "OPTIONS")
+                        .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders("Idempotent-Replayed")
                         .allowCredentials(true);
             }
         };
@@ -0,0 +1,76 @@
+// PATH: src/main/java/com/verto/shop/controller/AdminAccessFilter.java
+package com.verto.shop.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards the admin writes: any request other than GET/HEAD/OPTIONS under
+ * /api/admin/, and setting a stock level with PUT /api/inventory/{productId}.
+ *
+ * They are off unless app.admin.token is set. Until then they answer 404 as if
+ * they did not exist. With a token, a request must carry it in the X-Admin-Token
+ * header, or it gets 403. Reads stay open.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class AdminAccessFilter extends OncePerRequestFilter {
+
+    static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private static final byte[] NOT_FOUND = "{\"error\":\"Not found\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FORBIDDEN = "{\"error\":\"Missing or invalid X-Admin-Token\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] token;
+
+    public AdminAccessFilter(@Value("${app.admin.token:}") String token) {
+        this.token = token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // True for the requests this filter guards
+    static boolean isAdminWrite(String method, String path) {
+        if (method.equals("GET") || method.equals("HEAD") || method.equals("OPTIONS")) return false;
+        return path.startsWith("/api/admin/") || (method.equals("PUT") && path.startsWith("/api/inventory/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!isAdminWrite(request.getMethod(), UrlPathHelper.defaultInstance.getLookupPathForRequest(request))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (token == null) {
+            reject(response, HttpStatus.NOT_FOUND, NOT_FOUND);
+            return;
+        }
+        String given = request.getHeader(TOKEN_HEADER);
+        if (given == null || !MessageDigest.isEqual(token, given.getBytes(StandardCharsets.UTF_8))) {
+            reject(response, HttpStatus.FORBIDDEN, FORBIDDEN);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
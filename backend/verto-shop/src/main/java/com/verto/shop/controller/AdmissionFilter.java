@@ -0,0 +1,85 @@
+// PATH: src/main/java/com/verto/shop/controller/AdmissionFilter.java
+package com.verto.shop.controller;
+
+import com.verto.shop.service.AdmissionControl;
+import com.verto.shop.service.AdmissionEndpoint;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies AdmissionControl before a request reaches Spring MVC, so a refused
+ * request costs no body parsing:
+ * 503 + Retry-After when the endpoint group is at max-concurrent, and
+ * 429 + Retry-After when the client's (IP) bucket is empty.
+ *
+ * Endpoints are matched on the same lookup path Spring MVC maps, with
+ * ;parameters removed and the path decoded, so /api/checkout;x=1 is still
+ * admitted as checkout.
+ *
+ * The client IP is the remote address; behind a proxy, set
+ * server.forward-headers-strategy so it reflects X-Forwarded-For.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final byte[] TOO_MANY_REQUESTS = "{\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OVERLOADED = "{\"error\":\"Server busy, retry later\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final AdmissionControl admission;
+
+    public AdmissionFilter(AdmissionControl admission) {
+        this.admission = admission;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdmissionEndpoint endpoint = AdmissionEndpoint.of(request.getMethod(),
+                UrlPathHelper.defaultInstance.getLookupPathForRequest(request));
+        if (endpoint == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (admission.limitsClientsBy(endpoint, AdmissionControl.ClientKey.IP)) {
+            long wait = admission.tryAcquire(endpoint, request.getRemoteAddr());
+            if (wait > 0) {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, wait, TOO_MANY_REQUESTS);
+                return;
+            }
+        }
+        if (!admission.tryEnter(endpoint)) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, admission.getRetryAfterSeconds(), OVERLOADED);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            admission.exit(endpoint);
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, byte[] body)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,160 @@
+// PATH: src/main/java/com/verto/shop/controller/CartController.java
+package com.verto.shop.controller;
+
+import com.verto.shop.model.CartUpdateRequest;
+import com.verto.shop.model.Product;
+import com.verto.shop.model.QuoteRequest;
+import com.verto.shop.service.CartQuote;
+import com.verto.shop.service.CartStore;
+import com.verto.shop.service.CheckoutRequestReader;
+import com.verto.shop.service.CheckoutService;
+import com.verto.shop.service.PricingEngine;
+import com.verto.shop.service.ProductCatalog;
+import com.verto.shop.service.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cart")
+public class CartController {
+    private final PricingEngine pricingEngine;
+    private final CartStore cartStore;
+    private final ProductService productService;
+    private final CheckoutRequestReader cartLimits;
+
+    @Value("${app.checkout.max-items:100}")
+    private int maxItems = 100;
+
+    @Value("${app.checkout.max-quantity:1000}")
+    private int maxQuantity = 1000;
+
+    public CartController(PricingEngine pricingEngine, CartStore cartStore, ProductService productService,
+                          CheckoutRequestReader cartLimits) {
+        this.pricingEngine = pricingEngine;
+        this.cartStore = cartStore;
+        this.productService = productService;
+        this.cartLimits = cartLimits;
+    }
+
+    // POST /api/cart/quote
+    // Prices the cart exactly as checkout would: per-line discounts and promotions, the
+    // cart-wide promotion, subtotal and total. Cached by cart content, so it is cheap to
+    // call on every cart change. The cart limits apply as at checkout: too many lines get 413, a bad
+    // quantity or productId 400, and unknown product ids 422.
+    @PostMapping("/quote")
+    public ResponseEntity<?> quote(@Valid @RequestBody QuoteRequest request) {
+        CartQuote quote;
+        try {
+            cartLimits.check(request.getItems());
+        } catch (CheckoutRequestReader.RejectedException e) {
+            HttpStatus status = e.getReason() == CheckoutRequestReader.RejectedException.Reason.TOO_MANY_ITEMS
+                    ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(Map.of("error", e.getMessage()));
+        }
+        try {
+            quote = pricingEngine.quote(request.getItems());
+        } catch (CheckoutService.QuantityOverflowException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (!quote.isOk()) return invalidProducts(quote.getInvalidIds());
+        return ResponseEntity.ok(quote);
+    }
+
+    // GET /api/cart/{cartId}: {"cartId", "version", "items": [{productId, quantity}]}, or 404 once
+    // the cart has been checked out, deleted or evicted after app.carts.idle-ttl-ms
+    @GetMapping("/{cartId}")
+    public ResponseEntity<?> get(@PathVariable String cartId) {
+        if (!CartStore.isValidCartId(cartId)) return invalidCartId();
+        CartStore.Snapshot cart = cartStore.get(cartId);
+        if (cart == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(body(cart));
+    }
+
+    // PUT /api/cart/{cartId}: replaces the cart's lines (lines for the same product are added up, up to
+    // app.checkout.max-quantity in total, and lines with quantity 0 are dropped), creating the cart. The id is chosen by the client, e.g. a UUID kept in localStorage.
+    @PutMapping("/{cartId}")
+    public ResponseEntity<?> replace(@PathVariable String cartId, @Valid @RequestBody CartUpdateRequest request) {
+        return write(cartId, request, true);
+    }
+
+    // PATCH /api/cart/{cartId}: sets the quantity of each listed product, 0 removing it; other
+    // lines stay. Lets the frontend send one changed line instead of the whole cart.
+    @PatchMapping("/{cartId}")
+    public ResponseEntity<?> update(@PathVariable String cartId, @Valid @RequestBody CartUpdateRequest request) {
+        return write(cartId, request, false);
+    }
+
+    // DELETE /api/cart/{cartId}: 204, or 404 if there was no such cart
+    @DeleteMapping("/{cartId}")
+    public ResponseEntity<?> delete(@PathVariable String cartId) {
+        if (!CartStore.isValidCartId(cartId)) return invalidCartId();
+        return cartStore.remove(cartId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    private ResponseEntity<?> write(String cartId, CartUpdateRequest request, boolean replace) {
+        if (!CartStore.isValidCartId(cartId)) return invalidCartId();
+        List<CartUpdateRequest.Line> lines = request.getItems();
+        if (lines.size() > maxItems) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(Map.of("error", "Cart exceeds maximum of " + maxItems + " items"));
+        }
+        // Stored ids are the catalog's own Strings, so carts share them
+        ProductCatalog catalog = productService.getCatalog();
+        String[] ids = new String[lines.size()];
+        int[] qtys = new int[lines.size()];
+        List<String> invalid = null;
+        for (int i = 0; i < ids.length; i++) {
+            CartUpdateRequest.Line line = lines.get(i);
+            if (line.getQuantity() > maxQuantity) {
+                return ResponseEntity.badRequest().body(Map.of("error", "quantity must be 0 to " + maxQuantity));
+            }
+            Product product = catalog.get(line.getProductId());
+            if (product == null) {
+                if (invalid == null) invalid = new ArrayList<>();
+                invalid.add(line.getProductId());
+                continue;
+            }
+            ids[i] = product.getId();
+            qtys[i] = line.getQuantity();
+        }
+        if (invalid != null) return invalidProducts(invalid);
+
+        CartStore.Snapshot cart;
+        try {
+            cart = replace ? cartStore.replace(cartId, ids, qtys, ids.length) : cartStore.update(cartId, ids, qtys, ids.length);
+        } catch (CartStore.TooManyLinesException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("error", e.getMessage()));
+        } catch (CartStore.QuantityTooLargeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(body(cart));
+    }
+
+    private static Map<String, Object> body(CartStore.Snapshot cart) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("cartId", cart.getCartId());
+        body.put("version", cart.getVersion());
+        body.put("items", cart.getItems());
+        return body;
+    }
+
+    private static ResponseEntity<?> invalidCartId() {
+        return ResponseEntity.badRequest().body(Map.of("error",
+                "cartId must be 1 to " + CartStore.MAX_CART_ID_LENGTH + " letters, digits, _ or -"));
+    }
+
+    private static ResponseEntity<?> invalidProducts(List<String> ids) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", "Invalid productId(s)");
+        body.put("invalidIds", ids);
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(body);
+    }
+}
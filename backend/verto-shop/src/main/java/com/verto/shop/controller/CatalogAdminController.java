@@ -0,0 +1,43 @@
+// PATH: src/main/java/com/verto/shop/controller/CatalogAdminController.java
+package com.verto.shop.controller;
+
+import com.verto.shop.service.CatalogImporter;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/catalog")
+public class CatalogAdminController {
+
+    private final CatalogImporter importer;
+
+    public CatalogAdminController(CatalogImporter importer) {
+        this.importer = importer;
+    }
+
+    // GET /api/admin/catalog: the last import (rows, time, memory, error)
+    @GetMapping
+    public ResponseEntity<?> status() {
+        if (!importer.isConfigured()) return notConfigured(HttpStatus.NOT_FOUND);
+        return ResponseEntity.ok(importer.getLastReport());
+    }
+
+    // POST /api/admin/catalog/reload: rebuilds the catalog from the files in the background
+    @PostMapping("/reload")
+    public ResponseEntity<?> reload() {
+        if (!importer.isConfigured()) return notConfigured(HttpStatus.CONFLICT);
+        importer.reload();
+        return ResponseEntity.accepted().body(Map.of("status", "reloading"));
+    }
+
+    private static ResponseEntity<?> notConfigured(HttpStatus status) {
+        return ResponseEntity.status(status).body(Map.of("error", "No catalog file configured (app.catalog.file)"));
+    }
+}
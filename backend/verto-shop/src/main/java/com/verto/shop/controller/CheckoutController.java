@@ -2,93 +2,235 @@
 package com.verto.shop.controller;
 
 import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.model.Order;
 import com.verto.shop.model.OrderResponse;
-import com.verto.shop.model.Product;
-import com.verto.shop.service.ProductService;
- 
+import com.verto.shop.service.AdmissionControl;
+import com.verto.shop.service.AdmissionEndpoint;
+import com.verto.shop.service.CartStore;
+import com.verto.shop.service.CheckoutRequestReader;
+import com.verto.shop.service.CheckoutResult;
+import com.verto.shop.service.CheckoutService;
+import com.verto.shop.service.IdempotencyCache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import jakarta.validation.Valid;
-import java.time.Instant;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.*;
-import org.slf4j.Logger; 
-import org.slf4j.LoggerFactory; 
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/checkout")
 @Validated
 public class CheckoutController {
 
-    //   logger
-    private static final Logger log = LoggerFactory.getLogger(CheckoutController.class);
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
 
-    private final ProductService productService;
+    // A stored cart that is missing or empty when its checkout runs; nothing was placed
+    private static final class CartUnavailableException extends RuntimeException {
+        final HttpStatus status;
 
-    public CheckoutController(ProductService productService) {
-        this.productService = productService;
+        CartUnavailableException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final CheckoutService checkoutService;
+    private final IdempotencyCache idempotencyCache;
+    private final AdmissionControl admissionControl;
+    private final CheckoutRequestReader requestReader;
+    private final CartStore cartStore;
+
+    @Value("${app.checkout.max-batch-size:1000}")
+    private int maxBatchSize = 1000;
+
+    public CheckoutController(CheckoutService checkoutService, IdempotencyCache idempotencyCache,
+                              AdmissionControl admissionControl, CheckoutRequestReader requestReader,
+                              CartStore cartStore) {
+        this.checkoutService = checkoutService;
+        this.idempotencyCache = idempotencyCache;
+        this.admissionControl = admissionControl;
+        this.requestReader = requestReader;
+        this.cartStore = cartStore;
     }
 
     // Core Feature: POST /api/checkout
-    // Accepts cart data, validates items, calculates total, and logs the order.
-    @PostMapping
-    public ResponseEntity<?> checkout(@Valid @RequestBody CheckoutRequest request) {
-
-        // ... [Item merging and validation logic] ...
-        Map<String, Integer> merged = new HashMap<>();
-        for (CheckoutRequest.Item it : request.getItems()) {
-            merged.merge(it.getProductId(), it.getQuantity(), Integer::sum);
+    // Accepts cart data, validates items, reserves stock, calculates total, and records the order in the journal.
+    // With an Idempotency-Key header, retries of the same request return the original response
+    // (marked Idempotent-Replayed: true) instead of placing another order.
+    // With app.admission.checkout.client-key=email, the per-client rate limit applies per user email.
+    // The body is parsed as a stream and rejected at the first line that breaks a cart limit or names an
+    // unknown product (see CheckoutRequestReader), before the rest of it is read.
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> checkout(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                      HttpServletRequest servletRequest) throws IOException {
+        CheckoutRequest request;
+        try {
+            request = requestReader.read(servletRequest.getInputStream());
+        } catch (CheckoutRequestReader.RejectedException e) {
+            return rejected(e);
         }
+        return place(request, null, idempotencyKey, servletRequest, () -> checkoutService.checkout(request));
+    }
 
-        List<String> invalid = new ArrayList<>();
-        long total = 0;
-        List<Map<String, Object>> orderItems = new ArrayList<>();
-
-        for (Map.Entry<String, Integer> e : merged.entrySet()) {
-            String pid = e.getKey();
-            int qty = e.getValue();
-            Optional<Product> pOpt = productService.findById(pid);
+    // POST /api/checkout?cartId=...
+    // Checks out a cart stored with PUT/PATCH /api/cart/{cartId}. Its lines are already merged, so they
+    // go straight to pricing. The optional JSON body carries only user and reservationId. The cart is
+    // deleted once the order is placed, unless it was changed in the meantime. Unknown cart: 404.
+    // An Idempotency-Key is bound to the cartId, and the cart is only looked up when the key is new, so
+    // a retry after the cart was checked out and deleted still gets the original order back.
+    @PostMapping(params = "cartId")
+    public ResponseEntity<?> checkoutCart(@RequestParam String cartId,
+                                          @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                          HttpServletRequest servletRequest) throws IOException {
+        if (!CartStore.isValidCartId(cartId)) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "cartId must be 1 to " + CartStore.MAX_CART_ID_LENGTH + " letters, digits, _ or -"));
+        }
+        CheckoutRequest details;
+        try {
+            details = requestReader.readDetails(servletRequest.getInputStream());
+        } catch (CheckoutRequestReader.RejectedException e) {
+            return rejected(e);
+        }
+        try {
+            return place(details, cartId, idempotencyKey, servletRequest, () -> {
+                CartStore.Snapshot cart = cartStore.get(cartId);
+                if (cart == null) throw new CartUnavailableException(HttpStatus.NOT_FOUND, "Cart not found");
+                if (cart.isEmpty()) throw new CartUnavailableException(HttpStatus.BAD_REQUEST, "Cart is empty");
+                CheckoutResult result = checkoutService.checkout(cart, details);
+                if (result.isOk()) cartStore.remove(cart);
+                return result;
+            });
+        } catch (CartUnavailableException e) {
+            return ResponseEntity.status(e.status).body(Map.of("error", e.getMessage()));
+        }
+    }
 
-            if (pOpt.isEmpty()) {
-                invalid.add(pid);
-                continue;
+    // cartId scopes the Idempotency-Key for a stored-cart checkout; null for one with its items in the body
+    private ResponseEntity<?> place(CheckoutRequest request, String cartId, String idempotencyKey,
+                                    HttpServletRequest servletRequest, Supplier<CheckoutResult> checkout) {
+        if (admissionControl.limitsClientsBy(AdmissionEndpoint.CHECKOUT, AdmissionControl.ClientKey.EMAIL)) {
+            String email = request.getUser() == null ? null : request.getUser().getEmail();
+            String client = email == null || email.isBlank() ? servletRequest.getRemoteAddr() : email.trim().toLowerCase(Locale.ROOT);
+            long wait = admissionControl.tryAcquire(AdmissionEndpoint.CHECKOUT, client);
+            if (wait > 0) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, Long.toString(wait))
+                        .body(Map.of("error", "Too many requests"));
             }
+        }
+        CheckoutResult result;
+        boolean replayed = false;
+        if (idempotencyKey == null) {
+            result = checkout.get();
+        } else {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                return ResponseEntity.badRequest().body(Map.of("error",
+                        "Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters"));
+            }
+            try {
+                IdempotencyCache.Outcome outcome = idempotencyCache.execute(idempotencyKey, cartId, request, checkout);
+                result = outcome.getResult();
+                replayed = outcome.isReplayed();
+            } catch (IdempotencyCache.KeyReuseException e) {
+                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of("error", e.getMessage()));
+            }
+        }
 
-            Product p = pOpt.get();
-            long subtotal = p.getPriceCents() * qty;
-            total += subtotal;
-
-            Map<String, Object> oi = new HashMap<>();
-            oi.put("productId", pid);
-            oi.put("name", p.getName());
-            oi.put("unit_price_cents", p.getPriceCents());
-            oi.put("quantity", qty);
-            oi.put("subtotal_cents", subtotal);
-            orderItems.add(oi);
+        ResponseEntity.BodyBuilder response;
+        Object body;
+        if (result.isOk()) {
+            // Returns a success response to the frontend
+            Order order = result.getOrder();
+            response = ResponseEntity.ok();
+            body = new OrderResponse(true, order.getOrderId(), order.getTotalCents());
+        } else {
+            response = ResponseEntity.status(result.getStatus() == CheckoutResult.Status.INVALID_PRODUCTS
+                    ? HttpStatus.UNPROCESSABLE_ENTITY : HttpStatus.CONFLICT);
+            body = errorBody(result);
+        }
+        if (replayed) response.header("Idempotent-Replayed", "true");
+        return response.body(body);
+    }
+
+    // POST /api/checkout/batch
+    // Accepts an array of checkout requests and returns one result per order, in input order:
+    // an OrderResponse, or {"success": false, "error": ...} for an order that was rejected.
+    // Each order is held to the same cart limits as a single checkout. The body is parsed as a stream and
+    // refused with 413 at the first order past app.checkout.max-batch-size, before the rest of it is read.
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> checkoutBatch(HttpServletRequest servletRequest) throws IOException {
+        List<CheckoutRequestReader.BatchOrder> orders;
+        try {
+            orders = requestReader.readBatch(servletRequest.getInputStream(), maxBatchSize);
+        } catch (CheckoutRequestReader.RejectedException e) {
+            return rejected(e);
+        }
+        if (orders.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Batch must contain at least one order"));
         }
 
-        if (!invalid.isEmpty()) {
-            Map<String,Object> body = Map.of("error", "Invalid productId(s)", "invalidIds", invalid);
-            log.warn("Checkout failed due to invalid product IDs: {}", invalid); // NEW: Log failure
-            return ResponseEntity.unprocessableEntity().body(body);
+        // Orders over the cart limits are answered here; the rest are placed together
+        Object[] body = new Object[orders.size()];
+        List<CheckoutRequest> accepted = new ArrayList<>(orders.size());
+        for (int i = 0; i < body.length; i++) {
+            CheckoutRequestReader.BatchOrder order = orders.get(i);
+            if (order.getRejection() == null) {
+                accepted.add(order.getRequest());
+                continue;
+            }
+            Map<String, Object> rejected = new LinkedHashMap<>();
+            rejected.put("success", false);
+            rejected.put("error", "Invalid request");
+            rejected.put("violations", List.of(order.getRejection().getMessage()));
+            body[i] = rejected;
+        }
+        Iterator<CheckoutResult> results = checkoutService.checkoutBatch(accepted).iterator();
+        for (int i = 0; i < body.length; i++) {
+            if (body[i] != null) continue;
+            CheckoutResult r = results.next();
+            body[i] = r.isOk()
+                    ? new OrderResponse(true, r.getOrder().getOrderId(), r.getOrder().getTotalCents())
+                    : errorBody(r);
         }
+        return ResponseEntity.ok(Arrays.asList(body));
+    }
+
+    private static ResponseEntity<?> rejected(CheckoutRequestReader.RejectedException e) {
+        return switch (e.getReason()) {
+            case TOO_MANY_ITEMS -> ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("error", e.getMessage()));
+            case UNKNOWN_PRODUCT -> ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of(
+                    "success", false, "error", e.getMessage(), "invalidIds", List.of(e.getProductId())));
+            default -> ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        };
+    }
 
-        //  standard UUID for professional ID generation
-        String orderId = UUID.randomUUID().toString().toUpperCase().replace("-", "").substring(0, 12);
-        
-        Map<String,Object> order = new LinkedHashMap<>();
-        order.put("orderId", orderId);
-        order.put("items", orderItems);
-        order.put("total_cents", total);
-        order.put("user", request.getUser());
-        order.put("created_at", Instant.now().toString());
-
-        // Log Order using professional logger
-        log.info("=== NEW ORDER LOGGED ===");
-        log.info("Order Details: {}", order);
-
-        // Returns a success response to the frontend
-        return ResponseEntity.ok(new OrderResponse(true, orderId, total));
+    private static Map<String, Object> errorBody(CheckoutResult result) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", false);
+        switch (result.getStatus()) {
+            case INVALID_REQUEST -> {
+                body.put("error", "Invalid request");
+                body.put("violations", result.getDetails());
+            }
+            case INVALID_PRODUCTS -> {
+                body.put("error", "Invalid productId(s)");
+                body.put("invalidIds", result.getDetails());
+            }
+            case OUT_OF_STOCK -> {
+                body.put("error", "Insufficient stock");
+                body.put("outOfStockIds", result.getDetails());
+            }
+            default -> body.put("error", "Reservation expired or does not match cart");
+        }
+        return body;
     }
-}
\ No newline at end of file
+}
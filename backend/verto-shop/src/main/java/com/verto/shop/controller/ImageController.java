@@ -0,0 +1,102 @@
+// PATH: src/main/java/com/verto/shop/controller/ImageController.java
+package com.verto.shop.controller;
+
+import com.verto.shop.service.ImageVariants;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+public class ImageController {
+
+    // Tomcat's sendfile contract: the container streams the file straight from the page cache
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Variant URLs carry a content hash, so a response never goes stale
+    private static final String CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+
+    private final ImageVariants imageVariants;
+
+    public ImageController(ImageVariants imageVariants) {
+        this.imageVariants = imageVariants;
+    }
+
+    // GET /images/variants/{name}-{variant}-{hash}.jpg
+    // Long-lived immutable caching, ETag revalidation and single byte ranges. On Tomcat the
+    // body is sent with sendfile (zero-copy); elsewhere, and for multi-range requests,
+    // Spring writes the file resource itself.
+    @GetMapping(ImageVariants.URL_PREFIX + "{fileName:.+}")
+    public ResponseEntity<?> variant(@PathVariable String fileName,
+                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                     @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String hash = imageVariants.hashOf(fileName);
+        if (hash == null) return ResponseEntity.notFound().build();
+        String etag = "\"" + hash + "\"";
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL).build();
+        }
+
+        Path file = imageVariants.file(fileName);
+        long length = Files.size(file);
+        List<HttpRange> ranges;
+        try {
+            ranges = range == null ? List.of() : HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length).build();
+        }
+
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) || ranges.size() > 1) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_JPEG)
+                    .eTag(etag)
+                    .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .body(new FileSystemResource(file));
+        }
+
+        long start = 0, end = length - 1;
+        if (!ranges.isEmpty()) {
+            HttpRange r = ranges.get(0);
+            start = r.getRangeStart(length);
+            end = r.getRangeEnd(length);
+            if (start >= length || start > end) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length).build();
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentLengthLong(end - start + 1);
+        request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START, start);
+        request.setAttribute(SENDFILE_END, end + 1);
+        return null;
+    }
+}
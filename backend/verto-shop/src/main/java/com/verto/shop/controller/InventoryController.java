@@ -0,0 +1,107 @@
+// PATH: src/main/java/com/verto/shop/controller/InventoryController.java
+package com.verto.shop.controller;
+
+import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.model.ReservationRequest;
+import com.verto.shop.service.CheckoutRequestReader;
+import com.verto.shop.service.CheckoutService;
+import com.verto.shop.service.InsufficientStockException;
+import com.verto.shop.service.InventoryService;
+import com.verto.shop.service.ProductService;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.time.Instant;
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/inventory")
+@Validated
+public class InventoryController {
+
+    private final InventoryService inventoryService;
+    private final ProductService productService;
+    private final CheckoutRequestReader cartLimits;
+
+    public InventoryController(InventoryService inventoryService, ProductService productService,
+                               CheckoutRequestReader cartLimits) {
+        this.inventoryService = inventoryService;
+        this.productService = productService;
+        this.cartLimits = cartLimits;
+    }
+
+    // GET /api/inventory/{productId}: units currently available
+    @GetMapping("/{productId}")
+    public ResponseEntity<?> available(@PathVariable String productId) {
+        if (productService.findById(productId).isEmpty()) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(Map.of("productId", productId, "available", inventoryService.available(productId)));
+    }
+
+    // PUT /api/inventory/{productId} {"available": n}: sets the stock level. An admin write (AdminAccessFilter).
+    @PutMapping("/{productId}")
+    public ResponseEntity<?> setStock(@PathVariable String productId, @RequestBody Map<String, Long> body) {
+        if (productService.findById(productId).isEmpty()) return ResponseEntity.notFound().build();
+        Long units = body.get("available");
+        if (units == null || units < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "available must be a non-negative number"));
+        }
+        inventoryService.setStock(productId, units);
+        return ResponseEntity.ok(Map.of("productId", productId, "available", units));
+    }
+
+    // POST /api/inventory/reservations: holds stock for a cart until checkout or expiry.
+    // The cart limits apply as at checkout, to each line and to each product's merged total:
+    // too many lines get 413, a bad quantity or productId 400, and unknown product ids 422.
+    @PostMapping("/reservations")
+    public ResponseEntity<?> reserve(@Valid @RequestBody ReservationRequest request) {
+        List<CheckoutRequest.Item> items = request.getItems();
+        String[] ids = new String[items.size()];
+        int[] qtys = new int[items.size()];
+        int n;
+        try {
+            cartLimits.check(items);
+            n = CheckoutService.mergeLines(items, ids, qtys);
+            cartLimits.checkMerged(ids, qtys, n);
+        } catch (CheckoutRequestReader.RejectedException e) {
+            HttpStatus status = e.getReason() == CheckoutRequestReader.RejectedException.Reason.TOO_MANY_ITEMS
+                    ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(Map.of("error", e.getMessage()));
+        } catch (CheckoutService.QuantityOverflowException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        List<String> invalid = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (productService.findById(ids[i]).isEmpty()) invalid.add(ids[i]);
+        }
+        if (!invalid.isEmpty()) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("error", "Invalid productId(s)", "invalidIds", invalid));
+        }
+
+        if (n < ids.length) {
+            ids = Arrays.copyOf(ids, n);
+            qtys = Arrays.copyOf(qtys, n);
+        }
+        try {
+            InventoryService.Reservation r = inventoryService.reserve(ids, qtys);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+                    "reservationId", r.getId(),
+                    "expiresAt", Instant.ofEpochMilli(r.getExpiresAtMillis()).toString()));
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Insufficient stock", "outOfStockIds", e.getProductIds()));
+        }
+    }
+
+    // DELETE /api/inventory/reservations/{id}: releases an abandoned cart's stock
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<Void> release(@PathVariable String reservationId) {
+        return inventoryService.release(reservationId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,57 @@
+// PATH: src/main/java/com/verto/shop/controller/OrderController.java
+package com.verto.shop.controller;
+
+import com.verto.shop.model.Order;
+import com.verto.shop.service.OrderStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/orders")
+public class OrderController {
+    private final OrderStore orderStore;
+
+    @Value("${app.orders.default-page-size:20}")
+    private int defaultPageSize = 20;
+
+    @Value("${app.orders.max-page-size:100}")
+    private int maxPageSize = 100;
+
+    public OrderController(OrderStore orderStore) {
+        this.orderStore = orderStore;
+    }
+
+    // GET /api/orders/{orderId}: the order as placed, or 404
+    @GetMapping("/{orderId}")
+    public ResponseEntity<?> get(@PathVariable String orderId) {
+        Order order = orderStore.find(orderId);
+        if (order == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(order);
+    }
+
+    // GET /api/orders?email=a@b.com&limit=20&after=...
+    // The user's orders, newest first, one page at a time: {"items":[...],"nextCursor":"..."}
+    @GetMapping
+    public ResponseEntity<?> history(@RequestParam String email,
+                                     @RequestParam(required = false) Integer limit,
+                                     @RequestParam(required = false) String after) {
+        if (email.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "email must not be blank"));
+        }
+        int pageSize = Math.max(1, Math.min(limit == null ? defaultPageSize : limit, maxPageSize));
+        OrderStore.Page page;
+        try {
+            page = orderStore.findByEmail(email, after, pageSize);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("items", page.getItems());
+        body.put("nextCursor", page.getNextCursor());
+        return ResponseEntity.ok(body);
+    }
+}
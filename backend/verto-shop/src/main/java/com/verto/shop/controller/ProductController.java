@@ -1,25 +1,160 @@
 // PATH: src/main/java/com/verto/shop/controller/ProductController.java
 package com.verto.shop.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.verto.shop.model.Product;
+import com.verto.shop.service.CatalogResponseCache;
+import com.verto.shop.service.ProductCatalog;
+import com.verto.shop.service.ProductQuery;
 import com.verto.shop.service.ProductService;
+import com.verto.shop.service.ProductSort;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
     private final ProductService svc;
+    private final CatalogResponseCache catalogCache;
+    private final ObjectMapper objectMapper;
+    // Per-item writer that leaves flushing to the response buffer
+    private final ObjectWriter productWriter;
 
-    public ProductController(ProductService svc) {
+    @Value("${app.products.default-page-size:50}")
+    private int defaultPageSize = 50;
+
+    @Value("${app.products.max-page-size:500}")
+    private int maxPageSize = 500;
+
+    @Value("${app.search.default-limit:20}")
+    private int defaultSearchLimit = 20;
+
+    @Value("${app.search.max-limit:100}")
+    private int maxSearchLimit = 100;
+
+    public ProductController(ProductService svc, CatalogResponseCache catalogCache, ObjectMapper objectMapper) {
         this.svc = svc;
+        this.catalogCache = catalogCache;
+        this.objectMapper = objectMapper;
+        this.productWriter = objectMapper.writerFor(Product.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     // Core Feature: GET /api/products
-    // Returns the hardcoded JSON list of products.
+    // Without paging parameters, returns the full product list (used by the frontend grid)
+    // from pre-serialized bytes, gzip-encoded when accepted, with a strong ETag and 304 support.
+    // With any of limit/after/sort/minPriceCents/maxPriceCents/currency, returns one
+    // cursor-paginated page: {"items":[...],"nextCursor":"..."} streamed straight to the response.
     @GetMapping
-    public List<Product> list() {
-        return svc.getAll();
+    public ResponseEntity<?> list(@RequestParam(required = false) Integer limit,
+                                  @RequestParam(required = false) String after,
+                                  @RequestParam(required = false) String sort,
+                                  @RequestParam(required = false) Long minPriceCents,
+                                  @RequestParam(required = false) Long maxPriceCents,
+                                  @RequestParam(required = false) String currency,
+                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                  @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                  HttpServletResponse response) throws IOException {
+        if (limit == null && after == null && sort == null && minPriceCents == null
+                && maxPriceCents == null && currency == null) {
+            return fullCatalog(ifNoneMatch, acceptEncoding);
+        }
+
+        ProductQuery query;
+        try {
+            int pageSize = Math.min(limit == null ? defaultPageSize : limit, maxPageSize);
+            query = new ProductQuery(ProductSort.fromParam(sort), minPriceCents, maxPriceCents, currency, after, pageSize);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        // Pin the snapshot so the whole page comes from one consistent catalog version,
+        // and write each product as it is visited instead of collecting the page first.
+        ProductCatalog catalog = svc.getCatalog();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("items");
+            String next = catalog.scan(query, p -> writeProduct(gen, p));
+            gen.writeEndArray();
+            gen.writeStringField("nextCursor", next);
+            gen.writeEndObject();
+        }
+        return null; // response already written
+    }
+
+    // GET /api/products/search?q=wireless mouse&limit=20
+    // Products containing every word of q in their name or description, ranked
+    // (name matches first) and capped at limit: {"items":[...]}
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "q must not be blank"));
+        }
+        int max = Math.max(1, Math.min(limit == null ? defaultSearchLimit : limit, maxSearchLimit));
+        return ResponseEntity.ok(Map.of("items", svc.getCatalog().search(q, max)));
+    }
+
+    // GET /api/products/autocomplete?q=wireless mo
+    // Completions of the last word of q, most common first: {"suggestions":["wireless mouse", ...]}
+    @GetMapping("/autocomplete")
+    public ResponseEntity<?> autocomplete(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        // suggest() returns at most 10 anyway; the clamp keeps zero and negative limits valid
+        int max = Math.max(1, Math.min(limit == null ? 10 : limit, 10));
+        return ResponseEntity.ok(Map.of("suggestions", svc.getCatalog().suggest(q, max)));
+    }
+
+    private ResponseEntity<byte[]> fullCatalog(String ifNoneMatch, String acceptEncoding) {
+        CatalogResponseCache.Entry entry = catalogCache.get();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? entry.getGzipEtag() : entry.getEtag();
+        if (entry.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.getGzip());
+        }
+        return ok.body(entry.getJson());
+    }
+
+    // True unless gzip is absent or explicitly refused with q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (!tokens[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.matches("q=0(\\.0*)?")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void writeProduct(JsonGenerator gen, Product p) {
+        try {
+            productWriter.writeValue(gen, p);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-}
\ No newline at end of file
+}
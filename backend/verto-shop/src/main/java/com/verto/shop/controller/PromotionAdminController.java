@@ -0,0 +1,51 @@
+// PATH: src/main/java/com/verto/shop/controller/PromotionAdminController.java
+package com.verto.shop.controller;
+
+import com.verto.shop.model.Promotion;
+import com.verto.shop.service.PricingEngine;
+import com.verto.shop.service.PricingRules;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/promotions")
+public class PromotionAdminController {
+
+    private final PricingEngine pricingEngine;
+
+    public PromotionAdminController(PricingEngine pricingEngine) {
+        this.pricingEngine = pricingEngine;
+    }
+
+    // GET /api/admin/promotions: the promotions in force and their version
+    @GetMapping
+    public ResponseEntity<?> list() {
+        return ResponseEntity.ok(body(pricingEngine.getRules()));
+    }
+
+    // PUT /api/admin/promotions: replaces every promotion; quotes and checkouts use the new set at once
+    @PutMapping
+    public ResponseEntity<?> replace(@RequestBody List<Promotion> promotions) {
+        try {
+            return ResponseEntity.ok(body(pricingEngine.replacePromotions(promotions)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static Map<String, Object> body(PricingRules rules) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("version", rules.getVersion());
+        body.put("promotions", rules.getPromotions());
+        return body;
+    }
+}
@@ -0,0 +1,49 @@
+// PATH: src/main/java/com/verto/shop/controller/SkuMetricsEndpoint.java
+package com.verto.shop.controller;
+
+import com.verto.shop.service.ShopMetrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Actuator endpoint /actuator/skus: per-SKU checkout counters (top sellers, or one SKU)
+@Component
+@Endpoint(id = "skus")
+public class SkuMetricsEndpoint {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final ShopMetrics metrics;
+
+    public SkuMetricsEndpoint(ShopMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // GET /actuator/skus?limit=20 (limit clamped to 1..1000)
+    @ReadOperation
+    public Map<String, Object> top(@Nullable Integer limit) {
+        int max = Math.max(1, Math.min(limit == null ? 20 : limit, MAX_LIMIT));
+        Map<String, Object> body = new LinkedHashMap<>();
+        for (Map.Entry<String, ShopMetrics.SkuStats> e : metrics.topSkus(max)) {
+            body.put(e.getKey(), stats(e.getValue()));
+        }
+        return body;
+    }
+
+    // GET /actuator/skus/{productId}
+    @ReadOperation
+    public Map<String, Object> sku(@Selector String productId) {
+        ShopMetrics.SkuStats stats = metrics.sku(productId);
+        return stats == null ? Map.of("orders", 0L, "units", 0L) : stats(stats);
+    }
+
+    private static Map<String, Object> stats(ShopMetrics.SkuStats s) {
+        return Map.of("orders", s.getOrders(), "units", s.getUnits());
+    }
+}
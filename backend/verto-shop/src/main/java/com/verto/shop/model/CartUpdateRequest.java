@@ -0,0 +1,35 @@
+// PATH: src/main/java/com/verto/shop/model/CartUpdateRequest.java
+package com.verto.shop.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+// DTO for PUT and PATCH /api/cart/{cartId}: PUT replaces the cart with these lines (0 = no line),
+// PATCH sets the quantity of each listed product (0 removes it) and keeps the rest
+public class CartUpdateRequest {
+
+    public static class Line {
+        @NotNull
+        private String productId;
+        @Min(0)
+        private int quantity;
+
+        public Line() {}
+        public Line(String productId, int quantity) { this.productId = productId; this.quantity = quantity; }
+        public String getProductId() { return productId; }
+        public void setProductId(String productId) { this.productId = productId; }
+        public int getQuantity() { return quantity; }
+        public void setQuantity(int quantity) { this.quantity = quantity; }
+    }
+
+    @NotNull
+    private List<@NotNull @Valid Line> items;
+
+    public CartUpdateRequest() {}
+    public CartUpdateRequest(List<Line> items) { this.items = items; }
+    public List<Line> getItems() { return items; }
+    public void setItems(List<Line> items) { this.items = items; }
+}
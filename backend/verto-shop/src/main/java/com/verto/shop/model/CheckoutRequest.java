@@ -1,6 +1,7 @@
 // PATH: src/main/java/com/verto/shop/model/CheckoutRequest.java
 package com.verto.shop.model;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -25,10 +26,13 @@ public class CheckoutRequest {
     }
 
     @NotEmpty // Ensures the cart items list is not empty
-    private List<Item> items;
+    private List<@NotNull @Valid Item> items;
 
     private User user;
 
+    // Optional: checks out units held earlier via POST /api/inventory/reservations
+    private String reservationId;
+
     public static class User {
         private String name;
         private String email;
@@ -42,4 +46,6 @@ public class CheckoutRequest {
     public void setItems(List<Item> items) { this.items = items; }
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
+    public String getReservationId() { return reservationId; }
+    public void setReservationId(String reservationId) { this.reservationId = reservationId; }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+// PATH: src/main/java/com/verto/shop/model/Order.java
+package com.verto.shop.model;
+
+import java.util.List;
+
+// Immutable placed order, as written to the order journal
+public final class Order {
+    private final String orderId;
+    private final long createdAtMillis;
+    private final long totalCents;
+    private final String userName;
+    private final String userEmail;
+    private final List<OrderLine> lines;
+
+    public Order(String orderId, long createdAtMillis, long totalCents, String userName, String userEmail, List<OrderLine> lines) {
+        this.orderId = orderId; this.createdAtMillis = createdAtMillis; this.totalCents = totalCents;
+        this.userName = userName; this.userEmail = userEmail; this.lines = List.copyOf(lines);
+    }
+
+    public Order(String orderId, long createdAtMillis, long totalCents, String userName, String userEmail, OrderLine[] lines) {
+        this.orderId = orderId; this.createdAtMillis = createdAtMillis; this.totalCents = totalCents;
+        this.userName = userName; this.userEmail = userEmail; this.lines = List.of(lines);
+    }
+
+    public String getOrderId() { return orderId; }
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public long getTotalCents() { return totalCents; }
+    public String getUserName() { return userName; }
+    public String getUserEmail() { return userEmail; }
+    public List<OrderLine> getLines() { return lines; }
+}
@@ -0,0 +1,29 @@
+// PATH: src/main/java/com/verto/shop/model/OrderLine.java
+package com.verto.shop.model;
+
+// Immutable priced line of a placed order
+public final class OrderLine {
+    private final String productId;
+    private final String name;
+    private final long unitPriceCents;
+    private final int quantity;
+    private final long discountCents;
+
+    public OrderLine(String productId, String name, long unitPriceCents, int quantity) {
+        this(productId, name, unitPriceCents, quantity, 0);
+    }
+
+    public OrderLine(String productId, String name, long unitPriceCents, int quantity, long discountCents) {
+        this.productId = productId; this.name = name; this.unitPriceCents = unitPriceCents; this.quantity = quantity;
+        this.discountCents = discountCents;
+    }
+
+    public String getProductId() { return productId; }
+    public String getName() { return name; }
+    public long getUnitPriceCents() { return unitPriceCents; }
+    public int getQuantity() { return quantity; }
+    public long getSubtotalCents() { return unitPriceCents * quantity; }
+    // Promotion discount on this line
+    public long getDiscountCents() { return discountCents; }
+    public long getTotalCents() { return unitPriceCents * quantity - discountCents; }
+}
@@ -8,6 +8,8 @@ public class Product {
     private String description;
     private long priceCents;
     private String imageUrl;
+    // Small rendition for grids and carts; null when there is none
+    private String thumbnailUrl;
     private String currency;
 
     public Product() {}
@@ -26,6 +28,8 @@ public class Product {
     public void setPriceCents(long priceCents) { this.priceCents = priceCents; }
     public String getImageUrl() { return imageUrl; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+// PATH: src/main/java/com/verto/shop/model/Promotion.java
+package com.verto.shop.model;
+
+import java.util.List;
+
+// A promotion rule as configured (app.pricing.promotions-file or PUT /api/admin/promotions).
+// With productIds it applies per unit of those SKUs; without, to the whole cart.
+public class Promotion {
+
+    public enum Type {
+        PERCENT_OFF,  // percent off each unit, or off the cart subtotal
+        AMOUNT_OFF,   // amountCents off each unit, or once off the cart subtotal
+        BUY_X_GET_Y   // per SKU: of every buyQuantity + freeQuantity units, freeQuantity are free
+    }
+
+    private String id;
+    private Type type;
+    private List<String> productIds;
+    private int percent;
+    private long amountCents;
+    private int buyQuantity;
+    private int freeQuantity;
+    // Cart-wide promotions only apply from this subtotal (after SKU discounts)
+    private long minSubtotalCents;
+
+    public Promotion() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+    public List<String> getProductIds() { return productIds; }
+    public void setProductIds(List<String> productIds) { this.productIds = productIds; }
+    public int getPercent() { return percent; }
+    public void setPercent(int percent) { this.percent = percent; }
+    public long getAmountCents() { return amountCents; }
+    public void setAmountCents(long amountCents) { this.amountCents = amountCents; }
+    public int getBuyQuantity() { return buyQuantity; }
+    public void setBuyQuantity(int buyQuantity) { this.buyQuantity = buyQuantity; }
+    public int getFreeQuantity() { return freeQuantity; }
+    public void setFreeQuantity(int freeQuantity) { this.freeQuantity = freeQuantity; }
+    public long getMinSubtotalCents() { return minSubtotalCents; }
+    public void setMinSubtotalCents(long minSubtotalCents) { this.minSubtotalCents = minSubtotalCents; }
+}
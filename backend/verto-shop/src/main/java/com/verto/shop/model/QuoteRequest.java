@@ -0,0 +1,20 @@
+// PATH: src/main/java/com/verto/shop/model/QuoteRequest.java
+package com.verto.shop.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+// DTO for the incoming JSON body on POST /api/cart/quote: the cart items, as sent to checkout
+public class QuoteRequest {
+
+    @NotEmpty
+    @Valid
+    private List<CheckoutRequest.Item> items;
+
+    public QuoteRequest() {}
+    public QuoteRequest(List<CheckoutRequest.Item> items) { this.items = items; }
+    public List<CheckoutRequest.Item> getItems() { return items; }
+    public void setItems(List<CheckoutRequest.Item> items) { this.items = items; }
+}
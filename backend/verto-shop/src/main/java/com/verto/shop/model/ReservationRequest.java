@@ -0,0 +1,19 @@
+// PATH: src/main/java/com/verto/shop/model/ReservationRequest.java
+package com.verto.shop.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+// DTO for holding stock for a cart before checkout
+public class ReservationRequest {
+
+    @NotEmpty
+    @Valid
+    private List<CheckoutRequest.Item> items;
+
+    public ReservationRequest() {}
+    public List<CheckoutRequest.Item> getItems() { return items; }
+    public void setItems(List<CheckoutRequest.Item> items) { this.items = items; }
+}
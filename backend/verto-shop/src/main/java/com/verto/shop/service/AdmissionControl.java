@@ -0,0 +1,108 @@
+// PATH: src/main/java/com/verto/shop/service/AdmissionControl.java
+package com.verto.shop.service;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission limits per endpoint group (see AdmissionEndpoint), read from
+ * app.admission.{group}.*:
+ *
+ *   rate-per-second / burst  per-client token bucket (0 = no per-client limit)
+ *   max-concurrent           requests of the group in progress at once (0 = unlimited)
+ *   client-key               ip (default) or email: who a bucket belongs to; email only
+ *                            applies to checkout, where CheckoutController keys by
+ *                            CheckoutRequest.User.email and falls back to the IP
+ *
+ * Both limits refuse at once instead of queueing. A request that would wait
+ * only holds a servlet thread longer and delays everything behind it, including
+ * cheap catalog reads. Refused clients are told when to come back.
+ */
+@Component
+public class AdmissionControl {
+
+    /** Who a per-client bucket belongs to. */
+    public enum ClientKey { IP, EMAIL }
+
+    // Limits and live state of one endpoint group
+    private static final class Limits {
+        final RateLimiter perClient;
+        final ClientKey clientKey;
+        final int maxConcurrent;
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        Limits(RateLimiter perClient, ClientKey clientKey, int maxConcurrent) {
+            this.perClient = perClient;
+            this.clientKey = clientKey;
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+
+    private final Map<AdmissionEndpoint, Limits> limits = new EnumMap<>(AdmissionEndpoint.class);
+    private final long retryAfterSeconds;
+
+    public AdmissionControl(Environment env) {
+        int maxClients = env.getProperty("app.admission.max-clients", Integer.class, 100_000);
+        this.retryAfterSeconds = env.getProperty("app.admission.retry-after-seconds", Long.class, 1L);
+        for (AdmissionEndpoint e : AdmissionEndpoint.values()) {
+            String prefix = "app.admission." + e.getKey() + ".";
+            double rate = env.getProperty(prefix + "rate-per-second", Double.class, 0.0);
+            int burst = env.getProperty(prefix + "burst", Integer.class, Math.max(1, (int) Math.ceil(rate)));
+            int maxConcurrent = env.getProperty(prefix + "max-concurrent", Integer.class, 0);
+            ClientKey key = ClientKey.valueOf(env.getProperty(prefix + "client-key", "ip").trim().toUpperCase(Locale.ROOT));
+            if (key == ClientKey.EMAIL && e != AdmissionEndpoint.CHECKOUT) {
+                throw new IllegalArgumentException(prefix + "client-key=email is only supported for checkout");
+            }
+            if (maxConcurrent < 0) throw new IllegalArgumentException(prefix + "max-concurrent must not be negative");
+            limits.put(e, new Limits(rate > 0 ? new RateLimiter(rate, burst, maxClients) : null, key, maxConcurrent));
+        }
+    }
+
+    /** Takes a concurrency slot for the group; false if it is full. Pair a true result with {@link #exit}. */
+    public boolean tryEnter(AdmissionEndpoint endpoint) {
+        Limits l = limits.get(endpoint);
+        if (l.maxConcurrent == 0) return true;
+        AtomicInteger inFlight = l.inFlight;
+        while (true) {
+            int n = inFlight.get();
+            if (n >= l.maxConcurrent) return false;
+            if (inFlight.compareAndSet(n, n + 1)) return true;
+        }
+    }
+
+    public void exit(AdmissionEndpoint endpoint) {
+        Limits l = limits.get(endpoint);
+        if (l.maxConcurrent != 0) l.inFlight.decrementAndGet();
+    }
+
+    /** Whether the group has a per-client limit keyed the given way. */
+    public boolean limitsClientsBy(AdmissionEndpoint endpoint, ClientKey key) {
+        Limits l = limits.get(endpoint);
+        return l.perClient != null && l.clientKey == key;
+    }
+
+    /**
+     * Takes a token from the client's bucket for the group.
+     *
+     * @return 0 if the request may proceed, otherwise whole seconds to wait (at least 1)
+     */
+    public long tryAcquire(AdmissionEndpoint endpoint, String client) {
+        RateLimiter limiter = limits.get(endpoint).perClient;
+        if (limiter == null) return 0;
+        long waitNanos = limiter.tryAcquire(client);
+        return waitNanos == 0 ? 0 : Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    /** Seconds a client shed for lack of capacity is asked to wait. */
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+
+    /** Requests of the group in progress now (only counted when max-concurrent is set). */
+    public int inFlight(AdmissionEndpoint endpoint) {
+        return limits.get(endpoint).inFlight.get();
+    }
+}
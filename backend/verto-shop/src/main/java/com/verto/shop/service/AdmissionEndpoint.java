@@ -0,0 +1,37 @@
+// PATH: src/main/java/com/verto/shop/service/AdmissionEndpoint.java
+package com.verto.shop.service;
+
+// Endpoint groups with their own admission limits, configured under app.admission.{key}.*
+public enum AdmissionEndpoint {
+    // POST /api/checkout
+    CHECKOUT("checkout", "POST", "/api/checkout", false),
+    // POST /api/checkout/batch
+    CHECKOUT_BATCH("checkout-batch", "POST", "/api/checkout/batch", false),
+    // GET /api/products and everything below it (search, autocomplete, single products)
+    PRODUCTS("products", "GET", "/api/products", true),
+    // /api/inventory and everything below it
+    INVENTORY("inventory", null, "/api/inventory", true);
+
+    private final String key;
+    private final String method;
+    private final String path;
+    private final boolean subPaths;
+
+    AdmissionEndpoint(String key, String method, String path, boolean subPaths) {
+        this.key = key;
+        this.method = method;
+        this.path = path;
+        this.subPaths = subPaths;
+    }
+
+    public String getKey() { return key; }
+
+    // The group a request belongs to; null if it is not limited
+    public static AdmissionEndpoint of(String method, String path) {
+        for (AdmissionEndpoint e : values()) {
+            if (e.method != null && !e.method.equals(method)) continue;
+            if (path.equals(e.path) || (e.subPaths && path.startsWith(e.path) && path.charAt(e.path.length()) == '/')) return e;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+// PATH: src/main/java/com/verto/shop/service/CartQuote.java
+package com.verto.shop.service;
+
+import java.util.List;
+
+/**
+ * Prices of a cart as checkout would charge them: per line, then for the cart.
+ * If any product id is unknown, only invalidIds is set.
+ */
+public final class CartQuote {
+
+    /** One merged cart line. */
+    public static final class Line {
+        private final String productId;
+        private final String name;
+        private final long unitPriceCents;
+        private final int quantity;
+        private final long discountCents;
+        private final String promotionId;
+
+        Line(String productId, String name, long unitPriceCents, int quantity, long discountCents, String promotionId) {
+            this.productId = productId;
+            this.name = name;
+            this.unitPriceCents = unitPriceCents;
+            this.quantity = quantity;
+            this.discountCents = discountCents;
+            this.promotionId = promotionId;
+        }
+
+        public String getProductId() { return productId; }
+        public String getName() { return name; }
+        public long getUnitPriceCents() { return unitPriceCents; }
+        public int getQuantity() { return quantity; }
+        public long getSubtotalCents() { return unitPriceCents * quantity; }
+        public long getDiscountCents() { return discountCents; }
+        public long getTotalCents() { return unitPriceCents * quantity - discountCents; }
+        // Null when no promotion applies to the line
+        public String getPromotionId() { return promotionId; }
+    }
+
+    private final List<Line> lines;
+    private final long subtotalCents;
+    private final long discountCents;
+    private final long totalCents;
+    private final String promotionId;
+    private final List<String> invalidIds;
+
+    CartQuote(List<Line> lines, long subtotalCents, long discountCents, long totalCents, String promotionId) {
+        this.lines = lines;
+        this.subtotalCents = subtotalCents;
+        this.discountCents = discountCents;
+        this.totalCents = totalCents;
+        this.promotionId = promotionId;
+        this.invalidIds = List.of();
+    }
+
+    private CartQuote(List<String> invalidIds) {
+        this.lines = List.of();
+        this.subtotalCents = 0;
+        this.discountCents = 0;
+        this.totalCents = 0;
+        this.promotionId = null;
+        this.invalidIds = invalidIds;
+    }
+
+    static CartQuote invalidProducts(List<String> ids) { return new CartQuote(List.copyOf(ids)); }
+
+    public boolean isOk() { return invalidIds.isEmpty(); }
+    // Merged lines, in product id order
+    public List<Line> getLines() { return lines; }
+    // List price of all lines
+    public long getSubtotalCents() { return subtotalCents; }
+    // Line discounts plus the cart-wide discount
+    public long getDiscountCents() { return discountCents; }
+    public long getTotalCents() { return totalCents; }
+    // The cart-wide promotion applied, if any
+    public String getPromotionId() { return promotionId; }
+    public List<String> getInvalidIds() { return invalidIds; }
+}
@@ -0,0 +1,417 @@
+// PATH: src/main/java/com/verto/shop/service/CartStore.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.CheckoutRequest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Server-side carts, for PUT/PATCH /api/cart/{cartId} and checkout by cartId.
+ *
+ * Carts are spread over app.carts.shards shards by cart id. Each shard is an
+ * access-ordered map behind its own lock, so updates to different carts rarely
+ * contend. A cart holds no objects per line: each line is one long, with the
+ * product's index in a shared SKU table in the high half and the quantity in the
+ * low half. Lines are kept merged, one per product, in the order they were
+ * added. A three-line cart with a UUID id costs about 200 bytes of heap, so a
+ * million carts fit in roughly 200 MB.
+ *
+ * The SKU table maps product ids to indexes. It only grows, and holds each id
+ * once, so every cart that contains a product shares the catalog's String for it.
+ *
+ * Two kinds of eviction keep the heap bounded:
+ * - Idle: a cart not read or written for app.carts.idle-ttl-ms is treated as
+ *   gone. A background sweep drops such carts, oldest first.
+ * - Size: when a shard is over its share of app.carts.max-carts, its least
+ *   recently used cart is dropped.
+ */
+@Component
+public class CartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CartStore.class);
+
+    /** A copy of a cart's merged lines, in the order they were added. */
+    public static final class Snapshot {
+        private final String cartId;
+        private final long version;
+        final String[] ids;
+        final int[] qtys;
+
+        Snapshot(String cartId, long version, String[] ids, int[] qtys) {
+            this.cartId = cartId;
+            this.version = version;
+            this.ids = ids;
+            this.qtys = qtys;
+        }
+
+        public String getCartId() { return cartId; }
+        // Changes on every write to the cart
+        public long getVersion() { return version; }
+        public int size() { return ids.length; }
+        public boolean isEmpty() { return ids.length == 0; }
+
+        public List<CheckoutRequest.Item> getItems() {
+            List<CheckoutRequest.Item> items = new ArrayList<>(ids.length);
+            for (int i = 0; i < ids.length; i++) items.add(new CheckoutRequest.Item(ids[i], qtys[i]));
+            return items;
+        }
+    }
+
+    /** Thrown when an update would leave more lines in the cart than app.checkout.max-items. */
+    public static class TooManyLinesException extends RuntimeException {
+        public TooManyLinesException(int maxLines) {
+            super("Cart exceeds maximum of " + maxLines + " items");
+        }
+    }
+
+    /** Thrown when a product's quantity in the cart would exceed app.checkout.max-quantity. */
+    public static class QuantityTooLargeException extends RuntimeException {
+        public QuantityTooLargeException(String productId, int maxQuantity) {
+            super("total quantity of product " + productId + " must be at most " + maxQuantity);
+        }
+    }
+
+    // Lines are (sku index << 32 | quantity), the first size of them in use
+    private static final class Cart {
+        long[] lines;
+        int size;
+        long version;
+        long lastAccessMillis;
+
+        Cart(int capacity) {
+            lines = new long[Math.max(capacity, 1)];
+        }
+
+        int find(int sku) {
+            for (int i = 0; i < size; i++) if ((int) (lines[i] >>> 32) == sku) return i;
+            return -1;
+        }
+
+        void set(int index, int sku, int qty) {
+            if (index == size) {
+                if (size == lines.length) lines = Arrays.copyOf(lines, size * 2);
+                size++;
+            }
+            lines[index] = (long) sku << 32 | qty;
+        }
+
+        void remove(int index) {
+            System.arraycopy(lines, index + 1, lines, index, size - index - 1);
+            size--;
+        }
+    }
+
+    private final class Shard extends LinkedHashMap<String, Cart> {
+        final ReentrantLock lock = new ReentrantLock();
+
+        Shard() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cart> eldest) {
+            if (size() <= maxCartsPerShard) return false;
+            evicted.increment();
+            return true;
+        }
+    }
+
+    /** Longest cart id accepted; ids are letters, digits, _ and -, e.g. a UUID the browser made. */
+    public static final int MAX_CART_ID_LENGTH = 64;
+
+    private final int maxLines;
+    private final int maxQuantity;
+    private final int maxCartsPerShard;
+    private final long idleTtlMillis;
+    private final long sweepIntervalMillis;
+    private final LongSupplier clock;
+    private final Shard[] shards;
+
+    private final ConcurrentHashMap<String, Integer> skuIndex = new ConcurrentHashMap<>();
+    private volatile String[] skus = new String[1024];
+    private int skuCount;
+    private final AtomicLong versions = new AtomicLong();
+    private final LongAdder evicted = new LongAdder();
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public CartStore(@Value("${app.carts.shards:64}") int shards,
+                     @Value("${app.carts.max-carts:1000000}") int maxCarts,
+                     @Value("${app.carts.idle-ttl-ms:86400000}") long idleTtlMillis,
+                     @Value("${app.carts.sweep-interval-ms:60000}") long sweepIntervalMillis,
+                     @Value("${app.checkout.max-items:100}") int maxLines,
+                     @Value("${app.checkout.max-quantity:1000}") int maxQuantity) {
+        this(shards, maxCarts, idleTtlMillis, sweepIntervalMillis, maxLines, maxQuantity, System::currentTimeMillis);
+    }
+
+    CartStore(int shards, int maxCarts, long idleTtlMillis, long sweepIntervalMillis, int maxLines, int maxQuantity,
+              LongSupplier clock) {
+        if (shards < 1 || Integer.bitCount(shards) != 1) throw new IllegalArgumentException("app.carts.shards must be a power of two");
+        if (maxCarts < shards) throw new IllegalArgumentException("app.carts.max-carts must be at least app.carts.shards");
+        if (idleTtlMillis < 1 || sweepIntervalMillis < 1) {
+            throw new IllegalArgumentException("app.carts.idle-ttl-ms and sweep-interval-ms must be positive");
+        }
+        this.maxLines = maxLines;
+        this.maxQuantity = maxQuantity;
+        this.maxCartsPerShard = maxCarts / shards;
+        this.idleTtlMillis = idleTtlMillis;
+        this.sweepIntervalMillis = sweepIntervalMillis;
+        this.clock = clock;
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++) this.shards[i] = new Shard();
+    }
+
+    @PostConstruct
+    void startSweeper() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cart-idle-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::evictIdle, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopSweeper() {
+        if (sweeper != null) sweeper.shutdownNow();
+    }
+
+    public static boolean isValidCartId(String cartId) {
+        if (cartId == null || cartId.isEmpty() || cartId.length() > MAX_CART_ID_LENGTH) return false;
+        for (int i = 0; i < cartId.length(); i++) {
+            char c = cartId.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '-')) return false;
+        }
+        return true;
+    }
+
+    /** The cart, or null if it does not exist or has been idle too long. */
+    public Snapshot get(String cartId) {
+        Shard shard = shard(cartId);
+        long now = clock.getAsLong();
+        shard.lock.lock();
+        try {
+            Cart cart = live(shard, cartId, now);
+            if (cart == null) return null;
+            cart.lastAccessMillis = now;
+            return snapshot(cartId, cart);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the cart's lines, creating the cart if needed. Lines for the same
+     * product are added up, and lines with quantity 0 are left out, as in update.
+     * Product ids must be known to the catalog.
+     *
+     * @throws TooManyLinesException if the merged cart has more than max-items lines
+     * @throws QuantityTooLargeException if a product's added-up quantity is over max-quantity
+     */
+    public Snapshot replace(String cartId, String[] ids, int[] qtys, int n) {
+        int[] skuIds = intern(ids, n);
+        Cart cart = new Cart(n);
+        for (int i = 0; i < n; i++) {
+            if (qtys[i] == 0) continue;
+            int at = cart.find(skuIds[i]);
+            long total = at < 0 ? qtys[i] : (long) (int) cart.lines[at] + qtys[i];
+            if (total > maxQuantity) throw new QuantityTooLargeException(ids[i], maxQuantity);
+            if (at < 0) {
+                if (cart.size == maxLines) throw new TooManyLinesException(maxLines);
+                cart.set(cart.size, skuIds[i], qtys[i]);
+            } else {
+                cart.set(at, skuIds[i], (int) total);
+            }
+        }
+        Shard shard = shard(cartId);
+        long now = clock.getAsLong();
+        shard.lock.lock();
+        try {
+            cart.version = versions.incrementAndGet();
+            cart.lastAccessMillis = now;
+            shard.put(cartId, cart);
+            return snapshot(cartId, cart);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the quantity of each given product, creating the cart if needed. A
+     * quantity of 0 removes the line; other lines are left as they are. If the
+     * same product is given twice, the last quantity wins.
+     *
+     * @throws TooManyLinesException if the cart would have more than max-items lines; it is left unchanged
+     * @throws QuantityTooLargeException if a quantity is over max-quantity; the cart is left unchanged
+     */
+    public Snapshot update(String cartId, String[] ids, int[] qtys, int n) {
+        for (int i = 0; i < n; i++) {
+            if (qtys[i] > maxQuantity) throw new QuantityTooLargeException(ids[i], maxQuantity);
+        }
+        int[] skuIds = intern(ids, n);
+        Shard shard = shard(cartId);
+        long now = clock.getAsLong();
+        shard.lock.lock();
+        try {
+            Cart current = live(shard, cartId, now);
+            Cart cart = new Cart(current == null ? n : current.size + n);
+            if (current != null) {
+                System.arraycopy(current.lines, 0, cart.lines, 0, current.size);
+                cart.size = current.size;
+            }
+            for (int i = 0; i < n; i++) {
+                int at = cart.find(skuIds[i]);
+                if (qtys[i] == 0) {
+                    if (at >= 0) cart.remove(at);
+                } else if (at >= 0) {
+                    cart.set(at, skuIds[i], qtys[i]);
+                } else {
+                    if (cart.size == maxLines) throw new TooManyLinesException(maxLines);
+                    cart.set(cart.size, skuIds[i], qtys[i]);
+                }
+            }
+            cart.version = versions.incrementAndGet();
+            cart.lastAccessMillis = now;
+            shard.put(cartId, cart);
+            return snapshot(cartId, cart);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /** Deletes the cart; returns false if there was none. */
+    public boolean remove(String cartId) {
+        Shard shard = shard(cartId);
+        shard.lock.lock();
+        try {
+            return shard.remove(cartId) != null;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /** Deletes the cart only if it has not changed since the snapshot, e.g. once it has been checked out. */
+    public boolean remove(Snapshot checkedOut) {
+        Shard shard = shard(checkedOut.cartId);
+        shard.lock.lock();
+        try {
+            Cart cart = shard.get(checkedOut.cartId);
+            if (cart == null || cart.version != checkedOut.version) return false;
+            shard.remove(checkedOut.cartId);
+            return true;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /** Drops every cart idle for longer than the TTL; run periodically by the sweeper. */
+    public int evictIdle() {
+        long cutoff = clock.getAsLong() - idleTtlMillis;
+        int dropped = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                // Access order: the least recently used carts come first
+                for (Iterator<Cart> it = shard.values().iterator(); it.hasNext(); ) {
+                    if (it.next().lastAccessMillis > cutoff) break;
+                    it.remove();
+                    dropped++;
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        if (dropped > 0) {
+            evicted.add(dropped);
+            log.info("Evicted {} idle cart(s)", dropped);
+        }
+        return dropped;
+    }
+
+    /** Carts held, including idle ones not swept yet. */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /** Carts dropped so far for being idle or over the size limit. */
+    public long getEvictions() { return evicted.sum(); }
+
+    private Shard shard(String cartId) {
+        int h = cartId.hashCode();
+        return shards[(h ^ (h >>> 16)) & (shards.length - 1)];
+    }
+
+    // The cart under the shard lock, dropping it if it has been idle too long
+    private Cart live(Shard shard, String cartId, long now) {
+        Cart cart = shard.get(cartId);
+        if (cart != null && cart.lastAccessMillis <= now - idleTtlMillis) {
+            shard.remove(cartId);
+            evicted.increment();
+            return null;
+        }
+        return cart;
+    }
+
+    private Snapshot snapshot(String cartId, Cart cart) {
+        String[] table = skus;
+        String[] ids = new String[cart.size];
+        int[] qtys = new int[cart.size];
+        for (int i = 0; i < cart.size; i++) {
+            ids[i] = table[(int) (cart.lines[i] >>> 32)];
+            qtys[i] = (int) cart.lines[i];
+        }
+        return new Snapshot(cartId, cart.version, ids, qtys);
+    }
+
+    private int[] intern(String[] ids, int n) {
+        int[] skuIds = new int[n];
+        for (int i = 0; i < n; i++) {
+            Integer known = skuIndex.get(ids[i]);
+            skuIds[i] = known != null ? known : add(ids[i]);
+        }
+        return skuIds;
+    }
+
+    // The table entry is written before the index entry that points to it, so readers never see a gap
+    private synchronized int add(String id) {
+        Integer known = skuIndex.get(id);
+        if (known != null) return known;
+        String[] table = skus;
+        if (skuCount == table.length) table = Arrays.copyOf(table, table.length * 2);
+        table[skuCount] = id;
+        skus = table;
+        skuIndex.put(id, skuCount);
+        return skuCount++;
+    }
+}
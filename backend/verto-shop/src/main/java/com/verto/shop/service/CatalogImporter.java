@@ -0,0 +1,313 @@
+// PATH: src/main/java/com/verto/shop/service/CatalogImporter.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Product;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Loads the product catalog from app.catalog.file (JSON Lines or CSV) and keeps
+ * it in sync with the file and with the delta files in app.catalog.delta-dir.
+ *
+ * A full load reads the base file, applies every delta file in name order and
+ * only then publishes the result to ProductService as one new snapshot. Readers
+ * therefore see either the old catalog or the complete new one, never a partly
+ * loaded one. Delta files hold only changed or added rows. A new delta file is
+ * applied on its own as an upsert, without reading the base file again.
+ *
+ * Reloads run on one background thread. They are triggered by
+ * POST /api/admin/catalog/reload or, when app.catalog.poll-interval-ms is set,
+ * by changes to the files. A changed file is picked up once it has looked the
+ * same for two polls, so a file that is still being written is not read early;
+ * writing to a temp name and renaming avoids even that wait. A base file that
+ * fails to load at startup stops the application. A failed reload later on
+ * keeps the current catalog and is recorded in the last report.
+ */
+@Service
+public class CatalogImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImporter.class);
+
+    /** What the last import did and what it cost. */
+    public static final class LoadReport {
+        private final String source;
+        private final String kind;
+        private final int rows;
+        private final int deltaFiles;
+        private final long catalogVersion;
+        private final int catalogSize;
+        private final long millis;
+        private final long allocatedBytes;
+        private final long heapUsedBytes;
+        private final String error;
+        private final Instant finishedAt;
+
+        LoadReport(String source, String kind, int rows, int deltaFiles, long catalogVersion, int catalogSize,
+                   long millis, long allocatedBytes, long heapUsedBytes, String error, Instant finishedAt) {
+            this.source = source;
+            this.kind = kind;
+            this.rows = rows;
+            this.deltaFiles = deltaFiles;
+            this.catalogVersion = catalogVersion;
+            this.catalogSize = catalogSize;
+            this.millis = millis;
+            this.allocatedBytes = allocatedBytes;
+            this.heapUsedBytes = heapUsedBytes;
+            this.error = error;
+            this.finishedAt = finishedAt;
+        }
+
+        public String getSource() { return source; }
+        // "full" or "delta"
+        public String getKind() { return kind; }
+        // Rows read from the files, including rows later replaced by a delta
+        public int getRows() { return rows; }
+        public int getDeltaFiles() { return deltaFiles; }
+        public long getCatalogVersion() { return catalogVersion; }
+        public int getCatalogSize() { return catalogSize; }
+        public long getMillis() { return millis; }
+        // Bytes allocated by the loading thread while parsing and building the snapshot; -1 if the JVM cannot tell
+        public long getAllocatedBytes() { return allocatedBytes; }
+        // Heap in use right after the swap; includes the old snapshot until it is collected
+        public long getHeapUsedBytes() { return heapUsedBytes; }
+        // Null when the import succeeded
+        public String getError() { return error; }
+        public Instant getFinishedAt() { return finishedAt; }
+    }
+
+    // Change detection for a file: modification time and size
+    private static final class Signature {
+        final long modified;
+        final long size;
+
+        Signature(long modified, long size) {
+            this.modified = modified;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Signature s && s.modified == modified && s.size == size;
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(modified, size); }
+    }
+
+    private final ProductService productService;
+    private final Path file;
+    private final Path deltaDir;
+    private final long pollIntervalMillis;
+
+    // Touched only by the loading thread (or the caller of a synchronous load)
+    private Signature loadedBase;
+    private Map<Path, Signature> appliedDeltas = new HashMap<>();
+    private Signature seenBase;
+    private Map<Path, Signature> seenDeltas = Map.of();
+
+    private volatile LoadReport lastReport;
+    private ScheduledExecutorService loader;
+
+    @Autowired
+    public CatalogImporter(ProductService productService,
+                           @Value("${app.catalog.file:}") String file,
+                           @Value("${app.catalog.delta-dir:}") String deltaDir,
+                           @Value("${app.catalog.poll-interval-ms:0}") long pollIntervalMillis) {
+        this.productService = productService;
+        this.file = file == null || file.isBlank() ? null : Paths.get(file);
+        this.deltaDir = deltaDir == null || deltaDir.isBlank() ? null : Paths.get(deltaDir);
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    // Loads the configured file before the application takes traffic
+    @PostConstruct
+    void start() {
+        if (file == null) return;
+        LoadReport report = reloadNow();
+        if (report.getError() != null) throw new CatalogLoadException("Could not load catalog: " + report.getError());
+        loader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "catalog-loader");
+            t.setDaemon(true);
+            return t;
+        });
+        if (pollIntervalMillis > 0) {
+            loader.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (loader != null) loader.shutdownNow();
+    }
+
+    /** True when app.catalog.file is set; otherwise the built-in sample catalog is served. */
+    public boolean isConfigured() { return file != null; }
+
+    /** The last import, successful or not; null before the first one. */
+    public LoadReport getLastReport() { return lastReport; }
+
+    /** Queues a full reload on the loading thread. */
+    public CompletableFuture<LoadReport> reload() {
+        if (file == null) throw new IllegalStateException("No catalog file configured");
+        if (loader == null) return CompletableFuture.completedFuture(reloadNow());
+        return CompletableFuture.supplyAsync(this::reloadNow, loader);
+    }
+
+    /**
+     * Reads the base file and all delta files into a new snapshot and publishes it.
+     * On failure the current catalog stays and the report carries the error.
+     */
+    synchronized LoadReport reloadNow() {
+        long start = System.nanoTime();
+        long allocatedBefore = allocatedBytes();
+        try {
+            Signature base = signature(file);
+            List<Product> rows = new ArrayList<>();
+            CatalogLoader.load(file, p -> rows.add(productService.withImages(p)));
+            int rowCount = rows.size();
+            ProductCatalog built = ProductCatalog.of(0, rows);
+            rows.clear();
+
+            Map<Path, Signature> deltas = new HashMap<>();
+            for (Path delta : deltaFiles()) {
+                Signature signature = signature(delta);
+                List<Product> changes = readDelta(delta);
+                rowCount += changes.size();
+                built = built.withUpserts(0, changes);
+                deltas.put(delta, signature);
+            }
+
+            productService.publish(built);
+            loadedBase = base;
+            appliedDeltas = deltas;
+            return report("full", rowCount, deltas.size(), start, allocatedBefore, null);
+        } catch (IOException | RuntimeException e) {
+            log.error("Catalog reload from {} failed; keeping catalog version {}", file,
+                    productService.getCatalog().getVersion(), e);
+            return report("full", 0, 0, start, allocatedBefore, e.getMessage());
+        }
+    }
+
+    /**
+     * Checks the files once: a changed or removed base or delta file triggers a full
+     * reload, a new delta file is applied on its own. Runs on the loading thread.
+     */
+    synchronized void poll() {
+        try {
+            Signature base = signature(file);
+            Map<Path, Signature> deltas = new HashMap<>();
+            for (Path delta : deltaFiles()) deltas.put(delta, signature(delta));
+            boolean stable = base.equals(seenBase) && deltas.equals(seenDeltas);
+            seenBase = base;
+            seenDeltas = deltas;
+            if (!stable) return; // still changing (or first look): check again next poll
+
+            boolean full = !base.equals(loadedBase) || !deltas.keySet().containsAll(appliedDeltas.keySet());
+            List<Path> added = new ArrayList<>();
+            for (Map.Entry<Path, Signature> e : deltas.entrySet()) {
+                Signature applied = appliedDeltas.get(e.getKey());
+                if (applied == null) added.add(e.getKey());
+                else if (!applied.equals(e.getValue())) full = true; // rows may have been taken out
+            }
+            if (full) {
+                reloadNow();
+            } else {
+                added.sort(null);
+                for (Path delta : added) applyDelta(delta, deltas.get(delta));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Catalog poll failed", e);
+        }
+    }
+
+    // Upserts the rows of one new delta file into the current catalog
+    private void applyDelta(Path delta, Signature signature) {
+        long start = System.nanoTime();
+        long allocatedBefore = allocatedBytes();
+        try {
+            List<Product> changes = readDelta(delta);
+            productService.upsert(changes);
+            appliedDeltas.put(delta, signature);
+            report(delta.toString(), "delta", changes.size(), 1, start, allocatedBefore, null);
+        } catch (IOException | RuntimeException e) {
+            log.error("Catalog delta {} failed; keeping catalog version {}", delta,
+                    productService.getCatalog().getVersion(), e);
+            report(delta.toString(), "delta", 0, 1, start, allocatedBefore, e.getMessage());
+        }
+    }
+
+    private List<Product> readDelta(Path delta) throws IOException {
+        List<Product> changes = new ArrayList<>();
+        CatalogLoader.load(delta, p -> changes.add(productService.withImages(p)));
+        return changes;
+    }
+
+    // Catalog files in the delta directory, in name order
+    private List<Path> deltaFiles() throws IOException {
+        if (deltaDir == null || !Files.isDirectory(deltaDir)) return List.of();
+        try (Stream<Path> files = Files.list(deltaDir)) {
+            return files.filter(p -> {
+                String name = p.getFileName().toString();
+                return Files.isRegularFile(p) && (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".csv"));
+            }).sorted().toList();
+        }
+    }
+
+    private static Signature signature(Path path) throws IOException {
+        return new Signature(Files.getLastModifiedTime(path).toMillis(), Files.size(path));
+    }
+
+    private LoadReport report(String kind, int rows, int deltaFiles, long start, long allocatedBefore, String error) {
+        return report(file.toString(), kind, rows, deltaFiles, start, allocatedBefore, error);
+    }
+
+    private LoadReport report(String source, String kind, int rows, int deltaFiles, long start, long allocatedBefore, String error) {
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long allocatedAfter = allocatedBytes();
+        Runtime rt = Runtime.getRuntime();
+        ProductCatalog current = productService.getCatalog();
+        LoadReport report = new LoadReport(source, kind, rows, deltaFiles, current.getVersion(), current.size(), millis,
+                allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore,
+                rt.totalMemory() - rt.freeMemory(), error, Instant.now());
+        if (error == null) {
+            log.info("Catalog {} load of {}: {} rows ({} delta files) in {} ms, {} MB allocated, {} MB heap in use, version {}",
+                    kind, source, rows, deltaFiles, millis, report.getAllocatedBytes() >> 20,
+                    report.getHeapUsedBytes() >> 20, report.getCatalogVersion());
+        }
+        lastReport = report;
+        return report;
+    }
+
+    // Allocation counter of the current thread (HotSpot); -1 elsewhere
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mx
+                && mx.isThreadAllocatedMemorySupported() && mx.isThreadAllocatedMemoryEnabled()) {
+            return mx.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
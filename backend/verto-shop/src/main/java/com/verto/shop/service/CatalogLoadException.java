@@ -0,0 +1,13 @@
+// PATH: src/main/java/com/verto/shop/service/CatalogLoadException.java
+package com.verto.shop.service;
+
+// Thrown when a catalog file cannot be read or has an invalid row; the current catalog is kept
+public class CatalogLoadException extends RuntimeException {
+    public CatalogLoadException(String message) {
+        super(message);
+    }
+
+    public CatalogLoadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,248 @@
+// PATH: src/main/java/com/verto/shop/service/CatalogLoader.java
+package com.verto.shop.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.verto.shop.model.Product;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for catalog files: JSON Lines (.jsonl, .ndjson) or CSV with a
+ * header row (.csv).
+ *
+ * Rows are parsed straight from a fixed-size read buffer into Product objects and
+ * handed to a consumer one at a time, so the raw text of the file is never held
+ * in memory next to the products built from it. Fields are the Product
+ * properties: id, name, description, priceCents, imageUrl, currency. Unknown
+ * fields and columns are ignored. An invalid row fails the whole file, with its
+ * line number, so a bad import never replaces a good catalog.
+ */
+final class CatalogLoader {
+
+    static final String DEFAULT_CURRENCY = "INR";
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    enum Format {
+        JSONL, CSV;
+
+        static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) return JSONL;
+            if (name.endsWith(".csv")) return CSV;
+            throw new CatalogLoadException(file + ": unsupported catalog format (expected .jsonl, .ndjson or .csv)");
+        }
+    }
+
+    private CatalogLoader() {}
+
+    /** Streams the products in the file to the consumer and returns the row count. */
+    static int load(Path file, Consumer<Product> sink) throws IOException {
+        Format format = Format.of(file);
+        try (InputStream in = Files.newInputStream(file)) {
+            return format == Format.JSONL ? readJsonLines(file, in, sink) : readCsv(file, in, sink);
+        }
+    }
+
+    /** Reads the whole file into a list, in file order. */
+    static List<Product> loadAll(Path file) throws IOException {
+        List<Product> products = new ArrayList<>();
+        load(file, products::add);
+        return products;
+    }
+
+    // One JSON object per line; Jackson reads a sequence of root values natively, decoding UTF-8 itself
+    static int readJsonLines(Path file, InputStream in, Consumer<Product> sink) throws IOException {
+        // Currencies repeat on every row: share one String per code
+        Map<String, String> currencies = new HashMap<>();
+        int rows = 0;
+        try (JsonParser p = JSON.createParser(in)) {
+            JsonToken token;
+            while ((token = p.nextToken()) != null) {
+                int line = p.currentLocation().getLineNr();
+                if (token != JsonToken.START_OBJECT) throw error(file, line, "expected a JSON object");
+                String id = null, name = null, description = null, imageUrl = null, currency = null;
+                long priceCents = -1;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    JsonToken value = p.nextToken();
+                    switch (field) {
+                        case "id" -> id = text(p, value);
+                        case "name" -> name = text(p, value);
+                        case "description" -> description = text(p, value);
+                        case "imageUrl" -> imageUrl = text(p, value);
+                        case "currency" -> currency = text(p, value);
+                        case "priceCents" -> {
+                            if (value != JsonToken.VALUE_NUMBER_INT) throw error(file, line, "priceCents must be an integer");
+                            priceCents = p.getLongValue();
+                        }
+                        default -> p.skipChildren();
+                    }
+                }
+                sink.accept(product(file, line, id, name, description, priceCents, imageUrl, currency, currencies));
+                rows++;
+            }
+        } catch (JsonParseException e) {
+            throw error(file, e.getLocation() == null ? -1 : e.getLocation().getLineNr(), e.getOriginalMessage());
+        }
+        return rows;
+    }
+
+    private static String text(JsonParser p, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) return null;
+        if (value.isStructStart()) {
+            p.skipChildren();
+            return null;
+        }
+        return p.getText();
+    }
+
+    // RFC 4180: comma separated, optional double quotes, "" inside quotes, quoted line breaks
+    static int readCsv(Path file, InputStream in, Consumer<Product> sink) throws IOException {
+        CsvReader csv = new CsvReader(file, new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE));
+        List<String> record = new ArrayList<>();
+        if (!csv.next(record)) throw error(file, 1, "missing header row");
+        int idCol = -1, nameCol = -1, descriptionCol = -1, priceCol = -1, imageCol = -1, currencyCol = -1;
+        for (int i = 0; i < record.size(); i++) {
+            String column = i == 0 ? stripBom(record.get(i)) : record.get(i);
+            switch (column.trim()) {
+                case "id" -> idCol = i;
+                case "name" -> nameCol = i;
+                case "description" -> descriptionCol = i;
+                case "priceCents" -> priceCol = i;
+                case "imageUrl" -> imageCol = i;
+                case "currency" -> currencyCol = i;
+                default -> { }
+            }
+        }
+        if (idCol < 0 || nameCol < 0 || priceCol < 0) throw error(file, 1, "header must have id, name and priceCents columns");
+
+        Map<String, String> currencies = new HashMap<>();
+        int rows = 0;
+        while (true) {
+            int line = csv.line();
+            if (!csv.next(record)) break;
+            if (record.size() == 1 && record.get(0).isEmpty()) continue; // blank line
+            String price = column(record, priceCol);
+            long priceCents;
+            try {
+                priceCents = price == null ? -1 : Long.parseLong(price.trim());
+            } catch (NumberFormatException e) {
+                throw error(file, line, "priceCents must be an integer: " + price);
+            }
+            sink.accept(product(file, line, column(record, idCol), column(record, nameCol), column(record, descriptionCol),
+                    priceCents, column(record, imageCol), column(record, currencyCol), currencies));
+            rows++;
+        }
+        return rows;
+    }
+
+    private static String stripBom(String s) {
+        return s.startsWith("\uFEFF") ? s.substring(1) : s;
+    }
+
+    private static String column(List<String> record, int col) {
+        if (col < 0 || col >= record.size()) return null;
+        String value = record.get(col);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Product product(Path file, int line, String id, String name, String description, long priceCents,
+                                   String imageUrl, String currency, Map<String, String> currencies) {
+        if (id == null || id.isBlank()) throw error(file, line, "id is required");
+        if (name == null || name.isBlank()) throw error(file, line, "name is required for " + id);
+        if (priceCents < 0) throw error(file, line, "priceCents must be a non-negative integer for " + id);
+        String code = currency == null || currency.isBlank() ? DEFAULT_CURRENCY : currency.trim();
+        return new Product(id, name, description == null ? "" : description, priceCents,
+                imageUrl, currencies.computeIfAbsent(code, c -> c));
+    }
+
+    private static CatalogLoadException error(Path file, int line, String message) {
+        return new CatalogLoadException(file + (line > 0 ? ":" + line : "") + ": " + message);
+    }
+
+    // Minimal CSV record reader over a buffered stream; tracks line numbers for errors
+    static final class CsvReader {
+        private final Path file;
+        private final Reader in;
+        private final StringBuilder field = new StringBuilder();
+        private int line = 1;
+        private int pushedBack = -2;
+
+        CsvReader(Path file, Reader in) {
+            this.file = file;
+            this.in = in;
+        }
+
+        // Line on which the next record starts
+        int line() { return line; }
+
+        // Reads the next record into fields; false at end of input
+        boolean next(List<String> fields) throws IOException {
+            fields.clear();
+            int c = read();
+            if (c < 0) return false;
+            field.setLength(0);
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c < 0) throw error(file, line, "unterminated quoted field");
+                    if (c == '"') {
+                        int n = read();
+                        if (n == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = n;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c < 0) {
+                    if (c == '\r') {
+                        int n = read();
+                        if (n != '\n') pushedBack = n;
+                    }
+                    if (c >= 0) line++;
+                    fields.add(field.toString());
+                    return true;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pushedBack != -2) {
+                int c = pushedBack;
+                pushedBack = -2;
+                return c;
+            }
+            return in.read();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+// PATH: src/main/java/com/verto/shop/service/CatalogResponseCache.java
+package com.verto.shop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the full product list pre-serialized as JSON, plus a gzip copy, for the
+ * current catalog version. The bytes are rebuilt only when ProductService swaps
+ * in a new catalog snapshot, so repeated GET /api/products requests cost no
+ * serialization or compression work.
+ */
+@Component
+public class CatalogResponseCache {
+
+    /** Serialized form of one catalog version. */
+    public static final class Entry {
+        private final ProductCatalog catalog;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+
+        Entry(ProductCatalog catalog, byte[] json, byte[] gzip, String hash) {
+            this.catalog = catalog;
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gzip\"";
+        }
+
+        public long getVersion() { return catalog.getVersion(); }
+        public byte[] getJson() { return json; }
+        public byte[] getGzip() { return gzip; }
+        // Strong validators differ per content-coding
+        public String getEtag() { return etag; }
+        public String getGzipEtag() { return gzipEtag; }
+
+        /**
+         * True if an If-None-Match header value matches either representation.
+         * Uses the weak comparison of RFC 9110, so W/"..." (as sent back after a
+         * proxy or server weakens a compressed response's tag) matches too.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) tag = tag.substring(2);
+                if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) return true;
+            }
+            return false;
+        }
+    }
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private volatile Entry current;
+
+    public CatalogResponseCache(ProductService productService, ObjectMapper objectMapper) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Returns the serialized body for the current catalog, rebuilding it if the catalog changed. */
+    public Entry get() {
+        ProductCatalog catalog = productService.getCatalog();
+        Entry e = current;
+        // Snapshots are immutable, so the snapshot itself is the cache key
+        if (e != null && e.catalog == catalog) return e;
+        synchronized (this) {
+            e = current;
+            if (e == null || e.catalog != catalog) {
+                e = build(catalog);
+                current = e;
+            }
+            return e;
+        }
+    }
+
+    private Entry build(ProductCatalog catalog) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(catalog.getProducts());
+            return new Entry(catalog, json, gzip(json), hash(json));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize product catalog", ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        // Built once per catalog version, so spend the CPU on the best ratio
+        try (GZIPOutputStream gz = new GZIPOutputStream(bos) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gz.write(data);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bos.toByteArray();
+    }
+
+    private static String hash(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+// PATH: src/main/java/com/verto/shop/service/CheckoutRequestReader.java
+package com.verto.shop.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.model.Product;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for the POST /api/checkout body. It enforces the cart limits
+ * while reading, instead of binding the whole payload and validating it after.
+ *
+ * Tokens are read one at a time. The request is rejected at the first token that
+ * breaks a rule:
+ * - more than app.checkout.max-items lines (413);
+ * - a quantity outside 1 to app.checkout.max-quantity (400);
+ * - a productId that is missing, longer than app.checkout.max-product-id-length,
+ *   or not made of letters, digits and _ - . : (400);
+ * - a productId that is not in the catalog (422).
+ * The rest of the body is never read. Product ids are checked in the parser's
+ * own buffer before any String is made for them. A known id is replaced by the
+ * catalog's String, so the request holds no copies.
+ *
+ * Strings and nesting are capped too, so a single huge value or a deeply nested
+ * unknown field fails fast. The catalog is checked against the snapshot current
+ * when parsing starts. Checkout checks it again when it places the order.
+ *
+ * A batch body is read the same way, one order at a time, and stops at the
+ * first order past the batch size. An order that breaks a line limit is
+ * rejected on its own and the rest of it is skipped without being bound.
+ */
+@Component
+public class CheckoutRequestReader {
+
+    // Longest name, email or reservation id accepted; productIds have their own, lower limit
+    private static final int MAX_STRING_LENGTH = 1024;
+    private static final int MAX_NESTING_DEPTH = 8;
+    private static final boolean[] ID_CHARS = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) ID_CHARS[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) ID_CHARS[c] = true;
+        for (char c = '0'; c <= '9'; c++) ID_CHARS[c] = true;
+        for (char c : "_-.:".toCharArray()) ID_CHARS[c] = true;
+    }
+
+    /** The body is malformed or broke a limit; the reason picks the HTTP status. */
+    public static class RejectedException extends RuntimeException {
+        public enum Reason { MALFORMED, TOO_MANY_ITEMS, INVALID_ITEM, UNKNOWN_PRODUCT }
+
+        private final Reason reason;
+        private final String productId;
+
+        RejectedException(Reason reason, String message, String productId) {
+            super(message);
+            this.reason = reason;
+            this.productId = productId;
+        }
+
+        public Reason getReason() { return reason; }
+        // The unknown product id, for UNKNOWN_PRODUCT
+        public String getProductId() { return productId; }
+    }
+
+    /** One order of a batch: the parsed request, or the reason it was rejected. */
+    public static final class BatchOrder {
+        private final CheckoutRequest request;
+        private final RejectedException rejection;
+
+        BatchOrder(CheckoutRequest request, RejectedException rejection) {
+            this.request = request;
+            this.rejection = rejection;
+        }
+
+        // Null for a rejected order, and for a null element of the batch
+        public CheckoutRequest getRequest() { return request; }
+        public RejectedException getRejection() { return rejection; }
+    }
+
+    private final ProductService productService;
+    private final int maxItems;
+    private final int maxQuantity;
+    private final int maxProductIdLength;
+    private final JsonFactory json;
+
+    @Autowired
+    public CheckoutRequestReader(ProductService productService,
+                                 @Value("${app.checkout.max-items:100}") int maxItems,
+                                 @Value("${app.checkout.max-quantity:1000}") int maxQuantity,
+                                 @Value("${app.checkout.max-product-id-length:64}") int maxProductIdLength) {
+        if (maxItems < 1 || maxQuantity < 1 || maxProductIdLength < 1) {
+            throw new IllegalArgumentException("app.checkout.max-items, max-quantity and max-product-id-length must be positive");
+        }
+        this.productService = productService;
+        this.maxItems = maxItems;
+        this.maxQuantity = maxQuantity;
+        this.maxProductIdLength = maxProductIdLength;
+        this.json = JsonFactory.builder()
+                .streamReadConstraints(StreamReadConstraints.builder()
+                        .maxStringLength(MAX_STRING_LENGTH)
+                        .maxNestingDepth(MAX_NESTING_DEPTH)
+                        .maxNumberLength(20)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Parses and checks a checkout body.
+     *
+     * @throws RejectedException as soon as the body is malformed or breaks a limit
+     * @throws IOException if the body cannot be read
+     */
+    public CheckoutRequest read(InputStream in) throws IOException {
+        return parse(in, true);
+    }
+
+    /**
+     * Parses the body of a checkout by cartId: only user and reservationId, as the
+     * items come from the stored cart. The body may be empty.
+     *
+     * @throws RejectedException if the body is malformed or has items
+     * @throws IOException if the body cannot be read
+     */
+    public CheckoutRequest readDetails(InputStream in) throws IOException {
+        return parse(in, false);
+    }
+
+    /**
+     * Parses a batch body: a JSON array of checkout bodies. Each order is held to
+     * read()'s line limits; one that breaks them is returned with its rejection
+     * instead of failing the batch. Product ids are not looked up in the catalog,
+     * and an order without items is left for checkout to report.
+     *
+     * @throws RejectedException MALFORMED if the body is not an array of objects,
+     *         TOO_MANY_ITEMS as soon as it holds more than maxOrders orders
+     * @throws IOException if the body cannot be read
+     */
+    public List<BatchOrder> readBatch(InputStream in, int maxOrders) throws IOException {
+        try (JsonParser p = json.createParser(in)) {
+            if (p.nextToken() != JsonToken.START_ARRAY) throw malformed("body must be a JSON array");
+            JsonStreamContext batch = p.getParsingContext();
+            List<BatchOrder> orders = new ArrayList<>();
+            JsonToken token;
+            while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                if (orders.size() == maxOrders) {
+                    throw new RejectedException(RejectedException.Reason.TOO_MANY_ITEMS,
+                            "Batch exceeds maximum size of " + maxOrders, null);
+                }
+                if (token == JsonToken.VALUE_NULL) {
+                    orders.add(new BatchOrder(null, null));
+                    continue;
+                }
+                if (token != JsonToken.START_OBJECT) throw malformed("batch[" + orders.size() + "] must be an object");
+                try {
+                    orders.add(new BatchOrder(readOrder(p, true, null), null));
+                } catch (RejectedException e) {
+                    orders.add(new BatchOrder(null, e));
+                    // Skip the rest of the rejected order
+                    while (p.getParsingContext() != batch) {
+                        if (p.nextToken() == null) throw malformed("unexpected end of input");
+                    }
+                }
+            }
+            return orders;
+        } catch (JsonProcessingException e) {
+            throw malformed(e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Applies read()'s line limits to items bound some other way, for quotes: the number of lines, each quantity and each productId's length
+     * and characters. Product ids are not looked up in the catalog.
+     *
+     * @throws RejectedException TOO_MANY_ITEMS or INVALID_ITEM, for the first line that breaks a limit
+     */
+    public void check(List<CheckoutRequest.Item> items) {
+        if (items == null) return;
+        if (items.size() > maxItems) {
+            throw new RejectedException(RejectedException.Reason.TOO_MANY_ITEMS,
+                    "Cart exceeds maximum of " + maxItems + " items", null);
+        }
+        for (int i = 0; i < items.size(); i++) {
+            CheckoutRequest.Item item = items.get(i);
+            if (item == null) throw invalidItem("items[" + i + "] must be an object");
+            String productId = item.getProductId();
+            if (productId == null) throw invalidItem("items[" + i + "].productId is required");
+            checkProductId(productId.toCharArray(), 0, productId.length());
+            if (item.getQuantity() < 1 || item.getQuantity() > maxQuantity) {
+                throw invalidItem("quantity must be 1 to " + maxQuantity);
+            }
+        }
+    }
+
+    /**
+     * Applies the quantity limit to lines already merged by product id, so several
+     * lines for one product cannot add up past app.checkout.max-quantity.
+     *
+     * @throws RejectedException INVALID_ITEM for the first product over the limit
+     */
+    public void checkMerged(String[] ids, int[] qtys, int n) {
+        for (int i = 0; i < n; i++) {
+            if (qtys[i] > maxQuantity) {
+                throw invalidItem("total quantity of product " + ids[i] + " must be at most " + maxQuantity);
+            }
+        }
+    }
+
+    private CheckoutRequest parse(InputStream in, boolean withItems) throws IOException {
+        ProductCatalog catalog = productService.getCatalog();
+        try (JsonParser p = json.createParser(in)) {
+            JsonToken first = p.nextToken();
+            if (first == null && !withItems) return new CheckoutRequest();
+            if (first != JsonToken.START_OBJECT) throw malformed("body must be a JSON object");
+            CheckoutRequest request = readOrder(p, withItems, catalog);
+            if (withItems && (request.getItems() == null || request.getItems().isEmpty())) {
+                throw new RejectedException(RejectedException.Reason.INVALID_ITEM, "items must not be empty", null);
+            }
+            return request;
+        } catch (JsonProcessingException e) {
+            throw malformed(e.getOriginalMessage());
+        }
+    }
+
+    // Reads the fields of an object whose START_OBJECT was just read; a null catalog skips the lookup
+    private CheckoutRequest readOrder(JsonParser p, boolean withItems, ProductCatalog catalog) throws IOException {
+        CheckoutRequest request = new CheckoutRequest();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "items" -> {
+                    if (!withItems) throw malformed("items come from the stored cart");
+                    if (request.getItems() != null) throw malformed("items given twice");
+                    request.setItems(readItems(p, value, catalog));
+                }
+                case "user" -> request.setUser(readUser(p, value));
+                case "reservationId" -> request.setReservationId(text(p, value, "reservationId"));
+                default -> p.skipChildren();
+            }
+        }
+        return request;
+    }
+
+    private List<CheckoutRequest.Item> readItems(JsonParser p, JsonToken value, ProductCatalog catalog) throws IOException {
+        if (value != JsonToken.START_ARRAY) throw malformed("items must be an array");
+        List<CheckoutRequest.Item> items = new ArrayList<>();
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (items.size() == maxItems) {
+                throw new RejectedException(RejectedException.Reason.TOO_MANY_ITEMS,
+                        "Cart exceeds maximum of " + maxItems + " items", null);
+            }
+            if (token != JsonToken.START_OBJECT) throw invalidItem("items[" + items.size() + "] must be an object");
+            String productId = null;
+            int quantity = 0;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken fieldValue = p.nextToken();
+                switch (field) {
+                    case "productId" -> productId = productId(p, fieldValue, catalog);
+                    case "quantity" -> quantity = quantity(p, fieldValue);
+                    default -> p.skipChildren();
+                }
+            }
+            if (productId == null) throw invalidItem("items[" + items.size() + "].productId is required");
+            if (quantity == 0) throw invalidItem("items[" + items.size() + "].quantity is required");
+            items.add(new CheckoutRequest.Item(productId, quantity));
+        }
+        return items;
+    }
+
+    // Checks the id in the parser's buffer first, so a bad id is rejected without allocating it
+    private String productId(JsonParser p, JsonToken value, ProductCatalog catalog) throws IOException {
+        if (value != JsonToken.VALUE_STRING) throw invalidItem("productId must be a string");
+        checkProductId(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        String id = p.getText();
+        if (catalog == null) return id;
+        Product product = catalog.get(id);
+        if (product == null) {
+            throw new RejectedException(RejectedException.Reason.UNKNOWN_PRODUCT, "Invalid productId(s)", id);
+        }
+        return product.getId();
+    }
+
+    private void checkProductId(char[] chars, int offset, int length) {
+        if (length == 0 || length > maxProductIdLength) {
+            throw invalidItem("productId must be 1 to " + maxProductIdLength + " characters");
+        }
+        for (int i = offset; i < offset + length; i++) {
+            char c = chars[i];
+            if (c >= ID_CHARS.length || !ID_CHARS[c]) {
+                throw invalidItem("productId may only contain letters, digits and _ - . :");
+            }
+        }
+    }
+
+    private int quantity(JsonParser p, JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT) throw invalidItem("quantity must be an integer");
+        if (p.getNumberType() != JsonParser.NumberType.INT || p.getIntValue() < 1 || p.getIntValue() > maxQuantity) {
+            throw invalidItem("quantity must be 1 to " + maxQuantity);
+        }
+        return p.getIntValue();
+    }
+
+    private static CheckoutRequest.User readUser(JsonParser p, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) return null;
+        if (value != JsonToken.START_OBJECT) throw malformed("user must be an object");
+        CheckoutRequest.User user = new CheckoutRequest.User();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken fieldValue = p.nextToken();
+            switch (field) {
+                case "name" -> user.setName(text(p, fieldValue, "user.name"));
+                case "email" -> user.setEmail(text(p, fieldValue, "user.email"));
+                default -> p.skipChildren();
+            }
+        }
+        return user;
+    }
+
+    private static String text(JsonParser p, JsonToken value, String field) throws IOException {
+        if (value == JsonToken.VALUE_NULL) return null;
+        if (value != JsonToken.VALUE_STRING) throw malformed(field + " must be a string");
+        return p.getText();
+    }
+
+    private static RejectedException malformed(String message) {
+        return new RejectedException(RejectedException.Reason.MALFORMED, "Malformed request body: " + message, null);
+    }
+
+    private static RejectedException invalidItem(String message) {
+        return new RejectedException(RejectedException.Reason.INVALID_ITEM, message, null);
+    }
+}
@@ -0,0 +1,37 @@
+// PATH: src/main/java/com/verto/shop/service/CheckoutResult.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Order;
+
+import java.util.List;
+
+/**
+ * Outcome of placing one order: the recorded order, or why it was rejected
+ * together with the offending product ids (or validation messages).
+ */
+public final class CheckoutResult {
+
+    public enum Status { OK, INVALID_REQUEST, INVALID_PRODUCTS, OUT_OF_STOCK, RESERVATION_CONFLICT }
+
+    private final Status status;
+    private final Order order;
+    private final List<String> details;
+
+    private CheckoutResult(Status status, Order order, List<String> details) {
+        this.status = status;
+        this.order = order;
+        this.details = details;
+    }
+
+    static CheckoutResult ok(Order order) { return new CheckoutResult(Status.OK, order, List.of()); }
+    static CheckoutResult invalidRequest(List<String> messages) { return new CheckoutResult(Status.INVALID_REQUEST, null, messages); }
+    static CheckoutResult invalidProducts(List<String> ids) { return new CheckoutResult(Status.INVALID_PRODUCTS, null, ids); }
+    static CheckoutResult outOfStock(List<String> ids) { return new CheckoutResult(Status.OUT_OF_STOCK, null, ids); }
+    static CheckoutResult reservationConflict() { return new CheckoutResult(Status.RESERVATION_CONFLICT, null, List.of()); }
+
+    public Status getStatus() { return status; }
+    public boolean isOk() { return status == Status.OK; }
+    public Order getOrder() { return order; }
+    // Invalid or out-of-stock product ids, or validation messages for INVALID_REQUEST
+    public List<String> getDetails() { return details; }
+}
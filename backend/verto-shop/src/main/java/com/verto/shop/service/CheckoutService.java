@@ -0,0 +1,353 @@
+// PATH: src/main/java/com/verto/shop/service/CheckoutService.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.model.Order;
+import com.verto.shop.model.OrderLine;
+import com.verto.shop.model.Product;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Places orders: merges duplicate cart lines, resolves products, prices them
+ * with the PricingEngine's current promotions, takes the stock, records the
+ * order in the journal and indexes it in the order store.
+ * Single checkouts and batches share the same steps; a batch resolves every
+ * distinct product once against one catalog snapshot, prices its orders in
+ * parallel with one set of pricing rules and journals them with a single
+ * durable write.
+ */
+@Service
+public class CheckoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutService.class);
+
+    /** Thrown by mergeLines when the lines for one product add up to more than an int holds. */
+    public static final class QuantityOverflowException extends IllegalArgumentException {
+        private final String productId;
+
+        QuantityOverflowException(String productId) {
+            super("Total quantity of product " + productId + " is too large");
+            this.productId = productId;
+        }
+
+        public String getProductId() { return productId; }
+    }
+
+    private static final int LINEAR_MERGE_LIMIT = 32;
+    private static final Comparator<CheckoutRequest.Item> BY_PRODUCT_ID =
+            Comparator.comparing(CheckoutRequest.Item::getProductId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ProductService productService;
+    private final InventoryService inventoryService;
+    private final OrderJournal orderJournal;
+    private final OrderStore orderStore;
+    private final PricingEngine pricingEngine;
+    private final Validator validator;
+    private final OrderIdGenerator orderIdGenerator;
+    private final ShopMetrics metrics;
+
+    // 0 means one worker per available core
+    @Value("${app.checkout.batch-parallelism:0}")
+    private int batchParallelism;
+
+    private ForkJoinPool batchPool;
+
+    public CheckoutService(ProductService productService, InventoryService inventoryService,
+                           OrderJournal orderJournal, Validator validator, OrderIdGenerator orderIdGenerator,
+                           ShopMetrics metrics, OrderStore orderStore, PricingEngine pricingEngine) {
+        this.productService = productService;
+        this.inventoryService = inventoryService;
+        this.orderJournal = orderJournal;
+        this.orderStore = orderStore;
+        this.pricingEngine = pricingEngine;
+        this.validator = validator;
+        this.orderIdGenerator = orderIdGenerator;
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    void startBatchPool() {
+        int parallelism = batchParallelism > 0 ? batchParallelism : Runtime.getRuntime().availableProcessors();
+        batchPool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    void stopBatchPool() {
+        batchPool.shutdown();
+    }
+
+    /** Places a single, already validated order. */
+    public CheckoutResult checkout(CheckoutRequest request) {
+        return finish(place(request, productService.getCatalog()::get, pricingEngine.getRules()));
+    }
+
+    /**
+     * Places an order for a stored cart. Its lines are already merged, so they go
+     * straight to pricing. The user and reservationId come from details; its items
+     * are ignored.
+     */
+    public CheckoutResult checkout(CartStore.Snapshot cart, CheckoutRequest details) {
+        for (int i = 0; i < cart.size(); i++) {
+            if (cart.qtys[i] < 1) {
+                log.warn("Checkout rejected: cart {} has quantity {} for {}", cart.getCartId(), cart.qtys[i], cart.ids[i]);
+                return finish(new Placed(CheckoutResult.invalidRequest(List.of("quantity of " + cart.ids[i] + " must be at least 1"))));
+            }
+        }
+        return finish(placeLines(cart.ids, cart.qtys, cart.size(), details, productService.getCatalog()::get,
+                pricingEngine.getRules()));
+    }
+
+    private CheckoutResult finish(Placed placed) {
+        if (!placed.result.isOk()) {
+            metrics.rejected(placed.result.getStatus());
+            return placed.result;
+        }
+        record(placed);
+        metrics.checkedOut(placed.ids, placed.qtys, placed.lines);
+        if (log.isDebugEnabled()) {
+            Order order = placed.result.getOrder();
+            log.debug("Order {} recorded: {} line(s), total {} cents", order.getOrderId(), order.getLines().size(), order.getTotalCents());
+        }
+        return placed.result;
+    }
+
+    /**
+     * Places every order of the batch independently and returns one result per
+     * request, in input order. Requests are validated here, one by one.
+     */
+    public List<CheckoutResult> checkoutBatch(List<CheckoutRequest> requests) {
+        // Resolve each distinct product once, all from the same snapshot
+        ProductCatalog catalog = productService.getCatalog();
+        PricingRules rules = pricingEngine.getRules();
+        Map<String, Product> resolved = new HashMap<>();
+        for (CheckoutRequest r : requests) {
+            if (r == null || r.getItems() == null) continue;
+            for (CheckoutRequest.Item it : r.getItems()) {
+                String pid = it == null ? null : it.getProductId();
+                if (pid != null && !resolved.containsKey(pid)) resolved.put(pid, catalog.get(pid));
+            }
+        }
+
+        Placed[] placed = new Placed[requests.size()];
+        try {
+            batchPool.submit(() -> IntStream.range(0, placed.length).parallel().forEach(i -> {
+                CheckoutRequest r = requests.get(i);
+                List<String> violations = validate(r);
+                placed[i] = violations.isEmpty()
+                        ? place(r, resolved::get, rules)
+                        : new Placed(CheckoutResult.invalidRequest(violations));
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch checkout interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        }
+
+        List<Order> orders = new ArrayList<>();
+        for (Placed p : placed) if (p.result.isOk()) orders.add(p.result.getOrder());
+        if (!orders.isEmpty()) {
+            long[] positions;
+            try {
+                positions = orderJournal.appendAll(orders);
+            } catch (RuntimeException e) {
+                for (Placed p : placed) if (p.result.isOk()) p.restock(inventoryService); // the sales did not happen
+                throw e;
+            }
+            for (int i = 0; i < orders.size(); i++) {
+                orderStore.add(orders.get(i), positions == null ? -1 : positions[i]);
+            }
+        }
+
+        List<CheckoutResult> results = new ArrayList<>(placed.length);
+        for (Placed p : placed) {
+            if (p.result.isOk()) metrics.checkedOut(p.ids, p.qtys, p.lines);
+            else metrics.rejected(p.result.getStatus());
+            results.add(p.result);
+        }
+        log.info("Batch checkout: {} order(s) recorded, {} rejected", orders.size(), placed.length - orders.size());
+        return results;
+    }
+
+    // A priced order together with the merged lines whose stock it took
+    private static final class Placed {
+        final CheckoutResult result;
+        final String[] ids;
+        final int[] qtys;
+        final int lines;
+
+        Placed(CheckoutResult rejected) {
+            this(rejected, null, null, 0);
+        }
+
+        Placed(CheckoutResult result, String[] ids, int[] qtys, int lines) {
+            this.result = result;
+            this.ids = ids;
+            this.qtys = qtys;
+            this.lines = lines;
+        }
+
+        void restock(InventoryService inventory) {
+            inventory.restock(ids, qtys, lines);
+        }
+    }
+
+    /*
+     * Hot path: merged lines live in two primitive-friendly arrays, products are
+     * looked up without Optional, and the only objects built per order are its
+     * priced lines, the Order and its id. Maps and lists are only allocated when
+     * the order is rejected.
+     */
+    private Placed place(CheckoutRequest request, Function<String, Product> resolver, PricingRules rules) {
+        List<CheckoutRequest.Item> items = request.getItems();
+        String[] ids = new String[items.size()];
+        int[] qtys = new int[items.size()];
+        int lines;
+        try {
+            lines = mergeLines(items, ids, qtys);
+        } catch (QuantityOverflowException e) {
+            log.warn("Checkout rejected: {}", e.getMessage());
+            return new Placed(CheckoutResult.invalidRequest(List.of(e.getMessage())));
+        }
+        return placeLines(ids, qtys, lines, request, resolver, rules);
+    }
+
+    // Places the first lines of ids/qtys, which are merged: one line per product id
+    private Placed placeLines(String[] ids, int[] qtys, int lines, CheckoutRequest request,
+                              Function<String, Product> resolver, PricingRules rules) {
+        Product[] products = new Product[lines];
+        List<String> invalid = null;
+        long lookupStart = System.nanoTime();
+        for (int i = 0; i < lines; i++) {
+            Product p = ids[i] == null ? null : resolver.apply(ids[i]);
+            if (p == null) {
+                if (invalid == null) invalid = new ArrayList<>();
+                invalid.add(ids[i]);
+                continue;
+            }
+            products[i] = p;
+        }
+        metrics.productLookup(System.nanoTime() - lookupStart);
+        if (invalid != null) {
+            log.warn("Checkout failed due to invalid product IDs: {}", invalid);
+            return new Placed(CheckoutResult.invalidProducts(invalid));
+        }
+
+        // Take the stock: either a reservation made earlier for this exact cart, or all lines now
+        String reservationId = request.getReservationId();
+        if (reservationId != null) {
+            InventoryService.Reservation held = inventoryService.find(reservationId);
+            if (held == null || !held.covers(ids, qtys, lines) || !inventoryService.commit(reservationId)) {
+                log.warn("Checkout rejected: reservation {} is unknown, expired or does not match the cart", reservationId);
+                return new Placed(CheckoutResult.reservationConflict());
+            }
+        } else {
+            try {
+                inventoryService.take(ids, qtys, lines);
+            } catch (InsufficientStockException e) {
+                log.warn("Checkout failed due to insufficient stock: {}", e.getProductIds());
+                return new Placed(CheckoutResult.outOfStock(e.getProductIds()));
+            }
+        }
+
+        PricingRules.Priced priced = rules.price(products, qtys, lines);
+        OrderLine[] orderLines = new OrderLine[lines];
+        for (int i = 0; i < lines; i++) {
+            Product p = products[i];
+            orderLines[i] = new OrderLine(ids[i], p.getName(), p.getPriceCents(), qtys[i], priced.lineDiscounts[i]);
+        }
+        CheckoutRequest.User user = request.getUser();
+        Order order = new Order(orderIdGenerator.nextId(), System.currentTimeMillis(), priced.totalCents,
+                user == null ? null : user.getName(), user == null ? null : user.getEmail(), orderLines);
+        return new Placed(CheckoutResult.ok(order), ids, qtys, lines);
+    }
+
+    // Journals the order and makes it queryable; only returns once it is durable. Gives the stock back on failure.
+    private void record(Placed placed) {
+        Order order = placed.result.getOrder();
+        long position;
+        try {
+            position = orderJournal.append(order);
+        } catch (RuntimeException e) {
+            placed.restock(inventoryService); // the sale did not happen
+            throw e;
+        }
+        orderStore.add(order, position);
+    }
+
+    /**
+     * Merges duplicate product ids into the first n slots of ids/qtys (first
+     * occurrence order) and returns n. Small carts use a linear scan; large ones
+     * are sorted by product id first so merging stays O(n log n). ids and qtys
+     * must have room for every item.
+     *
+     * @throws QuantityOverflowException if one product's quantities add up past Integer.MAX_VALUE
+     */
+    public static int mergeLines(List<CheckoutRequest.Item> items, String[] ids, int[] qtys) {
+        int size = items.size();
+        if (size > LINEAR_MERGE_LIMIT) return mergeSorted(items, ids, qtys);
+        int n = 0;
+        next:
+        for (int i = 0; i < size; i++) {
+            CheckoutRequest.Item it = items.get(i);
+            String pid = it.getProductId();
+            for (int j = 0; j < n; j++) {
+                if (Objects.equals(ids[j], pid)) {
+                    qtys[j] = add(qtys[j], it.getQuantity(), pid);
+                    continue next;
+                }
+            }
+            ids[n] = pid;
+            qtys[n++] = it.getQuantity();
+        }
+        return n;
+    }
+
+    private static int mergeSorted(List<CheckoutRequest.Item> items, String[] ids, int[] qtys) {
+        CheckoutRequest.Item[] sorted = items.toArray(new CheckoutRequest.Item[0]);
+        Arrays.sort(sorted, BY_PRODUCT_ID);
+        int n = 0;
+        for (CheckoutRequest.Item it : sorted) {
+            if (n > 0 && Objects.equals(ids[n - 1], it.getProductId())) {
+                qtys[n - 1] = add(qtys[n - 1], it.getQuantity(), it.getProductId());
+            } else {
+                ids[n] = it.getProductId();
+                qtys[n++] = it.getQuantity();
+            }
+        }
+        return n;
+    }
+
+    private static int add(int merged, int quantity, String productId) {
+        try {
+            return Math.addExact(merged, quantity);
+        } catch (ArithmeticException e) {
+            throw new QuantityOverflowException(productId);
+        }
+    }
+
+    private List<String> validate(CheckoutRequest request) {
+        if (request == null) return List.of("order must not be null");
+        if (request.getItems() != null && request.getItems().contains(null)) return List.of("items must not contain null");
+        Set<ConstraintViolation<CheckoutRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) return List.of();
+        List<String> messages = new ArrayList<>(violations.size());
+        for (ConstraintViolation<CheckoutRequest> v : violations) messages.add(v.getPropertyPath() + " " + v.getMessage());
+        return messages;
+    }
+}
@@ -0,0 +1,180 @@
+// PATH: src/main/java/com/verto/shop/service/IdempotencyCache.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.CheckoutRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Results of checkouts sent with an Idempotency-Key, so a retried request gets
+ * the original outcome instead of placing a second order.
+ *
+ * The first request for a key runs the checkout. Concurrent duplicates wait on
+ * the same future instead of recomputing it, and later retries get the stored
+ * result until the key expires. If the checkout throws, the key is dropped, so
+ * a retry runs the checkout again.
+ *
+ * Every entry has the same TTL, so insertion order is also expiry order. A FIFO
+ * queue of entries makes both evictions cheap. Expired entries are dropped from
+ * the head. When the cache is over maxKeys, the oldest entries go first. Memory
+ * therefore stays bounded however many distinct keys arrive.
+ */
+@Component
+public class IdempotencyCache {
+
+    private static final class Entry {
+        final String key;
+        final long fingerprint;
+        final long expiresAtMillis;
+        final CompletableFuture<CheckoutResult> result = new CompletableFuture<>();
+
+        Entry(String key, long fingerprint, long expiresAtMillis) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    /** Outcome of {@link #execute}: the checkout result and whether it was replayed from the cache. */
+    public static final class Outcome {
+        private final CheckoutResult result;
+        private final boolean replayed;
+
+        Outcome(CheckoutResult result, boolean replayed) {
+            this.result = result;
+            this.replayed = replayed;
+        }
+
+        public CheckoutResult getResult() { return result; }
+        public boolean isReplayed() { return replayed; }
+    }
+
+    /** Thrown when a key is reused with a different request body. */
+    public static class KeyReuseException extends RuntimeException {
+        public KeyReuseException(String key) {
+            super("Idempotency-Key " + key + " was already used with a different request");
+        }
+    }
+
+    private final int maxKeys;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    @Autowired
+    public IdempotencyCache(@Value("${app.checkout.idempotency.max-keys:100000}") int maxKeys,
+                            @Value("${app.checkout.idempotency.ttl-ms:86400000}") long ttlMillis) {
+        this(maxKeys, ttlMillis, System::currentTimeMillis);
+    }
+
+    IdempotencyCache(int maxKeys, long ttlMillis, LongSupplier clock) {
+        if (maxKeys < 1) throw new IllegalArgumentException("maxKeys must be positive");
+        if (ttlMillis < 1) throw new IllegalArgumentException("ttlMillis must be positive");
+        this.maxKeys = maxKeys;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs the checkout once per key: returns the stored result if the key is known
+     * (waiting for it if the first request is still running), otherwise runs
+     * checkout and stores its result.
+     *
+     * @throws KeyReuseException if the key was stored for a different request
+     */
+    public Outcome execute(String key, CheckoutRequest request, Supplier<CheckoutResult> checkout) {
+        return execute(key, null, request, checkout);
+    }
+
+    /**
+     * As {@link #execute(String, CheckoutRequest, Supplier)} for the checkout of a
+     * stored cart: the key is bound to cartId and the request's details, since the
+     * cart's lines may be gone by the time a retry arrives.
+     *
+     * @throws KeyReuseException if the key was stored for another cart or request
+     */
+    public Outcome execute(String key, String cartId, CheckoutRequest request, Supplier<CheckoutResult> checkout) {
+        long fingerprint = 31 * fingerprint(request) + (cartId == null ? 0 : cartId.hashCode());
+        long now = clock.getAsLong();
+        Entry fresh = new Entry(key, fingerprint, now + ttlMillis);
+        Entry existing;
+        while (true) {
+            existing = entries.putIfAbsent(key, fresh);
+            if (existing == null || existing.expiresAtMillis > now) break;
+            entries.remove(key, existing); // expired but not swept yet
+        }
+
+        if (existing != null) {
+            if (existing.fingerprint != fingerprint) throw new KeyReuseException(key);
+            return new Outcome(await(existing), true);
+        }
+
+        insertionOrder.add(fresh);
+        queued.incrementAndGet();
+        evict(now);
+        try {
+            CheckoutResult result = checkout.get();
+            fresh.result.complete(result);
+            return new Outcome(result, false);
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, fresh); // nothing was placed: let a retry run again
+            fresh.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Drops expired entries, then the oldest ones while over capacity
+    private void evict(long now) {
+        Entry head;
+        while ((head = insertionOrder.peek()) != null
+                && (head.expiresAtMillis <= now || queued.get() > maxKeys)) {
+            if (insertionOrder.remove(head)) {
+                queued.decrementAndGet();
+                entries.remove(head.key, head);
+            }
+        }
+    }
+
+    private static CheckoutResult await(Entry entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            // The first request failed; its caller saw the exception. Surface it here too.
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    // Cheap hash of what the order contains, to detect a key reused for another cart
+    static long fingerprint(CheckoutRequest request) {
+        long h = 17;
+        List<CheckoutRequest.Item> items = request.getItems();
+        if (items != null) {
+            for (CheckoutRequest.Item it : items) {
+                h = 31 * h + (it == null || it.getProductId() == null ? 0 : it.getProductId().hashCode());
+                h = 31 * h + (it == null ? 0 : it.getQuantity());
+            }
+        }
+        CheckoutRequest.User user = request.getUser();
+        h = 31 * h + (user == null || user.getEmail() == null ? 0 : user.getEmail().hashCode());
+        h = 31 * h + (request.getReservationId() == null ? 0 : request.getReservationId().hashCode());
+        return h;
+    }
+}
@@ -0,0 +1,22 @@
+// PATH: src/main/java/com/verto/shop/service/ImageVariant.java
+package com.verto.shop.service;
+
+// Pre-sized JPEG renditions of the product images (longest side, in pixels)
+public enum ImageVariant {
+    // Product grid and cart
+    THUMBNAIL("thumb", 320),
+    // Detail views; also what Product.imageUrl points at
+    MEDIUM("medium", 800);
+
+    private final String key;
+    private final int maxSize;
+
+    ImageVariant(String key, int maxSize) {
+        this.key = key;
+        this.maxSize = maxSize;
+    }
+
+    public String getKey() { return key; }
+
+    public int getMaxSize() { return maxSize; }
+}
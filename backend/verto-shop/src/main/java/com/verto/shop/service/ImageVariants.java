@@ -0,0 +1,225 @@
+// PATH: src/main/java/com/verto/shop/service/ImageVariants.java
+package com.verto.shop.service;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Thumbnail and medium JPEG renditions of the product images in static/images.
+ *
+ * At startup only the sources are read and hashed. This gives every variant a
+ * URL with a content hash: /images/variants/{name}-{variant}-{hash}.jpg. The
+ * hash covers the source bytes and the rendition settings, so a URL never
+ * changes meaning and can be cached forever. The JPEG itself is produced by
+ * ImageIO on first request and written to the cache directory, so it survives
+ * restarts. Sources ImageIO cannot decode keep their original URL.
+ */
+@Service
+public class ImageVariants {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariants.class);
+
+    public static final String URL_PREFIX = "/images/variants/";
+    private static final String SOURCE_PREFIX = "/images/";
+
+    // One rendition of one source image
+    private static final class Rendition {
+        final String sourcePath;
+        final byte[] source;
+        final ImageVariant variant;
+        final String fileName;
+        final String hash;
+
+        Rendition(String sourcePath, byte[] source, ImageVariant variant, String fileName, String hash) {
+            this.sourcePath = sourcePath;
+            this.source = source;
+            this.variant = variant;
+            this.fileName = fileName;
+            this.hash = hash;
+        }
+    }
+
+    private final String sourceLocation;
+    private final Path cacheDir;
+    private final float quality;
+
+    // "/images/stand.jpg" -> variant URLs, and file name -> rendition; both fixed after index()
+    private final Map<String, Map<ImageVariant, String>> urls = new HashMap<>();
+    private final Map<String, Rendition> renditions = new HashMap<>();
+
+    @Autowired
+    public ImageVariants(@Value("${app.images.source:classpath:static/images/}") String sourceLocation,
+                         @Value("${app.images.cache-dir:data/images}") String cacheDir,
+                         @Value("${app.images.jpeg-quality:0.82}") float quality) {
+        if (quality <= 0 || quality > 1) throw new IllegalArgumentException("JPEG quality must be in (0, 1]: " + quality);
+        this.sourceLocation = sourceLocation.endsWith("/") ? sourceLocation : sourceLocation + "/";
+        this.cacheDir = Paths.get(cacheDir);
+        this.quality = quality;
+    }
+
+    @PostConstruct
+    public void index() throws IOException {
+        Files.createDirectories(cacheDir);
+        Resource[] sources = new PathMatchingResourcePatternResolver().getResources(sourceLocation + "*.jpg");
+        for (Resource r : sources) {
+            String name = r.getFilename();
+            byte[] bytes;
+            try (InputStream in = r.getInputStream()) {
+                bytes = in.readAllBytes();
+            }
+            if (!decodable(bytes)) {
+                // e.g. WebP/AVIF saved as .jpg: ImageIO cannot read it, so it is served as-is
+                log.warn("Skipping variants for {}: not a format ImageIO can decode", name);
+                continue;
+            }
+            String stem = name.substring(0, name.length() - ".jpg".length());
+            Map<ImageVariant, String> variantUrls = new EnumMap<>(ImageVariant.class);
+            for (ImageVariant v : ImageVariant.values()) {
+                String hash = hash(bytes, v);
+                String fileName = stem + "-" + v.getKey() + "-" + hash + ".jpg";
+                renditions.put(fileName, new Rendition(SOURCE_PREFIX + name, bytes, v, fileName, hash));
+                variantUrls.put(v, URL_PREFIX + fileName);
+            }
+            urls.put(SOURCE_PREFIX + name, variantUrls);
+        }
+        log.info("Indexed {} product image(s) for variants in {}", urls.size(), cacheDir.toAbsolutePath());
+    }
+
+    /** URL of the given variant of a static image path such as /images/stand.jpg; the path itself if unknown. */
+    public String url(String imagePath, ImageVariant variant) {
+        Map<ImageVariant, String> variants = urls.get(imagePath);
+        return variants == null ? imagePath : variants.get(variant);
+    }
+
+    /** Content hash of a variant file, used as its ETag; null if the name is not a known variant. */
+    public String hashOf(String fileName) {
+        Rendition r = renditions.get(fileName);
+        return r == null ? null : r.hash;
+    }
+
+    /**
+     * The on-disk file for a variant file name, rendering it first if needed.
+     * Returns null for names that are not known variants, so request paths are
+     * never resolved against the file system directly.
+     */
+    public Path file(String fileName) {
+        Rendition r = renditions.get(fileName);
+        if (r == null) return null;
+        Path target = cacheDir.resolve(r.fileName);
+        if (Files.exists(target)) return target;
+        synchronized (r) { // one render per variant; concurrent requests wait for it
+            if (!Files.exists(target)) render(r, target);
+        }
+        return target;
+    }
+
+    private void render(Rendition r, Path target) {
+        try {
+            long start = System.nanoTime();
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(r.source));
+            if (image == null) throw new IOException("Unsupported image format");
+            byte[] jpeg = encode(scale(image, r.variant.getMaxSize()), quality);
+            if (jpeg.length >= r.source.length) jpeg = r.source; // already small: keep the original bytes
+            Path tmp = Files.createTempFile(cacheDir, r.fileName, ".tmp");
+            Files.write(tmp, jpeg);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Rendered {} ({} -> {} bytes) in {} ms", r.fileName, r.source.length, jpeg.length,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not render " + r.fileName + " from " + r.sourcePath, e);
+        }
+    }
+
+    private static boolean decodable(byte[] bytes) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            return ImageIO.getImageReaders(in).hasNext();
+        }
+    }
+
+    /*
+     * Downscales so the longest side fits maxSize. Large reductions halve the image
+     * repeatedly before the last bilinear step, which avoids the aliasing of a
+     * single big bilinear jump without the cost of area averaging.
+     */
+    static BufferedImage scale(BufferedImage src, int maxSize) {
+        int w = src.getWidth(), h = src.getHeight();
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(w, h));
+        int targetW = Math.max(1, (int) Math.round(w * ratio));
+        int targetH = Math.max(1, (int) Math.round(h * ratio));
+
+        BufferedImage current = src;
+        do {
+            w = w / 2 >= targetW ? w / 2 : targetW;
+            h = h / 2 >= targetH ? h / 2 : targetH;
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB); // JPEG has no alpha
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = next;
+        } while (w != targetW || h != targetH);
+        return current;
+    }
+
+    static byte[] encode(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    // Short content hash of the source and everything that shapes the rendition
+    private String hash(byte[] source, ImageVariant variant) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(source);
+            sha.update((variant.getKey() + ":" + variant.getMaxSize() + ":" + quality).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
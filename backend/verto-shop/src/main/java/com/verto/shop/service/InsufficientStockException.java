@@ -0,0 +1,16 @@
+// PATH: src/main/java/com/verto/shop/service/InsufficientStockException.java
+package com.verto.shop.service;
+
+import java.util.List;
+
+// Thrown when a reservation cannot be satisfied; nothing has been reserved
+public class InsufficientStockException extends RuntimeException {
+    private final List<String> productIds;
+
+    public InsufficientStockException(List<String> productIds) {
+        super("Insufficient stock for " + productIds);
+        this.productIds = List.copyOf(productIds);
+    }
+
+    public List<String> getProductIds() { return productIds; }
+}
@@ -0,0 +1,267 @@
+// PATH: src/main/java/com/verto/shop/service/InventoryService.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.OrderLine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-SKU stock with all-or-nothing, multi-line reservations.
+ *
+ * Each SKU has its own AtomicLong of available units, decremented by CAS only
+ * when enough stock remains, so stock never goes negative and checkouts for
+ * different SKUs never touch the same memory or lock. A cart reserves its lines
+ * one by one; if any line fails, the lines already taken are given back.
+ * Reservations expire after a TTL and are released by a background sweeper,
+ * so abandoned carts do not hold stock forever.
+ *
+ * Counters are only created for SKUs in the catalog, or by setStock. A SKU
+ * starts at app.inventory.default-stock less the units sold by the orders in
+ * the journal, which is replayed once on startup, so sales survive a restart.
+ * Stock levels set with setStock are not journaled; after a restart such a SKU
+ * starts again from the default less its sales.
+ */
+@Service
+public class InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    /** Units held for one cart until committed, released or expired. */
+    public static final class Reservation {
+        private final String id;
+        private final String[] productIds;
+        private final int[] quantities;
+        private final long expiresAtMillis;
+
+        Reservation(String id, String[] productIds, int[] quantities, long expiresAtMillis) {
+            this.id = id; this.productIds = productIds; this.quantities = quantities; this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public String getId() { return id; }
+        public long getExpiresAtMillis() { return expiresAtMillis; }
+        public int size() { return productIds.length; }
+        public String productIdAt(int i) { return productIds[i]; }
+        public int quantityAt(int i) { return quantities[i]; }
+
+        /** True if the reservation holds exactly the first n of these lines, in any order. */
+        public boolean covers(String[] ids, int[] qtys, int n) {
+            if (n != productIds.length) return false;
+            outer:
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < productIds.length; j++) {
+                    if (productIds[j].equals(ids[i])) {
+                        if (quantities[j] != qtys[i]) return false;
+                        continue outer;
+                    }
+                }
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private final ProductService productService;
+    private final OrderJournal orderJournal;
+    private final ConcurrentHashMap<String, AtomicLong> stock = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+    // Units sold per SKU by the orders journaled before this start
+    private final ConcurrentHashMap<String, Long> soldBeforeStart = new ConcurrentHashMap<>();
+
+    @Value("${app.inventory.default-stock:1000}")
+    private long defaultStock = 1000;
+
+    @Value("${app.inventory.reservation-ttl-ms:600000}")
+    private long reservationTtlMillis = 600_000;
+
+    @Value("${app.inventory.sweep-interval-ms:1000}")
+    private long sweepIntervalMillis = 1000;
+
+    private ScheduledExecutorService sweeper;
+
+    public InventoryService(ProductService productService, OrderJournal orderJournal) {
+        this.productService = productService;
+        this.orderJournal = orderJournal;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        rebuildFromJournal();
+        startSweeper();
+    }
+
+    // Sums the units of every journaled order; runs after OrderJournal.open()
+    void rebuildFromJournal() throws IOException {
+        long started = System.nanoTime();
+        long[] orders = new long[1];
+        orderJournal.replay(order -> {
+            orders[0]++;
+            for (OrderLine line : order.getLines()) {
+                soldBeforeStart.merge(line.getProductId(), (long) line.getQuantity(), Long::sum);
+            }
+        });
+        if (orders[0] > 0) {
+            log.info("Inventory rebuilt from {} journaled orders ({} SKUs sold) in {} ms", orders[0],
+                    soldBeforeStart.size(), (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    void startSweeper() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "inventory-reservation-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::releaseExpired, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopSweeper() {
+        if (sweeper != null) sweeper.shutdownNow();
+    }
+
+    /** Units currently available (not reserved or sold) for the SKU; 0 for an unknown SKU. */
+    public long available(String productId) {
+        AtomicLong c = counter(productId);
+        return c == null ? 0 : c.get();
+    }
+
+    /** Sets the available units for the SKU, e.g. after a stock count. */
+    public void setStock(String productId, long units) {
+        if (units < 0) throw new IllegalArgumentException("Stock must not be negative");
+        stock.computeIfAbsent(productId, id -> new AtomicLong()).set(units);
+    }
+
+    /** Reserves the lines for the default TTL. */
+    public Reservation reserve(String[] productIds, int[] quantities) {
+        return reserve(productIds, quantities, reservationTtlMillis);
+    }
+
+    /**
+     * Reserves every line or none. Product ids must be distinct.
+     *
+     * @throws InsufficientStockException listing every SKU that could not be covered
+     */
+    public Reservation reserve(String[] productIds, int[] quantities, long ttlMillis) {
+        take(productIds, quantities, productIds.length);
+        Reservation r = new Reservation(UUID.randomUUID().toString(), productIds.clone(), quantities.clone(),
+                System.currentTimeMillis() + ttlMillis);
+        reservations.put(r.id, r);
+        return r;
+    }
+
+    /**
+     * Takes the first n lines for an immediate sale, all or none, without creating
+     * a reservation. Product ids must be distinct. An unknown SKU has no stock.
+     *
+     * @throws InsufficientStockException listing every SKU that could not be covered
+     * @throws IllegalArgumentException if a quantity is not positive
+     */
+    public void take(String[] productIds, int[] quantities, int n) {
+        for (int i = 0; i < n; i++) {
+            if (quantities[i] < 1) throw new IllegalArgumentException("Quantity must be positive: " + quantities[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            AtomicLong counter = counter(productIds[i]);
+            if (counter != null && tryTake(counter, quantities[i])) continue;
+
+            // Give back what this cart already took, then report every short line
+            for (int j = 0; j < i; j++) counter(productIds[j]).addAndGet(quantities[j]);
+            List<String> missing = new ArrayList<>();
+            missing.add(productIds[i]);
+            for (int j = i + 1; j < n; j++) {
+                if (available(productIds[j]) < quantities[j]) missing.add(productIds[j]);
+            }
+            throw new InsufficientStockException(missing);
+        }
+    }
+
+    /** Looks up a live reservation, or null if it is unknown, committed, released or expired. */
+    public Reservation find(String reservationId) {
+        Reservation r = reservations.get(reservationId);
+        return r == null || r.expiresAtMillis < System.currentTimeMillis() ? null : r;
+    }
+
+    /**
+     * Turns the reservation into a sale. Returns false if it no longer exists
+     * or has expired, in which case its units are back in stock.
+     */
+    public boolean commit(String reservationId) {
+        Reservation r = reservations.remove(reservationId);
+        if (r == null) return false;
+        if (r.expiresAtMillis < System.currentTimeMillis()) {
+            giveBack(r);
+            return false;
+        }
+        return true;
+    }
+
+    /** Puts sold units of the first n lines back, e.g. when the order could not be recorded. */
+    public void restock(String[] productIds, int[] quantities, int n) {
+        for (int i = 0; i < n; i++) {
+            AtomicLong counter = counter(productIds[i]);
+            if (counter != null) counter.addAndGet(quantities[i]);
+        }
+    }
+
+    /** Returns the reserved units to stock. Returns false if there was nothing to release. */
+    public boolean release(String reservationId) {
+        Reservation r = reservations.remove(reservationId);
+        if (r == null) return false;
+        giveBack(r);
+        return true;
+    }
+
+    /** Releases every expired reservation; run periodically by the sweeper. */
+    public int releaseExpired() {
+        long now = System.currentTimeMillis();
+        int released = 0;
+        for (Reservation r : reservations.values()) {
+            // remove(key, value) makes sure a concurrent commit or release wins at most once
+            if (r.expiresAtMillis < now && reservations.remove(r.id, r)) {
+                giveBack(r);
+                released++;
+            }
+        }
+        if (released > 0) log.info("Released {} expired inventory reservation(s)", released);
+        return released;
+    }
+
+    private void giveBack(Reservation r) {
+        restock(r.productIds, r.quantities, r.productIds.length);
+    }
+
+    // The SKU's counter, or null if it has none and is not in the catalog
+    private AtomicLong counter(String productId) {
+        AtomicLong c = stock.get(productId);
+        if (c != null) return c;
+        if (productService.getCatalog().get(productId) == null) return null;
+        return stock.computeIfAbsent(productId,
+                id -> new AtomicLong(Math.max(0, defaultStock - soldBeforeStart.getOrDefault(id, 0L))));
+    }
+
+    // CAS loop that never lets the counter drop below zero
+    private static boolean tryTake(AtomicLong counter, int qty) {
+        long current;
+        do {
+            current = counter.get();
+            if (current < qty) return false;
+        } while (!counter.compareAndSet(current, current - qty));
+        return true;
+    }
+}
@@ -0,0 +1,10 @@
+// PATH: src/main/java/com/verto/shop/service/JournalDurability.java
+package com.verto.shop.service;
+
+// When an appended order counts as durable (app.journal.durability)
+public enum JournalDurability {
+    // Every order forces its own record to disk before returning
+    PER_ORDER,
+    // Concurrent appenders share one force of everything written so far (group commit)
+    BATCHED
+}
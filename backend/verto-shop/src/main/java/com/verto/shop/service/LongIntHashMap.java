@@ -0,0 +1,82 @@
+// PATH: src/main/java/com/verto/shop/service/LongIntHashMap.java
+package com.verto.shop.service;
+
+/**
+ * Open-addressing map from long keys to int values, in two flat arrays, for
+ * indexes that hold tens of millions of entries: about 12 bytes per slot and no
+ * objects per entry. Key 0 marks a free slot, so callers hash their keys to
+ * non-zero values. Not thread-safe.
+ */
+final class LongIntHashMap {
+
+    static final int MISSING = -1;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    LongIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) return values[i];
+            if (k == 0) return MISSING;
+        }
+    }
+
+    // Returns the previous value, or MISSING
+    int put(long key, int value) {
+        if (key == 0) throw new IllegalArgumentException("Key 0 is reserved");
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                int previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+            if (k == 0) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size > resizeAt) grow();
+                return MISSING;
+            }
+        }
+    }
+
+    int size() { return size; }
+
+    // Heap used by the two arrays
+    long footprintBytes() { return (long) keys.length * (Long.BYTES + Integer.BYTES); }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        resizeAt = (int) (keys.length * LOAD_FACTOR);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long key = oldKeys[j];
+            if (key == 0) continue;
+            int i = slot(key, mask);
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = key;
+            values[i] = oldValues[j];
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
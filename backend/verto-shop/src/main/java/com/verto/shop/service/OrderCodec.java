@@ -0,0 +1,161 @@
+// PATH: src/main/java/com/verto/shop/service/OrderCodec.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Order;
+import com.verto.shop.model.OrderLine;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of an Order, used by the order journal and the order store.
+ * Layout: orderId, createdAtMillis (8), totalCents (8), userName, userEmail,
+ * line count (2), then per line: productId, name, unitPriceCents (8), quantity (4).
+ * Strings are an unsigned 2-byte UTF-8 length followed by the bytes; 0xFFFF means null.
+ * If any line has a discount, the lines are followed by one discountCents (8) per
+ * line. Records without that trailer, including those written before discounts
+ * existed, decode with no discounts.
+ */
+final class OrderCodec {
+
+    private static final int NULL_STRING = 0xFFFF;
+
+    private OrderCodec() {}
+
+    static byte[] encode(Order order) {
+        ByteBuffer buf = ByteBuffer.allocate(encodedSize(order));
+        encode(order, buf);
+        return buf.array();
+    }
+
+    /** Size in bytes of the encoded order; computed without encoding anything. */
+    static int encodedSize(Order order) {
+        List<OrderLine> lines = order.getLines();
+        if (lines.size() > 0xFFFF) throw new IllegalArgumentException("Too many order lines: " + lines.size());
+        int size = sizeOf(order.getOrderId()) + 8 + 8 + sizeOf(order.getUserName()) + sizeOf(order.getUserEmail()) + 2;
+        for (int i = 0; i < lines.size(); i++) {
+            OrderLine line = lines.get(i);
+            size += sizeOf(line.getProductId()) + sizeOf(line.getName()) + 8 + 4;
+        }
+        if (hasDiscounts(lines)) size += 8 * lines.size();
+        return size;
+    }
+
+    /**
+     * Writes the order at the buffer's position, which must have encodedSize(order)
+     * bytes left. Strings are UTF-8 encoded in place, so nothing is allocated.
+     */
+    static void encode(Order order, ByteBuffer buf) {
+        List<OrderLine> lines = order.getLines();
+        if (lines.size() > 0xFFFF) throw new IllegalArgumentException("Too many order lines: " + lines.size());
+        putString(buf, order.getOrderId());
+        buf.putLong(order.getCreatedAtMillis());
+        buf.putLong(order.getTotalCents());
+        putString(buf, order.getUserName());
+        putString(buf, order.getUserEmail());
+        buf.putShort((short) lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            OrderLine line = lines.get(i);
+            putString(buf, line.getProductId());
+            putString(buf, line.getName());
+            buf.putLong(line.getUnitPriceCents());
+            buf.putInt(line.getQuantity());
+        }
+        if (hasDiscounts(lines)) {
+            for (int i = 0; i < lines.size(); i++) buf.putLong(lines.get(i).getDiscountCents());
+        }
+    }
+
+    /** Decodes an order; buf must end where the record ends, as the trailer is optional. */
+    static Order decode(ByteBuffer buf) {
+        String orderId = getString(buf);
+        long createdAt = buf.getLong();
+        long total = buf.getLong();
+        String userName = getString(buf);
+        String userEmail = getString(buf);
+        int count = Short.toUnsignedInt(buf.getShort());
+        List<OrderLine> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String productId = getString(buf);
+            String name = getString(buf);
+            long unitPrice = buf.getLong();
+            int qty = buf.getInt();
+            lines.add(new OrderLine(productId, name, unitPrice, qty));
+        }
+        if (buf.remaining() >= 8 * count) {
+            for (int i = 0; i < count; i++) {
+                OrderLine line = lines.get(i);
+                lines.set(i, new OrderLine(line.getProductId(), line.getName(), line.getUnitPriceCents(),
+                        line.getQuantity(), buf.getLong()));
+            }
+        }
+        return new Order(orderId, createdAt, total, userName, userEmail, lines);
+    }
+
+    private static boolean hasDiscounts(List<OrderLine> lines) {
+        for (int i = 0; i < lines.size(); i++) if (lines.get(i).getDiscountCents() != 0) return true;
+        return false;
+    }
+
+    // Length prefix plus UTF-8 bytes; unpaired surrogates count as '?', as String.getBytes encodes them
+    private static int sizeOf(String s) {
+        if (s == null) return 2;
+        int bytes = utf8Length(s);
+        if (bytes >= NULL_STRING) throw new IllegalArgumentException("String too long for order record");
+        return 2 + bytes;
+    }
+
+    private static int utf8Length(String s) {
+        int bytes = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) bytes++;
+            else if (c < 0x800) bytes += 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) bytes++;
+            else bytes += 3;
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buf, String s) {
+        if (s == null) {
+            buf.putShort((short) NULL_STRING);
+            return;
+        }
+        buf.putShort((short) utf8Length(s));
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buf.put((byte) c);
+            } else if (c < 0x800) {
+                buf.put((byte) (0xC0 | (c >> 6)));
+                buf.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf.put((byte) (0xF0 | (cp >> 18)));
+                buf.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                buf.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                buf.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                buf.put((byte) '?');
+            } else {
+                buf.put((byte) (0xE0 | (c >> 12)));
+                buf.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buf.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int len = Short.toUnsignedInt(buf.getShort());
+        if (len == NULL_STRING) return null;
+        byte[] bytes = new byte[len];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,12 @@
+// PATH: src/main/java/com/verto/shop/service/OrderIdGenerator.java
+package com.verto.shop.service;
+
+/**
+ * Source of order ids. The default is SnowflakeOrderIdGenerator; declare a
+ * @Primary bean of this type to plug in a different scheme.
+ */
+public interface OrderIdGenerator {
+
+    /** Returns a new id, unique across all nodes sharing the scheme. Must be thread-safe. */
+    String nextId();
+}
@@ -0,0 +1,451 @@
+// PATH: src/main/java/com/verto/shop/service/OrderJournal.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Order;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal of placed orders.
+ *
+ * The journal is a sequence of fixed-size segment files (segment-00000001.log, ...).
+ * Each record is [payload length:4][CRC32C of payload:4][payload], the payload being
+ * an OrderCodec-encoded order; a zero length marks the end of written data, since
+ * newly mapped segments are zero-filled.
+ *
+ * append() returns only once the order is on disk according to the configured
+ * JournalDurability: PER_ORDER forces each record on its own, BATCHED lets one
+ * appender force everything written so far while the others wait for it (group commit).
+ * On startup every segment is replayed and checksummed. A bad record in the last
+ * segment with no intact record after it is a torn tail, left by a crash mid-write,
+ * and is truncated. Any other corruption fails startup and leaves the files as they
+ * are, so acknowledged orders are never discarded.
+ */
+@Component
+public class OrderJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderJournal.class);
+
+    static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path dir;
+    private final JournalDurability durability;
+    private final int segmentSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final LongAdder syncs = new LongAdder();
+
+    // Guarded by lock
+    private FileChannel lockChannel;
+    private FileLock fileLock;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int segmentIndex;
+    private int writeOffset;
+    private int flushedOffset;
+    private long durablePosition;
+    private boolean flushing;
+
+    private long recoveredOrders;
+
+    // Read-only channels for read(position), one per segment, opened on first use
+    private final ConcurrentHashMap<Integer, FileChannel> readers = new ConcurrentHashMap<>();
+
+    public OrderJournal(@Value("${app.journal.dir:data/journal}") String dir,
+                        @Value("${app.journal.durability:BATCHED}") JournalDurability durability,
+                        @Value("${app.journal.segment-size-bytes:67108864}") int segmentSize) {
+        if (segmentSize <= HEADER_BYTES) throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        this.dir = Paths.get(dir);
+        this.durability = durability;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Locks the journal directory, replays and verifies existing segments and
+     * positions the writer after the last valid record.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(dir);
+        lockChannel = FileChannel.open(dir.resolve("journal.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            fileLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Order journal " + dir + " is already in use");
+        }
+
+        try {
+            recover(started);
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void recover(long started) throws IOException {
+        List<Integer> segments = listSegments();
+        long orders = 0;
+        for (int i = 0; i < segments.size() - 1; i++) {
+            try (FileChannel ch = FileChannel.open(segmentPath(segments.get(i)), StandardOpenOption.READ)) {
+                ScanResult r = scan(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()), (int) ch.size(), 0, null);
+                if (r.corrupt) {
+                    throw new IllegalStateException("Corrupt record in sealed journal segment " + segmentPath(segments.get(i)) + " at offset " + r.end);
+                }
+                orders += r.records;
+            }
+        }
+
+        segmentIndex = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        mapSegment(segmentIndex);
+        ScanResult tail = scan(buffer, segmentSize, 0, null);
+        if (tail.corrupt) {
+            if (hasRecordAfter(buffer, tail.end, segmentSize)) {
+                throw new IllegalStateException("Corrupt record in journal segment " + segmentPath(segmentIndex)
+                        + " at offset " + tail.end + ", followed by intact records");
+            }
+            log.warn("Truncating torn order journal record in {} at offset {}", segmentPath(segmentIndex), tail.end);
+            for (int i = tail.end; i < segmentSize; i++) buffer.put(i, (byte) 0);
+            buffer.force();
+        }
+        orders += tail.records;
+        writeOffset = tail.end;
+        flushedOffset = tail.end;
+        durablePosition = position(writeOffset);
+        recoveredOrders = orders;
+
+        log.info("Order journal {} opened ({} mode): recovered {} orders from {} segment(s) in {} ms",
+                dir, durability, orders, Math.max(1, segments.size()), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /** Receives journaled orders together with their position, as accepted by {@link #read}. */
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(Order order, long position);
+    }
+
+    /**
+     * Appends the order and returns once it is durable under the configured mode.
+     *
+     * @return the position of the record, for {@link #read}
+     */
+    public long append(Order order) {
+        return appendAll(List.of(order))[0];
+    }
+
+    /**
+     * Appends the orders in one go and returns once all of them are durable.
+     * The whole group costs a single force, also in PER_ORDER mode.
+     *
+     * @return the position of each record, in order
+     */
+    public long[] appendAll(List<Order> orders) {
+        long[] positions = new long[orders.size()];
+        if (orders.isEmpty()) return positions;
+        byte[][] payloads = new byte[orders.size()][];
+        int[] checksums = new int[orders.size()];
+        CRC32C crc = new CRC32C();
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = OrderCodec.encode(orders.get(i));
+            if (HEADER_BYTES + payloads[i].length > segmentSize) {
+                throw new IllegalArgumentException("Order record larger than a journal segment");
+            }
+            crc.reset();
+            crc.update(payloads[i]);
+            checksums[i] = (int) crc.getValue();
+        }
+
+        MappedByteBuffer target;
+        int from;
+        int to;
+        long end;
+        lock.lock();
+        try {
+            if (buffer == null) throw new IllegalStateException("Order journal is not open");
+            from = writeOffset;
+            for (int i = 0; i < payloads.length; i++) {
+                int recordSize = HEADER_BYTES + payloads[i].length;
+                if (writeOffset + recordSize > segmentSize) {
+                    roll(); // forces the records of this group written so far
+                    from = 0;
+                }
+                buffer.putInt(writeOffset + 4, checksums[i]);
+                buffer.put(writeOffset + HEADER_BYTES, payloads[i]);
+                buffer.putInt(writeOffset, payloads[i].length);
+                positions[i] = position(writeOffset);
+                writeOffset += recordSize;
+            }
+            target = buffer;
+            to = writeOffset;
+            end = position(writeOffset);
+        } finally {
+            lock.unlock();
+        }
+
+        if (durability == JournalDurability.PER_ORDER) {
+            target.force(from, to - from);
+            syncs.increment();
+        } else {
+            awaitDurable(end);
+        }
+        return positions;
+    }
+
+    /**
+     * Reads every order currently in the journal, oldest first.
+     */
+    public void replay(Consumer<Order> consumer) throws IOException {
+        replayWithPositions((order, position) -> consumer.accept(order));
+    }
+
+    /**
+     * Reads every order currently in the journal, oldest first, with its position.
+     */
+    public void replayWithPositions(RecordConsumer consumer) throws IOException {
+        int lastSegment;
+        int lastEnd;
+        lock.lock();
+        try {
+            lastSegment = segmentIndex;
+            lastEnd = writeOffset;
+        } finally {
+            lock.unlock();
+        }
+        for (int index : listSegments()) {
+            if (index > lastSegment) break;
+            try (FileChannel ch = FileChannel.open(segmentPath(index), StandardOpenOption.READ)) {
+                int limit = index == lastSegment ? lastEnd : (int) ch.size();
+                scan(ch.map(FileChannel.MapMode.READ_ONLY, 0, limit), limit, (long) index * segmentSize, consumer);
+            }
+        }
+    }
+
+    /**
+     * Reads the order recorded at a position returned by append/appendAll or
+     * passed to a RecordConsumer. Returns null if there is no intact record there.
+     */
+    public Order read(long position) throws IOException {
+        if (position < 0) return null;
+        int index = (int) (position / segmentSize);
+        int offset = (int) (position % segmentSize);
+        FileChannel ch = readers.get(index);
+        if (ch == null) {
+            Path path = segmentPath(index);
+            if (!Files.exists(path)) return null;
+            ch = readers.computeIfAbsent(index, i -> {
+                try {
+                    return FileChannel.open(path, StandardOpenOption.READ);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (ch.read(header, offset) < HEADER_BYTES) return null;
+        int length = header.getInt(0);
+        if (length <= 0 || offset + HEADER_BYTES + length > segmentSize) return null;
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        if (ch.read(payload, offset + HEADER_BYTES) < length) return null;
+        payload.flip();
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != header.getInt(4)) return null;
+        try {
+            return OrderCodec.decode(payload);
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    public JournalDurability getDurability() { return durability; }
+
+    // Number of forces issued; with BATCHED this is usually far below the number of orders
+    public long getSyncCount() { return syncs.sum(); }
+
+    public long getRecoveredOrders() { return recoveredOrders; }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (buffer != null) {
+                buffer.force();
+                buffer = null;
+                channel.close();
+            }
+            for (FileChannel reader : readers.values()) reader.close();
+            readers.clear();
+            if (fileLock != null) {
+                fileLock.release();
+                lockChannel.close();
+                fileLock = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Group commit: the first waiter with nothing in flight forces everything written so far.
+    private void awaitDurable(long end) {
+        lock.lock();
+        try {
+            while (durablePosition < end) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                flushing = true;
+                MappedByteBuffer target = buffer;
+                int from = flushedOffset;
+                int to = writeOffset;
+                long reached = position(to);
+                lock.unlock();
+                try {
+                    target.force(from, to - from);
+                    syncs.increment();
+                } finally {
+                    lock.lock();
+                    flushing = false;
+                    flushed.signalAll();
+                }
+                if (target == buffer) flushedOffset = Math.max(flushedOffset, to);
+                durablePosition = Math.max(durablePosition, reached);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Seals the current segment (forcing what is left) and starts the next one; caller holds lock
+    private void roll() {
+        buffer.force(flushedOffset, writeOffset - flushedOffset);
+        syncs.increment();
+        durablePosition = Math.max(durablePosition, position(writeOffset));
+        try {
+            channel.close();
+            mapSegment(segmentIndex + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segmentIndex++;
+        writeOffset = 0;
+        flushedOffset = 0;
+        flushed.signalAll();
+    }
+
+    private void mapSegment(int index) throws IOException {
+        channel = FileChannel.open(segmentPath(index), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    // Logical position across segments, monotonic for the life of the journal
+    private long position(int offset) {
+        return (long) segmentIndex * segmentSize + offset;
+    }
+
+    private Path segmentPath(int index) {
+        return dir.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private List<Integer> listSegments() throws IOException {
+        List<Integer> indexes = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                 .filter(n -> n.startsWith(SEGMENT_PREFIX) && n.endsWith(SEGMENT_SUFFIX))
+                 .forEach(n -> indexes.add(Integer.parseInt(n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length()))));
+        }
+        indexes.sort(null);
+        return indexes;
+    }
+
+    private static final class ScanResult {
+        int end;
+        long records;
+        boolean corrupt;
+    }
+
+    // True if an intact record starts anywhere after the bad record at offset from. Record
+    // boundaries past a bad length are unknown, so every offset is tried.
+    private static boolean hasRecordAfter(ByteBuffer segment, int from, int limit) {
+        CRC32C crc = new CRC32C();
+        for (int offset = from + 1; offset + HEADER_BYTES <= limit; offset++) {
+            int length = segment.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > limit) continue;
+            crc.reset();
+            crc.update(segment.slice(offset + HEADER_BYTES, length));
+            if ((int) crc.getValue() == segment.getInt(offset + 4)) return true;
+        }
+        return false;
+    }
+
+    // Walks the records of one segment up to limit, verifying length and checksum of each
+    private static ScanResult scan(ByteBuffer segment, int limit, long basePosition, RecordConsumer consumer) {
+        ScanResult r = new ScanResult();
+        CRC32C crc = new CRC32C();
+        int offset = 0;
+        while (offset + HEADER_BYTES <= limit) {
+            int length = segment.getInt(offset);
+            if (length == 0) break;
+            if (length < 0 || offset + HEADER_BYTES + length > limit) {
+                r.corrupt = true;
+                break;
+            }
+            ByteBuffer payload = segment.slice(offset + HEADER_BYTES, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != segment.getInt(offset + 4)) {
+                r.corrupt = true;
+                break;
+            }
+            if (consumer != null) {
+                Order order;
+                try {
+                    order = OrderCodec.decode(payload);
+                } catch (BufferUnderflowException e) {
+                    r.corrupt = true;
+                    break;
+                }
+                consumer.accept(order, basePosition + offset);
+            }
+            offset += HEADER_BYTES + length;
+            r.records++;
+        }
+        r.end = offset;
+        return r;
+    }
+}
@@ -0,0 +1,369 @@
+// PATH: src/main/java/com/verto/shop/service/OrderStore.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Order;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Queryable store of placed orders: lookup by order id and per-user history by
+ * email, newest first.
+ *
+ * Orders are kept as OrderCodec bytes in an off-heap ring buffer of
+ * app.orders.memory-bytes. When the ring is full, the oldest orders are evicted.
+ * They are not lost, because every order is already in the OrderJournal. An
+ * evicted order's index entry switches to its journal position, and lookups
+ * read it back from disk.
+ *
+ * The indexes are primitive arrays with no objects per order:
+ * - a hash of the order id maps to an order number;
+ * - a hash of the email maps to the user's newest order;
+ * - each order links to the same user's previous one;
+ * - each order has its location (ring position or journal position).
+ * That is about 40 bytes of heap per order, so tens of millions of orders fit.
+ * Hash collisions are harmless: every hit is checked against the decoded order.
+ *
+ * On startup the store is rebuilt from the journal.
+ */
+@Component
+public class OrderStore {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStore.class);
+
+    /** One page of a user's orders, newest first; nextCursor is null on the last page. */
+    public static final class Page {
+        private final List<Order> items;
+        private final String nextCursor;
+
+        Page(List<Order> items, String nextCursor) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Order> getItems() { return items; }
+        public String getNextCursor() { return nextCursor; }
+    }
+
+    // Ring record: [order number:4][payload length:4][journal position:8][payload]
+    private static final int RECORD_HEADER = 16;
+    private static final int PADDING = -1;
+    // Location of an order that is neither in memory nor in the journal
+    private static final long NOT_STORED = Long.MIN_VALUE;
+    private static final int NONE = -1;
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final OrderJournal journal;
+    private final int capacity;
+    private final ByteBuffer ring;
+    private final StampedLock lock = new StampedLock();
+
+    // Guarded by lock. Per order number: location (>= 0 ring position, else ~journal
+    // position or NOT_STORED) and the same user's previous order number.
+    private long[][] locations = new long[16][];
+    private int[][] previousByEmail = new int[16][];
+    private final LongIntHashMap byId = new LongIntHashMap(1 << 16);
+    private final LongIntHashMap latestByEmail = new LongIntHashMap(1 << 14);
+    private int count;
+    private long head;
+    private long tail;
+    private int resident;
+    // Highest order id added, longer ids ranking higher: ids are fixed-width, so this is numeric order
+    private volatile String highestOrderId;
+
+    @Autowired
+    public OrderStore(OrderJournal journal, @Value("${app.orders.memory-bytes:67108864}") int memoryBytes) {
+        if (memoryBytes < 1024) throw new IllegalArgumentException("app.orders.memory-bytes must be at least 1024");
+        this.journal = journal;
+        this.capacity = memoryBytes;
+        this.ring = ByteBuffer.allocateDirect(memoryBytes);
+    }
+
+    // Rebuilds the indexes from the journal; runs after OrderJournal.open()
+    @PostConstruct
+    void load() throws IOException {
+        long start = System.nanoTime();
+        journal.replayWithPositions(this::add);
+        if (count > 0) {
+            log.info("Order store loaded {} orders ({} in memory, {} MB) in {} ms", count, residentOrders(),
+                    residentBytes() >> 20, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Adds a placed order. journalPosition is where OrderJournal put it, or a
+     * negative value if it is not journaled; such an order is gone once evicted.
+     * Allocates nothing unless an index has to grow.
+     */
+    public void add(Order order, long journalPosition) {
+        int size = RECORD_HEADER + OrderCodec.encodedSize(order);
+        long stamp = lock.writeLock();
+        try {
+            int number = count;
+            ensureCapacity(number);
+            long location;
+            if (size <= capacity) {
+                location = append(order, number, size, journalPosition);
+                resident++;
+            } else {
+                location = journalPosition >= 0 ? ~journalPosition : NOT_STORED;
+            }
+            locations[number >>> CHUNK_BITS][number & CHUNK_MASK] = location;
+
+            String id = order.getOrderId();
+            byId.put(idKey(id), number);
+            String highest = highestOrderId;
+            if (highest == null || id.length() > highest.length()
+                    || (id.length() == highest.length() && id.compareTo(highest) > 0)) {
+                highestOrderId = id;
+            }
+            int previous = NONE;
+            String email = order.getUserEmail();
+            if (email != null && !email.isBlank()) {
+                previous = latestByEmail.put(emailKey(email), number);
+            }
+            previousByEmail[number >>> CHUNK_BITS][number & CHUNK_MASK] = previous;
+            count = number + 1;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** The highest order id stored so far (see above), or null if there are no orders. */
+    public String getHighestOrderId() {
+        return highestOrderId;
+    }
+
+    /** The order with the given id, or null. */
+    public Order find(String orderId) {
+        if (orderId == null || orderId.isEmpty()) return null;
+        int number;
+        long stamp = lock.readLock();
+        try {
+            number = byId.get(idKey(orderId));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        Order order = number == LongIntHashMap.MISSING ? null : load(number);
+        return order != null && orderId.equals(order.getOrderId()) ? order : null;
+    }
+
+    /**
+     * Orders placed with the given email (case-insensitive), newest first.
+     *
+     * @param after nextCursor of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed or was not issued for this email
+     */
+    public Page findByEmail(String email, String after, int limit) {
+        String wanted = email.trim();
+        int next;
+        int cursor = NONE;
+        long stamp = lock.readLock();
+        try {
+            if (after == null) {
+                next = latestByEmail.get(emailKey(wanted));
+            } else {
+                cursor = parseCursor(after);
+                next = previousByEmail[cursor >>> CHUNK_BITS][cursor & CHUNK_MASK];
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        // A cursor is the last order of a page, so it must be one of this email's orders. Otherwise it
+        // would start the walk on another customer's chain and read all of it for an empty page.
+        if (cursor != NONE && !placedBy(load(cursor), wanted)) {
+            throw new IllegalArgumentException("Invalid cursor: " + after);
+        }
+
+        List<Order> items = new ArrayList<>(Math.min(limit, 64));
+        int last = NONE;
+        while (next != NONE && items.size() < limit) {
+            Order order = load(next);
+            // Another email with the same hash shares the chain: skip its orders
+            if (placedBy(order, wanted)) items.add(order);
+            last = next;
+            stamp = lock.readLock();
+            try {
+                next = previousByEmail[last >>> CHUNK_BITS][last & CHUNK_MASK];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return new Page(items, next != NONE && last != NONE ? Integer.toString(last) : null);
+    }
+
+    /** Orders indexed. */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return count;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Orders whose bytes are in memory. */
+    public int residentOrders() {
+        long stamp = lock.readLock();
+        try {
+            return resident;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Off-heap bytes held by in-memory orders, at most app.orders.memory-bytes. */
+    public long residentBytes() {
+        long stamp = lock.readLock();
+        try {
+            return head - tail;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Heap held by the indexes. */
+    public long indexBytes() {
+        long stamp = lock.readLock();
+        try {
+            long chunks = (long) (count + CHUNK_SIZE - 1) / CHUNK_SIZE * CHUNK_SIZE;
+            return chunks * (Long.BYTES + Integer.BYTES) + byId.footprintBytes() + latestByEmail.footprintBytes();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Reads an order from the ring, or from the journal once it has been evicted
+    private Order load(int number) {
+        byte[] bytes = null;
+        long location;
+        long stamp = lock.readLock();
+        try {
+            location = locations[number >>> CHUNK_BITS][number & CHUNK_MASK];
+            if (location >= 0) {
+                int offset = (int) (location % capacity);
+                bytes = new byte[ring.getInt(offset + 4)];
+                ring.get(offset + RECORD_HEADER, bytes);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        if (bytes != null) return OrderCodec.decode(ByteBuffer.wrap(bytes));
+        if (location == NOT_STORED) return null;
+        try {
+            return journal.read(~location);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Writes the record at the head of the ring, evicting the oldest records to make room; caller holds the write lock
+    private long append(Order order, int number, int size, long journalPosition) {
+        int offset = (int) (head % capacity);
+        if (offset + size > capacity) {
+            // Records never wrap: skip the rest of the ring
+            long end = head + (capacity - offset);
+            makeRoom(end);
+            if (capacity - offset >= RECORD_HEADER) ring.putInt(offset, PADDING);
+            head = end;
+            offset = 0;
+        }
+        makeRoom(head + size);
+        ring.putInt(offset, number);
+        ring.putInt(offset + 4, size - RECORD_HEADER);
+        ring.putLong(offset + 8, journalPosition);
+        ring.position(offset + RECORD_HEADER);
+        OrderCodec.encode(order, ring);
+        long location = head;
+        head += size;
+        return location;
+    }
+
+    // Evicts from the tail until the ring can hold everything up to newHead
+    private void makeRoom(long newHead) {
+        while (newHead - tail > capacity) {
+            int offset = (int) (tail % capacity);
+            if (capacity - offset < RECORD_HEADER || ring.getInt(offset) == PADDING) {
+                tail += capacity - offset;
+                continue;
+            }
+            int number = ring.getInt(offset);
+            long journalPosition = ring.getLong(offset + 8);
+            locations[number >>> CHUNK_BITS][number & CHUNK_MASK] = journalPosition >= 0 ? ~journalPosition : NOT_STORED;
+            tail += RECORD_HEADER + ring.getInt(offset + 4);
+            resident--;
+        }
+    }
+
+    private void ensureCapacity(int number) {
+        int chunk = number >>> CHUNK_BITS;
+        if (chunk == locations.length) {
+            locations = Arrays.copyOf(locations, chunk * 2);
+            previousByEmail = Arrays.copyOf(previousByEmail, chunk * 2);
+        }
+        if (locations[chunk] == null) {
+            locations[chunk] = new long[CHUNK_SIZE];
+            previousByEmail[chunk] = new int[CHUNK_SIZE];
+        }
+    }
+
+    private static boolean placedBy(Order order, String email) {
+        return order != null && order.getUserEmail() != null && order.getUserEmail().trim().equalsIgnoreCase(email);
+    }
+
+    // Caller holds a lock
+    private int parseCursor(String after) {
+        int cursor;
+        try {
+            cursor = Integer.parseInt(after);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + after);
+        }
+        if (cursor < 0 || cursor >= count) throw new IllegalArgumentException("Invalid cursor: " + after);
+        return cursor;
+    }
+
+    // 64-bit hashes; never 0, which LongIntHashMap reserves
+    static long idKey(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    static long emailKey(String email) {
+        int from = 0, to = email.length();
+        while (from < to && Character.isWhitespace(email.charAt(from))) from++;
+        while (to > from && Character.isWhitespace(email.charAt(to - 1))) to--;
+        long h = 0x84222325cbf29ce4L;
+        for (int i = from; i < to; i++) {
+            h ^= Character.toLowerCase(Character.toUpperCase(email.charAt(i)));
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+}
@@ -0,0 +1,175 @@
+// PATH: src/main/java/com/verto/shop/service/PricingEngine.java
+package com.verto.shop.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.model.Product;
+import com.verto.shop.model.Promotion;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prices carts with the current promotions, for quotes and for checkout alike.
+ *
+ * Promotions come from app.pricing.promotions-file (a JSON array) at startup,
+ * or from PUT /api/admin/promotions. Each change is compiled into a new
+ * PricingRules and swapped in whole, so a cart is always priced by one
+ * consistent set of rules.
+ *
+ * Quotes are cached by normalized cart content: the merged lines in product id
+ * order. Adding the same SKU twice, or listing items in another order, hits the
+ * same entry. An entry is only used while the catalog snapshot and the rules it
+ * was priced with are still current. A price or promotion change therefore
+ * makes old entries miss, and they are overwritten as carts are quoted again.
+ * When the cache is full it is cleared and refills with the carts being quoted
+ * now.
+ */
+@Service
+public class PricingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PricingEngine.class);
+
+    // A quote and the snapshots it was computed from
+    private static final class Cached {
+        final ProductCatalog catalog;
+        final PricingRules rules;
+        final CartQuote quote;
+
+        Cached(ProductCatalog catalog, PricingRules rules, CartQuote quote) {
+            this.catalog = catalog;
+            this.rules = rules;
+            this.quote = quote;
+        }
+    }
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final Path promotionsFile;
+    private final int maxQuotes;
+
+    private final ConcurrentHashMap<String, Cached> quotes = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile PricingRules rules = PricingRules.empty();
+
+    @Autowired
+    public PricingEngine(ProductService productService, ObjectMapper objectMapper,
+                         @Value("${app.pricing.promotions-file:}") String promotionsFile,
+                         @Value("${app.pricing.quote-cache.max-entries:10000}") int maxQuotes) {
+        if (maxQuotes < 1) throw new IllegalArgumentException("app.pricing.quote-cache.max-entries must be positive");
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.promotionsFile = promotionsFile == null || promotionsFile.isBlank() ? null : Paths.get(promotionsFile);
+        this.maxQuotes = maxQuotes;
+    }
+
+    // An unreadable or invalid promotions file stops the application
+    @PostConstruct
+    void load() {
+        if (promotionsFile == null) return;
+        List<Promotion> promotions;
+        try {
+            promotions = objectMapper.readValue(Files.readAllBytes(promotionsFile), new TypeReference<List<Promotion>>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read promotions from " + promotionsFile, e);
+        }
+        replacePromotions(promotions);
+    }
+
+    /** The rules checkout and quotes use right now. */
+    public PricingRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Compiles the promotions and makes them current.
+     *
+     * @throws IllegalArgumentException if a promotion is invalid; the current rules stay
+     */
+    public synchronized PricingRules replacePromotions(List<Promotion> promotions) {
+        PricingRules compiled = PricingRules.compile(rules.getVersion() + 1, promotions);
+        rules = compiled;
+        log.info("Pricing rules version {}: {} promotion(s)", compiled.getVersion(), promotions.size());
+        return compiled;
+    }
+
+    /**
+     * Prices a cart of validated items. Lines are merged by product id.
+     *
+     * @throws CheckoutService.QuantityOverflowException if one product's lines add up past Integer.MAX_VALUE
+     */
+    public CartQuote quote(List<CheckoutRequest.Item> items) {
+        String[] ids = new String[items.size()];
+        int[] qtys = new int[items.size()];
+        int n = CheckoutService.mergeLines(items, ids, qtys);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing(i -> ids[i]));
+
+        // Length-prefixed ids keep the key unambiguous whatever characters an id holds
+        StringBuilder key = new StringBuilder(n * 16);
+        for (int i : order) key.append(ids[i].length()).append(':').append(ids[i]).append('*').append(qtys[i]).append(';');
+
+        ProductCatalog catalog = productService.getCatalog();
+        PricingRules current = rules;
+        Cached cached = quotes.get(key.toString());
+        if (cached != null && cached.catalog == catalog && cached.rules == current) {
+            hits.increment();
+            return cached.quote;
+        }
+        misses.increment();
+        CartQuote quote = price(catalog, current, ids, qtys, order);
+        if (quotes.size() >= maxQuotes) quotes.clear();
+        quotes.put(key.toString(), new Cached(catalog, current, quote));
+        return quote;
+    }
+
+    public long getCacheHits() { return hits.sum(); }
+    public long getCacheMisses() { return misses.sum(); }
+
+    private static CartQuote price(ProductCatalog catalog, PricingRules rules, String[] ids, int[] qtys, Integer[] order) {
+        int n = order.length;
+        Product[] products = new Product[n];
+        int[] sortedQtys = new int[n];
+        List<String> invalid = null;
+        for (int j = 0; j < n; j++) {
+            String id = ids[order[j]];
+            products[j] = catalog.get(id);
+            sortedQtys[j] = qtys[order[j]];
+            if (products[j] == null) {
+                if (invalid == null) invalid = new ArrayList<>();
+                invalid.add(id);
+            }
+        }
+        if (invalid != null) return CartQuote.invalidProducts(invalid);
+
+        PricingRules.Priced priced = rules.price(products, sortedQtys, n);
+        List<CartQuote.Line> lines = new ArrayList<>(n);
+        for (int j = 0; j < n; j++) {
+            Product p = products[j];
+            lines.add(new CartQuote.Line(p.getId(), p.getName(), p.getPriceCents(), sortedQtys[j],
+                    priced.lineDiscounts[j], priced.linePromotions[j]));
+        }
+        return new CartQuote(List.copyOf(lines), priced.subtotalCents, priced.subtotalCents - priced.totalCents,
+                priced.totalCents, priced.cartPromotion);
+    }
+}
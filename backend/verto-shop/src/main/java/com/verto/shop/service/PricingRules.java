@@ -0,0 +1,202 @@
+// PATH: src/main/java/com/verto/shop/service/PricingRules.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Product;
+import com.verto.shop.model.Promotion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable set of promotions, compiled for pricing.
+ *
+ * Compiling validates every rule and builds two lookup tables:
+ * - a map from product id to the rules for that SKU;
+ * - the cart-wide rules, sorted by minimum subtotal.
+ * Pricing a cart is then one map lookup per line plus a short scan of the cart
+ * rules, however many promotions exist.
+ *
+ * Promotions do not stack within a level. Each line gets the best SKU rule that
+ * applies to it. The cart then gets the best cart-wide rule, computed on the
+ * subtotal after line discounts. Discounts are rounded down to whole cents and
+ * never exceed what they apply to.
+ */
+public final class PricingRules {
+
+    /** A priced cart: the discount and promotion of each line, and the cart-wide discount. */
+    static final class Priced {
+        final long[] lineDiscounts;
+        final String[] linePromotions;
+        final long subtotalCents;
+        final long cartDiscountCents;
+        final String cartPromotion;
+        final long totalCents;
+
+        Priced(long[] lineDiscounts, String[] linePromotions, long subtotalCents, long lineDiscountCents,
+               long cartDiscountCents, String cartPromotion) {
+            this.lineDiscounts = lineDiscounts;
+            this.linePromotions = linePromotions;
+            this.subtotalCents = subtotalCents;
+            this.cartDiscountCents = cartDiscountCents;
+            this.cartPromotion = cartPromotion;
+            this.totalCents = subtotalCents - lineDiscountCents - cartDiscountCents;
+        }
+    }
+
+    // Compiled rule: only the fields its type needs are set
+    private static final class Rule {
+        final String id;
+        final Promotion.Type type;
+        final int percent;
+        final long amountCents;
+        final int buy;
+        final int free;
+        final long minSubtotalCents;
+
+        Rule(Promotion p) {
+            this.id = p.getId();
+            this.type = p.getType();
+            this.percent = p.getPercent();
+            this.amountCents = p.getAmountCents();
+            this.buy = p.getBuyQuantity();
+            this.free = p.getFreeQuantity();
+            this.minSubtotalCents = p.getMinSubtotalCents();
+        }
+
+        // Discount on qty units at unitPrice
+        long lineDiscount(long unitPrice, int qty) {
+            return switch (type) {
+                case PERCENT_OFF -> unitPrice * qty * percent / 100;
+                case AMOUNT_OFF -> Math.min(amountCents, unitPrice) * qty;
+                case BUY_X_GET_Y -> (long) (qty / (buy + free)) * free * unitPrice;
+            };
+        }
+
+        // Discount on a cart subtotal that has reached minSubtotalCents
+        long cartDiscount(long subtotal) {
+            return type == Promotion.Type.PERCENT_OFF ? subtotal * percent / 100 : Math.min(amountCents, subtotal);
+        }
+    }
+
+    private static final Rule[] NO_RULES = new Rule[0];
+    private static final PricingRules EMPTY = new PricingRules(0, List.of(), Map.of(), NO_RULES);
+
+    private final long version;
+    private final List<Promotion> promotions;
+    private final Map<String, Rule[]> bySku;
+    private final Rule[] cartRules;
+
+    private PricingRules(long version, List<Promotion> promotions, Map<String, Rule[]> bySku, Rule[] cartRules) {
+        this.version = version;
+        this.promotions = promotions;
+        this.bySku = bySku;
+        this.cartRules = cartRules;
+    }
+
+    /** Rules with no promotions: every cart is priced at list price. */
+    static PricingRules empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Validates and compiles the promotions.
+     *
+     * @throws IllegalArgumentException naming the first invalid promotion
+     */
+    static PricingRules compile(long version, List<Promotion> promotions) {
+        Map<String, List<Rule>> skuRules = new HashMap<>();
+        List<Rule> cart = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (Promotion p : promotions) {
+            validate(p, ids);
+            Rule rule = new Rule(p);
+            if (p.getProductIds() == null || p.getProductIds().isEmpty()) {
+                cart.add(rule);
+            } else {
+                for (String productId : p.getProductIds()) skuRules.computeIfAbsent(productId, k -> new ArrayList<>()).add(rule);
+            }
+        }
+        Map<String, Rule[]> bySku = new HashMap<>(skuRules.size() * 2);
+        skuRules.forEach((productId, rules) -> bySku.put(productId, rules.toArray(NO_RULES)));
+        Rule[] cartRules = cart.toArray(NO_RULES);
+        Arrays.sort(cartRules, Comparator.comparingLong(r -> r.minSubtotalCents));
+        return new PricingRules(version, List.copyOf(promotions), bySku, cartRules);
+    }
+
+    private static void validate(Promotion p, Set<String> ids) {
+        if (p == null) throw new IllegalArgumentException("Promotion must not be null");
+        String id = p.getId();
+        if (id == null || id.isBlank()) throw new IllegalArgumentException("Promotion id is required");
+        if (!ids.add(id)) throw new IllegalArgumentException("Duplicate promotion id " + id);
+        if (p.getType() == null) throw new IllegalArgumentException("Promotion " + id + ": type is required");
+        boolean perSku = p.getProductIds() != null && !p.getProductIds().isEmpty();
+        if (perSku && p.getProductIds().stream().anyMatch(pid -> pid == null || pid.isBlank())) {
+            throw new IllegalArgumentException("Promotion " + id + ": productIds must not be blank");
+        }
+        if (p.getMinSubtotalCents() < 0) throw new IllegalArgumentException("Promotion " + id + ": minSubtotalCents must not be negative");
+        switch (p.getType()) {
+            case PERCENT_OFF -> {
+                if (p.getPercent() < 1 || p.getPercent() > 100) {
+                    throw new IllegalArgumentException("Promotion " + id + ": percent must be 1 to 100");
+                }
+            }
+            case AMOUNT_OFF -> {
+                if (p.getAmountCents() < 1) throw new IllegalArgumentException("Promotion " + id + ": amountCents must be positive");
+            }
+            case BUY_X_GET_Y -> {
+                if (!perSku) throw new IllegalArgumentException("Promotion " + id + ": BUY_X_GET_Y needs productIds");
+                if (p.getBuyQuantity() < 1 || p.getFreeQuantity() < 1) {
+                    throw new IllegalArgumentException("Promotion " + id + ": buyQuantity and freeQuantity must be positive");
+                }
+            }
+        }
+    }
+
+    public long getVersion() { return version; }
+
+    /** The promotions as configured. */
+    public List<Promotion> getPromotions() { return promotions; }
+
+    public boolean isEmpty() { return promotions.isEmpty(); }
+
+    /** Prices the first n lines: products[i] bought qtys[i] times. */
+    Priced price(Product[] products, int[] qtys, int n) {
+        long[] discounts = new long[n];
+        String[] applied = new String[n];
+        long subtotal = 0;
+        long lineDiscounts = 0;
+        for (int i = 0; i < n; i++) {
+            long unitPrice = products[i].getPriceCents();
+            subtotal += unitPrice * qtys[i];
+            Rule[] rules = bySku.get(products[i].getId());
+            if (rules == null) continue;
+            for (Rule rule : rules) {
+                long discount = rule.lineDiscount(unitPrice, qtys[i]);
+                if (discount > discounts[i]) {
+                    discounts[i] = discount;
+                    applied[i] = rule.id;
+                }
+            }
+            lineDiscounts += discounts[i];
+        }
+
+        long afterLines = subtotal - lineDiscounts;
+        long cartDiscount = 0;
+        String cartPromotion = null;
+        for (Rule rule : cartRules) {
+            if (rule.minSubtotalCents > afterLines) break; // sorted: no later rule applies either
+            long discount = rule.cartDiscount(afterLines);
+            if (discount > cartDiscount) {
+                cartDiscount = discount;
+                cartPromotion = rule.id;
+            }
+        }
+        return new Priced(discounts, applied, subtotal, lineDiscounts, cartDiscount, cartPromotion);
+    }
+}
@@ -0,0 +1,212 @@
+// PATH: src/main/java/com/verto/shop/service/ProductCatalog.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Immutable snapshot of the product catalog.
+ * Holds the products in insertion order plus an id-keyed index, so readers get
+ * O(1) lookups and a consistent list view without any locking.
+ * A new snapshot is built for every change and swapped in by ProductService.
+ */
+public final class ProductCatalog {
+
+    private static final ProductCatalog EMPTY = new ProductCatalog(0L, List.of(), Map.of(), null);
+
+    private final long version;
+    private final List<Product> products;
+    private final Map<String, Product> byId;
+    // Sorted views for paginated listing, built lazily once per snapshot
+    private final Map<ProductSort, Product[]> sortedViews = new ConcurrentHashMap<>();
+    // Full-text index, built on first search; once built, later snapshots update it incrementally
+    private volatile SearchIndex searchIndex;
+
+    private ProductCatalog(long version, List<Product> products, Map<String, Product> byId, SearchIndex searchIndex) {
+        this.version = version;
+        this.products = products;
+        this.byId = byId;
+        this.searchIndex = searchIndex;
+    }
+
+    public static ProductCatalog empty() { return EMPTY; }
+
+    /**
+     * Builds a snapshot from the given products. A later product with the same id
+     * replaces an earlier one but keeps the earlier position.
+     */
+    public static ProductCatalog of(long version, Collection<Product> source) {
+        return EMPTY.withUpserts(version, source);
+    }
+
+    /**
+     * Returns a new snapshot with the given products added or replaced by id.
+     */
+    public ProductCatalog withUpserts(long newVersion, Collection<Product> changes) {
+        Map<String, Product> index = new HashMap<>(capacityFor(byId.size() + changes.size()));
+        index.putAll(byId);
+        List<Product> ordered = new ArrayList<>(products.size() + changes.size());
+        ordered.addAll(products);
+        Map<String, Integer> positions = null;
+        SearchIndex indexed = searchIndex;
+        // Position -> product it held in this snapshot (null if new), for the search index
+        Map<Integer, Product> touched = indexed == null ? null : new LinkedHashMap<>();
+        for (Product p : changes) {
+            Product previous = index.put(p.getId(), p);
+            if (previous == null) {
+                if (touched != null) touched.put(ordered.size(), null);
+                if (positions != null) positions.put(p.getId(), ordered.size());
+                ordered.add(p);
+                continue;
+            }
+            if (positions == null) positions = positionsOf(ordered);
+            int at = positions.get(p.getId());
+            if (touched != null && !touched.containsKey(at)) touched.put(at, products.get(at));
+            ordered.set(at, p);
+        }
+        if (touched != null) {
+            int[] docs = new int[touched.size()];
+            Product[] before = new Product[docs.length];
+            Product[] after = new Product[docs.length];
+            int i = 0;
+            for (Map.Entry<Integer, Product> e : touched.entrySet()) {
+                docs[i] = e.getKey();
+                before[i] = e.getValue();
+                after[i++] = ordered.get(e.getKey());
+            }
+            indexed = indexed.withChanges(docs, before, after);
+        }
+        return new ProductCatalog(newVersion, Collections.unmodifiableList(ordered), Collections.unmodifiableMap(index), indexed);
+    }
+
+    // The same products under another version number; shares the indexes built so far
+    ProductCatalog withVersion(long newVersion) {
+        return new ProductCatalog(newVersion, products, byId, searchIndex);
+    }
+
+    public long getVersion() { return version; }
+
+    public List<Product> getProducts() { return products; }
+
+    public Product get(String id) { return id == null ? null : byId.get(id); }
+
+    public int size() { return products.size(); }
+
+    /**
+     * Streams one page of products matching the query to the consumer, in the
+     * query's sort order. Only the page itself is visited, apart from products
+     * skipped by the filters. Returns the cursor for the next page, or null
+     * if this was the last one.
+     */
+    public String scan(ProductQuery query, Consumer<Product> consumer) {
+        ProductSort sort = query.getSort();
+        Comparator<Product> cmp = sort.comparator();
+        Product[] view = sortedBy(sort);
+        Long min = query.getMinPriceCents();
+        Long max = query.getMaxPriceCents();
+
+        int start = query.getAfter() == null ? 0 : firstAfter(view, query.getAfter(), cmp);
+        // Price-ordered views let us jump straight to the start of the price range
+        if (sort == ProductSort.PRICE_ASC && min != null) {
+            start = Math.max(start, firstAfter(view, new Product("", null, null, min, null, null), cmp));
+        } else if (sort == ProductSort.PRICE_DESC && max != null) {
+            start = Math.max(start, firstAfter(view, new Product("", null, null, max, null, null), cmp));
+        }
+
+        int emitted = 0;
+        Product last = null;
+        for (int i = start; i < view.length; i++) {
+            Product p = view[i];
+            if (sort == ProductSort.PRICE_ASC && max != null && p.getPriceCents() > max) break;
+            if (sort == ProductSort.PRICE_DESC && min != null && p.getPriceCents() < min) break;
+            if (!query.matches(p)) continue;
+            if (emitted == query.getLimit()) return ProductQuery.encodeCursor(sort, last);
+            consumer.accept(p);
+            last = p;
+            emitted++;
+        }
+        return null;
+    }
+
+    /**
+     * Products matching every word of the query in their name or description,
+     * best first (name matches rank above description matches), at most limit.
+     */
+    public List<Product> search(String query, int limit) {
+        int[] docs = searchIndex().search(query, limit);
+        List<Product> results = new ArrayList<>(docs.length);
+        for (int doc : docs) results.add(products.get(doc));
+        return results;
+    }
+
+    /**
+     * Completions for the last word of the input, most frequent first, prefixed
+     * with the earlier words: "wireless mo" gives "wireless mouse", ...
+     * At most limit (capped at 10) suggestions.
+     */
+    public List<String> suggest(String input, int limit) {
+        if (input == null || limit < 1) return List.of();
+        String text = input.toLowerCase(Locale.ROOT);
+        int cut = text.length();
+        while (cut > 0 && Character.isLetterOrDigit(text.charAt(cut - 1))) cut--;
+        String prefix = text.substring(cut);
+        if (prefix.isEmpty()) return List.of();
+        String lead = String.join(" ", SearchIndex.tokens(text.substring(0, cut)));
+        List<String> terms = searchIndex().suggest(prefix, Math.min(limit, SearchIndex.MAX_SUGGESTIONS));
+        if (lead.isEmpty()) return terms;
+        List<String> out = new ArrayList<>(terms.size());
+        for (String t : terms) out.add(lead + " " + t);
+        return out;
+    }
+
+    SearchIndex searchIndex() {
+        SearchIndex index = searchIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = searchIndex;
+                if (index == null) searchIndex = index = SearchIndex.build(products);
+            }
+        }
+        return index;
+    }
+
+    Product[] sortedBy(ProductSort sort) {
+        return sortedViews.computeIfAbsent(sort, s -> {
+            Product[] view = products.toArray(new Product[0]);
+            Arrays.sort(view, s.comparator());
+            return view;
+        });
+    }
+
+    // Index of the first element strictly greater than the key
+    private static int firstAfter(Product[] view, Product key, Comparator<Product> cmp) {
+        int lo = 0, hi = view.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cmp.compare(view[mid], key) <= 0) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static Map<String, Integer> positionsOf(List<Product> ordered) {
+        Map<String, Integer> positions = new HashMap<>(capacityFor(ordered.size()));
+        for (int i = 0; i < ordered.size(); i++) positions.put(ordered.get(i).getId(), i);
+        return positions;
+    }
+
+    private static int capacityFor(int expected) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) (expected / 0.75f) + 1);
+    }
+}
@@ -0,0 +1,72 @@
+// PATH: src/main/java/com/verto/shop/service/ProductQuery.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Filter, sort and cursor position for one page of the product listing.
+ * The cursor is an opaque token holding the sort keys of the last product
+ * returned, so the next page can be found by binary search even if the
+ * catalog changed in between.
+ */
+public final class ProductQuery {
+
+    private final ProductSort sort;
+    private final Long minPriceCents;
+    private final Long maxPriceCents;
+    private final String currency;
+    private final Product after;
+    private final int limit;
+
+    public ProductQuery(ProductSort sort, Long minPriceCents, Long maxPriceCents, String currency, String cursor, int limit) {
+        if (limit < 1) throw new IllegalArgumentException("limit must be positive");
+        if (minPriceCents != null && maxPriceCents != null && minPriceCents > maxPriceCents) {
+            throw new IllegalArgumentException("minPriceCents must not exceed maxPriceCents");
+        }
+        this.sort = sort;
+        this.minPriceCents = minPriceCents;
+        this.maxPriceCents = maxPriceCents;
+        this.currency = currency == null || currency.isBlank() ? null : currency;
+        this.after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor, sort);
+        this.limit = limit;
+    }
+
+    public ProductSort getSort() { return sort; }
+    public Long getMinPriceCents() { return minPriceCents; }
+    public Long getMaxPriceCents() { return maxPriceCents; }
+    public String getCurrency() { return currency; }
+    public int getLimit() { return limit; }
+
+    // Key-only product describing the cursor position, or null for the first page
+    Product getAfter() { return after; }
+
+    boolean matches(Product p) {
+        if (minPriceCents != null && p.getPriceCents() < minPriceCents) return false;
+        if (maxPriceCents != null && p.getPriceCents() > maxPriceCents) return false;
+        return currency == null || currency.equalsIgnoreCase(p.getCurrency());
+    }
+
+    static String encodeCursor(ProductSort sort, Product last) {
+        String raw = sort.getParam() + '\n' + last.getPriceCents() + '\n' + last.getId() + '\n' + last.getName();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Product decodeCursor(String cursor, ProductSort sort) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (parts.length != 4) throw new IllegalArgumentException("Malformed cursor");
+        if (!parts[0].equals(sort.getParam())) throw new IllegalArgumentException("Cursor does not match sort order");
+        try {
+            return new Product(parts[2], parts[3], null, Long.parseLong(parts[1]), null, null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+}
@@ -4,42 +4,88 @@ import com.verto.shop.model.Product;
 
 import jakarta.annotation.PostConstruct;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class ProductService {
 
-    // Thread-safe list for demo-only in-memory catalog
-    private final List<Product> products = new CopyOnWriteArrayList<>();
+    // Immutable id-indexed snapshot; updates build a new one and swap it in atomically
+    private final AtomicReference<ProductCatalog> catalog = new AtomicReference<>(ProductCatalog.empty());
 
     // Optional base URL .  
     @Value("${app.base-url:}")
     private String baseUrl;
 
+    // Pre-sized image renditions; null outside Spring, where the original paths are used
+    private final ImageVariants imageVariants;
+
+    public ProductService() {
+        this(null);
+    }
+
+    @Autowired
+    public ProductService(ImageVariants imageVariants) {
+        this.imageVariants = imageVariants;
+    }
+
 @PostConstruct
     private void initCatalog() {
         // Use relative paths that are served from src/main/resources/static/images
-        products.add(new Product("p_001", "Wireless Mouse", "Compact wireless mouse", 5000, buildImageUrl("/images/mouse.jpg"), "INR"));
-        products.add(new Product("p_002", "Mechanical Keyboard", "Tactile mechanical keyboard", 9000, buildImageUrl("/images/keyboard.jpg"), "INR"));
-        products.add(new Product("p_003", "USB-C Hub", "5-in-1 hub", 8000, buildImageUrl("/images/hub.jpg"), "INR"));
-        products.add(new Product("p_004", "Headphones", "Noise cancelling headphones", 8999, buildImageUrl("/images/headphones.jpg"), "INR"));
-        products.add(new Product("p_005", "Laptop Stand", "Aluminum stand", 9500, buildImageUrl("/images/stand.jpg"), "INR"));
+        // This sample catalog stays in place unless CatalogImporter loads app.catalog.file
+        replaceAll(List.of(
+                withImages(new Product("p_001", "Wireless Mouse", "Compact wireless mouse", 5000, "/images/mouse.jpg", "INR")),
+                withImages(new Product("p_002", "Mechanical Keyboard", "Tactile mechanical keyboard", 9000, "/images/keyboard.jpg", "INR")),
+                withImages(new Product("p_003", "USB-C Hub", "5-in-1 hub", 8000, "/images/hub.jpg", "INR")),
+                withImages(new Product("p_004", "Headphones", "Noise cancelling headphones", 8999, "/images/headphones.jpg", "INR")),
+                withImages(new Product("p_005", "Laptop Stand", "Aluminum stand", 9500, "/images/stand.jpg", "INR"))));
+    }
+
+    // For images under /images/: imageUrl gets the medium rendition, thumbnailUrl the thumbnail.
+    // Absolute URLs and products that already have a thumbnail are left alone.
+    Product withImages(Product product) {
+        String path = product.getImageUrl();
+        if (path == null || !path.startsWith("/images/") || product.getThumbnailUrl() != null) return product;
+        product.setImageUrl(buildImageUrl(path, ImageVariant.MEDIUM));
+        product.setThumbnailUrl(buildImageUrl(path, ImageVariant.THUMBNAIL));
+        return product;
     }
 
-     private String buildImageUrl(String path) {
-        if (baseUrl == null || baseUrl.isBlank()) return path;
+     private String buildImageUrl(String path, ImageVariant variant) {
+        String url = imageVariants == null ? path : imageVariants.url(path, variant);
+        if (baseUrl == null || baseUrl.isBlank()) return url;
         String trimmed = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
-        return trimmed + path;
+        return trimmed + url;
     }
 
-    public List<Product> getAll() { return products; }
+    // Current snapshot; callers that read several things should grab it once
+    public ProductCatalog getCatalog() { return catalog.get(); }
+
+    public List<Product> getAll() { return catalog.get().getProducts(); }
 
     public Optional<Product> findById(String id) {
-        return products.stream().filter(p -> p.getId().equals(id)).findFirst();
+        return Optional.ofNullable(catalog.get().get(id));
+    }
+
+    // Replaces the whole catalog with the given products
+    public void replaceAll(Collection<Product> products) {
+        publish(ProductCatalog.of(0, products));
+    }
+
+    // Swaps in a snapshot built by the caller (outside the swap, so a large build is never retried)
+    // under the next version number
+    public void publish(ProductCatalog built) {
+        catalog.updateAndGet(current -> built.withVersion(current.getVersion() + 1));
+    }
+
+    // Adds new products or replaces existing ones with the same id
+    public void upsert(Collection<Product> products) {
+        catalog.updateAndGet(current -> current.withUpserts(current.getVersion() + 1, products));
     }
 }
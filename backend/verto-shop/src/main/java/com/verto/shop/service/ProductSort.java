@@ -0,0 +1,40 @@
+// PATH: src/main/java/com/verto/shop/service/ProductSort.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Product;
+
+import java.util.Comparator;
+
+/**
+ * Sort orders supported by the paginated product listing.
+ * Every order ends with the product id as a tie-breaker so it is total,
+ * which is what makes keyset (cursor) pagination stable.
+ */
+public enum ProductSort {
+    ID("id", Comparator.comparing(Product::getId)),
+    PRICE_ASC("price", Comparator.comparingLong(Product::getPriceCents).thenComparing(Product::getId)),
+    PRICE_DESC("-price", Comparator.comparingLong(Product::getPriceCents).reversed().thenComparing(Product::getId)),
+    NAME_ASC("name", Comparator.comparing(Product::getName).thenComparing(Product::getId)),
+    NAME_DESC("-name", Comparator.comparing(Product::getName).reversed().thenComparing(Product::getId));
+
+    private final String param;
+    private final Comparator<Product> comparator;
+
+    ProductSort(String param, Comparator<Product> comparator) {
+        this.param = param;
+        this.comparator = comparator;
+    }
+
+    public String getParam() { return param; }
+
+    public Comparator<Product> comparator() { return comparator; }
+
+    // Parses the ?sort= request value, e.g. "price" or "-name"
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.isBlank()) return ID;
+        for (ProductSort s : values()) {
+            if (s.param.equals(value)) return s;
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + value);
+    }
+}
@@ -0,0 +1,95 @@
+// PATH: src/main/java/com/verto/shop/service/RateLimiter.java
+package com.verto.shop.service;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets: each client gets ratePerSecond requests per second
+ * with bursts of up to burst requests.
+ *
+ * A bucket is a single AtomicLong holding the time at which it will be full
+ * again (the generic cell rate algorithm). Taking a token is one CAS that moves
+ * that time forward by one token interval. A request is refused when the time
+ * is more than a full burst ahead of now. No lock is taken and no refill thread
+ * is needed.
+ *
+ * The client map is bounded by maxClients. Once it is full, buckets that have
+ * refilled completely are dropped. This is lossless, because a full bucket
+ * behaves exactly like a new one. If every tracked client is still active, new
+ * clients share one overflow bucket until space frees up, so a flood of
+ * distinct keys cannot grow memory.
+ */
+public class RateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = 100_000_000L;
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow;
+    private final AtomicLong nextSweep;
+
+    public RateLimiter(double ratePerSecond, int burst, int maxClients) {
+        this(ratePerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    RateLimiter(double ratePerSecond, int burst, int maxClients, LongSupplier nanoClock) {
+        if (ratePerSecond <= 0) throw new IllegalArgumentException("ratePerSecond must be positive");
+        if (burst < 1) throw new IllegalArgumentException("burst must be at least 1");
+        if (maxClients < 1) throw new IllegalArgumentException("maxClients must be positive");
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+        long now = nanoClock.getAsLong();
+        this.overflow = new AtomicLong(now);
+        this.nextSweep = new AtomicLong(now);
+    }
+
+    /**
+     * Takes one token from the client's bucket.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String client) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = bucket(client, now);
+        while (true) {
+            long full = bucket.get();
+            long next = Math.max(full, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) return wait;
+            if (bucket.compareAndSet(full, next)) return 0;
+        }
+    }
+
+    /** Number of clients with their own bucket. */
+    public int trackedClients() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucket(String client, long now) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket != null) return bucket;
+        if (buckets.size() >= maxClients && !sweep(now)) return overflow;
+        return buckets.computeIfAbsent(client, k -> new AtomicLong(now));
+    }
+
+    // Drops refilled buckets; at most once per SWEEP_INTERVAL_NANOS so a full map of active clients stays cheap
+    private boolean sweep(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            return buckets.size() < maxClients;
+        }
+        for (Iterator<AtomicLong> it = buckets.values().iterator(); it.hasNext(); ) {
+            if (it.next().get() - now <= 0) it.remove();
+        }
+        return buckets.size() < maxClients;
+    }
+}
@@ -0,0 +1,444 @@
+// PATH: src/main/java/com/verto/shop/service/SearchIndex.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Full-text index over product names and descriptions, used for search and
+ * autocomplete.
+ *
+ * Terms are lowercased alphanumeric tokens. They live in an immutable trie. A
+ * term's node holds its postings: two sorted arrays of document numbers, where
+ * a document number is the product's position in the catalog. One array lists
+ * products that have the term in their name. The other lists products that have
+ * it only in their description.
+ *
+ * Every node whose subtree holds more than MAX_SUGGESTIONS terms also caches its
+ * most frequent completions, so autocomplete costs one walk down the prefix.
+ *
+ * Updates copy only the path to each changed term, so a catalog change costs
+ * time in proportion to the terms it touches. Older snapshots keep their index.
+ */
+final class SearchIndex {
+
+    static final int NAME_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+    // Completions cached per node, and the most autocomplete returns
+    static final int MAX_SUGGESTIONS = 10;
+    // Longer tokens (hashes, junk) are not indexed
+    static final int MAX_TOKEN_LENGTH = 64;
+
+    private static final int[] NO_DOCS = new int[0];
+    private static final Node EMPTY_ROOT = new Node(new char[0], new Node[0], null, null, null);
+    private static final Comparator<Candidate> BY_FREQUENCY =
+            Comparator.comparingInt((Candidate c) -> c.df).reversed().thenComparing(c -> c.term);
+
+    private final Node root;
+
+    private SearchIndex(Node root) {
+        this.root = root;
+    }
+
+    /** Indexes the products; document numbers are list positions. */
+    static SearchIndex build(List<Product> products) {
+        Map<String, IntList[]> postings = new HashMap<>();
+        List<String> name = new ArrayList<>(), desc = new ArrayList<>();
+        for (int doc = 0; doc < products.size(); doc++) {
+            Product p = products.get(doc);
+            name.clear();
+            desc.clear();
+            addTokens(p.getName(), name, null);
+            addTokens(p.getDescription(), desc, name);
+            for (String t : name) postingsOf(postings, t)[0].add(doc);
+            for (String t : desc) postingsOf(postings, t)[1].add(doc);
+        }
+        String[] terms = postings.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        Node root = terms.length == 0 ? EMPTY_ROOT : buildNode(terms, 0, terms.length, 0, postings);
+        return new SearchIndex(root);
+    }
+
+    private static IntList[] postingsOf(Map<String, IntList[]> postings, String term) {
+        IntList[] p = postings.get(term);
+        if (p == null) postings.put(term, p = new IntList[] {new IntList(), new IntList()});
+        return p;
+    }
+
+    /**
+     * Returns a new index where each document docs[i] changes from before[i]
+     * (null for a new document) to after[i].
+     */
+    SearchIndex withChanges(int[] docs, Product[] before, Product[] after) {
+        Map<String, Delta> deltas = new HashMap<>();
+        for (int i = 0; i < docs.length; i++) {
+            Set<String> oldName = tokens(before[i] == null ? null : before[i].getName());
+            Set<String> oldDesc = tokens(before[i] == null ? null : before[i].getDescription());
+            Set<String> newName = tokens(after[i].getName());
+            Set<String> newDesc = tokens(after[i].getDescription());
+            oldDesc.removeAll(oldName);
+            newDesc.removeAll(newName);
+            int doc = docs[i];
+            for (String t : oldName) if (!newName.contains(t)) delta(deltas, t).removeName.add(doc);
+            for (String t : oldDesc) if (!newDesc.contains(t)) delta(deltas, t).removeDesc.add(doc);
+            for (String t : newName) if (!oldName.contains(t)) delta(deltas, t).addName.add(doc);
+            for (String t : newDesc) if (!oldDesc.contains(t)) delta(deltas, t).addDesc.add(doc);
+        }
+
+        Node updated = root;
+        for (Map.Entry<String, Delta> e : deltas.entrySet()) {
+            Node current = find(updated, e.getKey());
+            boolean indexed = current != null && current.term != null;
+            Delta d = e.getValue();
+            int[] name = merge(indexed ? current.name : NO_DOCS, d.removeName, d.addName);
+            int[] desc = merge(indexed ? current.desc : NO_DOCS, d.removeDesc, d.addDesc);
+            updated = put(updated, e.getKey(), 0, name, desc);
+            if (updated == null) updated = EMPTY_ROOT;
+        }
+        return new SearchIndex(updated);
+    }
+
+    /**
+     * Document numbers of the best matches for the query, best first. Every query
+     * term must occur in the name or description. A name match scores NAME_WEIGHT
+     * and a description match DESCRIPTION_WEIGHT; ties go to the lower document.
+     *
+     * The rarest term drives the scan. Its name postings come first, since only
+     * they can reach the top score. The scan stops as soon as no remaining
+     * document could enter the top results. The other terms are checked by
+     * galloping forward through their postings.
+     */
+    int[] search(String query, int limit) {
+        Set<String> tokens = tokens(query);
+        if (tokens.isEmpty() || limit <= 0) return NO_DOCS;
+        Node[] terms = new Node[tokens.size()];
+        int n = 0;
+        for (String t : tokens) {
+            Node node = find(root, t);
+            if (node == null || node.term == null) return NO_DOCS; // every term must match
+            terms[n++] = node;
+        }
+        Arrays.sort(terms, Comparator.comparingInt(Node::df));
+
+        TopDocs top = new TopDocs(limit);
+        if (scan(terms[0].name, NAME_WEIGHT, terms, top)) scan(terms[0].desc, DESCRIPTION_WEIGHT, terms, top);
+        return top.docs();
+    }
+
+    // Scores the driver's postings; false once the top results can no longer change
+    private static boolean scan(int[] docs, int driverWeight, Node[] terms, TopDocs top) {
+        // Best score any document here could reach: terms never seen in a name can only add DESCRIPTION_WEIGHT
+        int bound = driverWeight;
+        for (int t = 1; t < terms.length; t++) bound += terms[t].name.length > 0 ? NAME_WEIGHT : DESCRIPTION_WEIGHT;
+        int[] nameAt = new int[terms.length];
+        int[] descAt = new int[terms.length];
+        for (int doc : docs) {
+            if (!top.couldAdmit(bound, doc)) return false;
+            int score = driverWeight;
+            for (int t = 1; t < terms.length && score > 0; t++) {
+                Node term = terms[t];
+                int i = nameAt[t] = advance(term.name, nameAt[t], doc);
+                if (i < term.name.length && term.name[i] == doc) {
+                    score += NAME_WEIGHT;
+                    continue;
+                }
+                int j = descAt[t] = advance(term.desc, descAt[t], doc);
+                if (j < term.desc.length && term.desc[j] == doc) {
+                    score += DESCRIPTION_WEIGHT;
+                    continue;
+                }
+                score = 0;
+            }
+            if (score > 0) top.offer(doc, score);
+        }
+        return true;
+    }
+
+    /** Up to limit (at most MAX_SUGGESTIONS) indexed terms starting with prefix, most frequent first. */
+    List<String> suggest(String prefix, int limit) {
+        Node node = find(root, prefix);
+        if (node == null || limit <= 0) return List.of();
+        List<String> out = new ArrayList<>(Math.min(limit, MAX_SUGGESTIONS));
+        for (Candidate c : completions(node)) {
+            if (out.size() == limit) break;
+            out.add(c.term);
+        }
+        return out;
+    }
+
+    // ---- tokenization -----------------------------------------------------------
+
+    /** Distinct lowercase runs of letters and digits, in order of appearance. */
+    static Set<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        addTokens(text, tokens, null);
+        return new LinkedHashSet<>(tokens);
+    }
+
+    // Appends the tokens of text not already in out (or in exclude); product texts are short, so lists beat sets
+    private static void addTokens(String text, List<String> out, List<String> exclude) {
+        if (text == null) return;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) start = i;
+            if (!word && start >= 0) {
+                if (i - start <= MAX_TOKEN_LENGTH) {
+                    String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+                    if (!out.contains(token) && (exclude == null || !exclude.contains(token))) out.add(token);
+                }
+                start = -1;
+            }
+        }
+    }
+
+    // ---- trie ---------------------------------------------------------------------
+
+    private static final class Node {
+        final char[] labels;    // sorted
+        final Node[] children;  // parallel to labels
+        final String term;      // set when a term ends here
+        final int[] name;       // postings of term: docs with it in the name
+        final int[] desc;       // ... and docs with it only in the description
+        final int termCount;    // terms in this subtree
+        final Candidate[] top;  // best completions, when termCount > MAX_SUGGESTIONS
+
+        Node(char[] labels, Node[] children, String term, int[] name, int[] desc) {
+            this.labels = labels;
+            this.children = children;
+            this.term = term;
+            this.name = name;
+            this.desc = desc;
+            int count = term == null ? 0 : 1;
+            for (Node c : children) count += c.termCount;
+            this.termCount = count;
+            this.top = count > MAX_SUGGESTIONS ? bestCompletions(this) : null;
+        }
+
+        int df() {
+            return term == null ? 0 : name.length + desc.length;
+        }
+    }
+
+    private static final class Candidate {
+        final String term;
+        final int df;
+
+        Candidate(String term, int df) {
+            this.term = term;
+            this.df = df;
+        }
+    }
+
+    private static Node find(Node node, String key) {
+        for (int i = 0; i < key.length() && node != null; i++) {
+            int at = Arrays.binarySearch(node.labels, key.charAt(i));
+            node = at < 0 ? null : node.children[at];
+        }
+        return node;
+    }
+
+    // Builds the subtree for terms[from, to), which all share their first depth chars
+    private static Node buildNode(String[] terms, int from, int to, int depth, Map<String, IntList[]> postings) {
+        String term = null;
+        int[] name = null, desc = null;
+        if (terms[from].length() == depth) {
+            term = terms[from];
+            IntList[] p = postings.get(term);
+            name = p[0].toArray();
+            desc = p[1].toArray();
+            from++;
+        }
+        List<Character> labels = new ArrayList<>();
+        List<Node> children = new ArrayList<>();
+        while (from < to) {
+            char c = terms[from].charAt(depth);
+            int end = from + 1;
+            while (end < to && terms[end].charAt(depth) == c) end++;
+            labels.add(c);
+            children.add(buildNode(terms, from, end, depth + 1, postings));
+            from = end;
+        }
+        char[] chars = new char[labels.size()];
+        for (int i = 0; i < chars.length; i++) chars[i] = labels.get(i);
+        return new Node(chars, children.toArray(new Node[0]), term, name, desc);
+    }
+
+    // Copy of node with the term's postings replaced; empty postings remove the term. Null if nothing is left.
+    private static Node put(Node node, String term, int depth, int[] name, int[] desc) {
+        if (node == null) node = EMPTY_ROOT;
+        boolean remove = name.length + desc.length == 0;
+        Node result;
+        if (depth == term.length()) {
+            result = new Node(node.labels, node.children, remove ? null : term, remove ? null : name, remove ? null : desc);
+        } else {
+            char c = term.charAt(depth);
+            int at = Arrays.binarySearch(node.labels, c);
+            Node child = put(at >= 0 ? node.children[at] : null, term, depth + 1, name, desc);
+            char[] labels;
+            Node[] children;
+            if (at >= 0 && child != null) {
+                labels = node.labels;
+                children = node.children.clone();
+                children[at] = child;
+            } else if (at >= 0) {
+                labels = new char[node.labels.length - 1];
+                children = new Node[labels.length];
+                System.arraycopy(node.labels, 0, labels, 0, at);
+                System.arraycopy(node.labels, at + 1, labels, at, labels.length - at);
+                System.arraycopy(node.children, 0, children, 0, at);
+                System.arraycopy(node.children, at + 1, children, at, children.length - at);
+            } else if (child != null) {
+                int ins = -at - 1;
+                labels = new char[node.labels.length + 1];
+                children = new Node[labels.length];
+                System.arraycopy(node.labels, 0, labels, 0, ins);
+                System.arraycopy(node.labels, ins, labels, ins + 1, node.labels.length - ins);
+                System.arraycopy(node.children, 0, children, 0, ins);
+                System.arraycopy(node.children, ins, children, ins + 1, node.children.length - ins);
+                labels[ins] = c;
+                children[ins] = child;
+            } else {
+                return node.termCount == 0 ? null : node; // removing a term that is not there
+            }
+            result = new Node(labels, children, node.term, node.name, node.desc);
+        }
+        return result.termCount == 0 ? null : result;
+    }
+
+    // All completions of a node, best first: the cached ones, or the whole (small) subtree
+    private static Candidate[] completions(Node node) {
+        if (node.top != null) return node.top;
+        List<Candidate> all = new ArrayList<>(node.termCount);
+        collect(node, all);
+        all.sort(BY_FREQUENCY);
+        return all.toArray(new Candidate[0]);
+    }
+
+    private static void collect(Node node, List<Candidate> out) {
+        if (node.term != null) out.add(new Candidate(node.term, node.df()));
+        for (Node c : node.children) collect(c, out);
+    }
+
+    private static Candidate[] bestCompletions(Node node) {
+        List<Candidate> candidates = new ArrayList<>();
+        if (node.term != null) candidates.add(new Candidate(node.term, node.df()));
+        for (Node c : node.children) candidates.addAll(Arrays.asList(completions(c)));
+        candidates.sort(BY_FREQUENCY);
+        return candidates.subList(0, Math.min(MAX_SUGGESTIONS, candidates.size())).toArray(new Candidate[0]);
+    }
+
+    // ---- postings helpers ---------------------------------------------------------
+
+    // Index of the first element >= target at or after from, by exponential then binary search
+    static int advance(int[] docs, int from, int target) {
+        if (from >= docs.length || docs[from] >= target) return from;
+        int lo = from, step = 1;
+        int hi = from + step;
+        while (hi < docs.length && docs[hi] < target) {
+            lo = hi;
+            step <<= 1;
+            hi = from + step;
+        }
+        hi = Math.min(hi, docs.length);
+        // docs[lo] < target <= docs[hi] (or hi == length)
+        while (lo + 1 < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (docs[mid] < target) lo = mid; else hi = mid;
+        }
+        return hi;
+    }
+
+    // (postings - remove) + add, sorted and distinct
+    private static int[] merge(int[] postings, IntList remove, IntList add) {
+        int[] rm = remove.toSortedArray();
+        int[] ad = add.toSortedArray();
+        int[] out = new int[postings.length + ad.length];
+        int n = 0, i = 0, r = 0, a = 0;
+        while (i < postings.length || a < ad.length) {
+            int next;
+            if (a >= ad.length || (i < postings.length && postings[i] <= ad[a])) {
+                next = postings[i++];
+                while (r < rm.length && rm[r] < next) r++;
+                if (r < rm.length && rm[r] == next) continue;
+            } else {
+                next = ad[a++];
+            }
+            if (n == 0 || out[n - 1] != next) out[n++] = next;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static Delta delta(Map<String, Delta> deltas, String term) {
+        return deltas.computeIfAbsent(term, t -> new Delta());
+    }
+
+    private static final class Delta {
+        final IntList addName = new IntList(), removeName = new IntList();
+        final IntList addDesc = new IntList(), removeDesc = new IntList();
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        int[] toSortedArray() {
+            int[] a = toArray();
+            Arrays.sort(a);
+            return a;
+        }
+    }
+
+    // Best `limit` (doc, score) pairs by score, then lower doc; kept sorted, best first
+    private static final class TopDocs {
+        private final int[] docs;
+        private final int[] scores;
+        private int size;
+
+        TopDocs(int limit) {
+            docs = new int[limit];
+            scores = new int[limit];
+        }
+
+        // Whether a document >= doc scoring at most bound could still make the cut
+        boolean couldAdmit(int bound, int doc) {
+            if (size < docs.length) return true;
+            int worst = size - 1;
+            return bound > scores[worst] || (bound == scores[worst] && doc < docs[worst]);
+        }
+
+        void offer(int doc, int score) {
+            int pos = size;
+            while (pos > 0 && (scores[pos - 1] < score || (scores[pos - 1] == score && docs[pos - 1] > doc))) pos--;
+            if (pos == docs.length) return;
+            int move = Math.min(size, docs.length - 1) - pos;
+            System.arraycopy(docs, pos, docs, pos + 1, move);
+            System.arraycopy(scores, pos, scores, pos + 1, move);
+            docs[pos] = doc;
+            scores[pos] = score;
+            if (size < docs.length) size++;
+        }
+
+        int[] docs() {
+            return Arrays.copyOf(docs, size);
+        }
+    }
+}
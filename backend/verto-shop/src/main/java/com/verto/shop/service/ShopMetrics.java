@@ -0,0 +1,116 @@
+// PATH: src/main/java/com/verto/shop/service/ShopMetrics.java
+package com.verto.shop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Business metrics recorded on the checkout hot path.
+ *
+ * All meters are registered up front, so recording is a counter increment or a
+ * histogram update with no allocation per request. Per-SKU checkout counts are
+ * kept outside Micrometer, in one pair of LongAdders per SKU (striped, so hot
+ * SKUs do not serialize threads), because a meter per SKU would explode the
+ * number of time series; they are served by the /actuator/skus endpoint.
+ * HTTP latency timers for /api/products and /api/checkout come from Spring's
+ * http.server.requests instrumentation, configured in application.properties.
+ */
+@Component
+public class ShopMetrics {
+
+    /** Checkout counts of one SKU. */
+    public static final class SkuStats {
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder units = new LongAdder();
+
+        public long getOrders() { return orders.sum(); }
+        public long getUnits() { return units.sum(); }
+    }
+
+    private final boolean enabled;
+    private final Timer lookupTimer;
+    private final DistributionSummary cartLines;
+    private final Counter[] rejections;
+    private final ConcurrentHashMap<String, SkuStats> skus = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ShopMetrics(ObjectProvider<MeterRegistry> registry, @Value("${app.metrics.enabled:true}") boolean enabled) {
+        this(registry.getIfAvailable(CompositeMeterRegistry::new), enabled);
+    }
+
+    public ShopMetrics(MeterRegistry registry, boolean enabled) {
+        this.enabled = enabled;
+        this.lookupTimer = Timer.builder("shop.product.lookup")
+                .description("Catalog lookups for the lines of one order")
+                .register(registry);
+        this.cartLines = DistributionSummary.builder("shop.checkout.cart.lines")
+                .description("Distinct lines per checked-out cart")
+                .baseUnit("lines")
+                .publishPercentileHistogram()
+                .register(registry);
+        CheckoutResult.Status[] statuses = CheckoutResult.Status.values();
+        this.rejections = new Counter[statuses.length];
+        for (CheckoutResult.Status s : statuses) {
+            if (s == CheckoutResult.Status.OK) continue;
+            rejections[s.ordinal()] = Counter.builder("shop.checkout.rejections")
+                    .description("Checkouts rejected, by reason")
+                    .tag("reason", s.name().toLowerCase())
+                    .register(registry);
+        }
+    }
+
+    /** Metrics that record nothing, for code constructed outside Spring. */
+    public static ShopMetrics noop() {
+        return new ShopMetrics(new CompositeMeterRegistry(), false);
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    public void productLookup(long nanos) {
+        if (enabled) lookupTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rejected(CheckoutResult.Status status) {
+        if (enabled) rejections[status.ordinal()].increment();
+    }
+
+    /** Records a successful checkout of the first n merged lines. */
+    public void checkedOut(String[] productIds, int[] quantities, int n) {
+        if (!enabled) return;
+        cartLines.record(n);
+        for (int i = 0; i < n; i++) {
+            SkuStats stats = skus.get(productIds[i]);
+            if (stats == null) stats = skus.computeIfAbsent(productIds[i], id -> new SkuStats());
+            stats.orders.increment();
+            stats.units.add(quantities[i]);
+        }
+    }
+
+    public SkuStats sku(String productId) {
+        return skus.get(productId);
+    }
+
+    /** The SKUs with the most units checked out, most first; none for a limit below one. */
+    public List<Map.Entry<String, SkuStats>> topSkus(int limit) {
+        if (limit < 1) return List.of();
+        List<Map.Entry<String, SkuStats>> all = new ArrayList<>(skus.entrySet());
+        all.sort(Comparator.comparingLong((Map.Entry<String, SkuStats> e) -> e.getValue().getUnits()).reversed());
+        return all.size() > limit ? all.subList(0, limit) : all;
+    }
+}
@@ -0,0 +1,149 @@
+// PATH: src/main/java/com/verto/shop/service/SnowflakeOrderIdGenerator.java
+package com.verto.shop.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free, time-ordered 64-bit order ids (Snowflake layout):
+ * 41 bits of milliseconds since 2025-01-01 UTC, 10 bits of node id, 12 bits of sequence.
+ *
+ * The last issued timestamp and sequence are packed into one AtomicLong and
+ * advanced by CAS. When the clock has not moved, or has moved backwards, the
+ * generator keeps counting from the last value instead of reusing it; a full
+ * sequence simply rolls into the next millisecond. Ids therefore never repeat
+ * on a node and always increase, and distinct node ids keep nodes apart.
+ *
+ * Counting ahead of the clock means the last id can lie in the future. So that
+ * a restart does not issue such ids again, the generator starts after the
+ * highest id in the OrderStore, which is rebuilt from the journal first. Each
+ * instance must be given its own app.order-id.node-id. Without one, a single
+ * instance runs as node 0 and logs a warning.
+ *
+ * Ids are rendered as 13 fixed-width Crockford base32 characters, so the
+ * strings sort in the same order as the numbers, i.e. by creation time.
+ */
+@Component
+public class SnowflakeOrderIdGenerator implements OrderIdGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SnowflakeOrderIdGenerator.class);
+
+    public static final long EPOCH_MILLIS = 1735689600000L; // 2025-01-01T00:00:00Z
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    static final int ID_LENGTH = 13;
+    private static final int[] DIGITS = new int[128];
+
+    static {
+        Arrays.fill(DIGITS, -1);
+        for (int i = 0; i < CROCKFORD.length; i++) DIGITS[CROCKFORD[i]] = i;
+    }
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last id issued
+    private final AtomicLong last = new AtomicLong();
+
+    @Autowired
+    public SnowflakeOrderIdGenerator(@Value("${app.order-id.node-id:-1}") int nodeId, OrderStore orderStore) {
+        this(nodeIdOrDefault(nodeId), System::currentTimeMillis);
+        String highest = orderStore.getHighestOrderId();
+        if (highest != null && advancePast(highest)) log.info("Order ids continue after {}", highest);
+    }
+
+    /** A generator that starts from the clock, for a node with no earlier ids. */
+    public SnowflakeOrderIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeOrderIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    @Override
+    public String nextId() {
+        return format(nextLong());
+    }
+
+    /** Next id as a positive long. */
+    public long nextLong() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long prev, next;
+        do {
+            prev = last.get();
+            // Clock moved forward: restart the sequence; otherwise keep counting past the last id
+            next = now > prev ? now : prev + 1;
+        } while (!last.compareAndSet(prev, next));
+        long millis = next >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * Makes every later id sort after the given one, e.g. an id recovered from
+     * the journal. Returns false, changing nothing, if it is not in this format.
+     */
+    public boolean advancePast(String orderId) {
+        long id = parse(orderId);
+        if (id < 0) return false;
+        long issued = ((id >>> (NODE_BITS + SEQUENCE_BITS)) << SEQUENCE_BITS) | (id & SEQUENCE_MASK);
+        last.accumulateAndGet(issued, Math::max);
+        return true;
+    }
+
+    /** Fixed-width base32 rendering that preserves numeric order. */
+    public static String format(long id) {
+        char[] chars = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /** Milliseconds since the Unix epoch encoded in an id. */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    /** Node id encoded in an id. */
+    public static int nodeOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    /** The id rendered by format, or -1 if the string is not one. */
+    public static long parse(String orderId) {
+        if (orderId.length() != ID_LENGTH) return -1;
+        long id = 0;
+        for (int i = 0; i < ID_LENGTH; i++) {
+            char c = orderId.charAt(i);
+            int digit = c < DIGITS.length ? DIGITS[c] : -1;
+            // The first character holds the top 5 bits of 65; ids are positive longs
+            if (digit < 0 || (i == 0 && digit > 7)) return -1;
+            id = (id << 5) | digit;
+        }
+        return id;
+    }
+
+    // Node 0 keeps a single instance working unconfigured. A derived node id (say, a hash of host
+    // and pid) could silently collide with another node's, so there is no guessing beyond that.
+    private static int nodeIdOrDefault(int nodeId) {
+        if (nodeId >= 0) return nodeId;
+        log.warn("app.order-id.node-id is not set; using node 0. Every instance of a multi-node deployment must set "
+                + "its own node id (0-{}), or their order ids can collide", MAX_NODE_ID);
+        return 0;
+    }
+}
@@ -0,0 +1,150 @@
+// PATH: src/test/java/com/verto/shop/AdmissionLoadTest.java
+package com.verto.shop;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test of admission control: floods POST /api/checkout (each checkout
+ * blocks in a simulated journal fsync) from many clients while a few readers
+ * measure GET /api/products latency, once with the limits on and once off.
+ * With the limits, surplus checkouts are shed with 429/503 and catalog reads
+ * keep their p99; without them, reads queue behind checkouts for servlet threads.
+ * Run with: mvn test -Pload-test
+ */
+@Tag("load")
+public class AdmissionLoadTest {
+
+    private static final int SERVLET_THREADS = 40;
+    private static final int CHECKOUT_CLIENTS = 200;
+    private static final int READERS = 4;
+    private static final int READS_PER_READER = 200;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void catalogReads_shouldKeepTheirP99WhileCheckoutIsOverloaded() throws Exception {
+        Result limited = run(true);
+        Result unlimited = run(false);
+        System.out.printf("Admission control load test (%d checkout clients, %d servlet threads)%n", CHECKOUT_CLIENTS, SERVLET_THREADS);
+        print("limits on ", limited);
+        print("limits off", unlimited);
+
+        assertTrue(limited.shed > 0, "Overloaded checkout should be shed");
+        assertEquals(0, unlimited.shed);
+        assertTrue(limited.readP99UnderLoad <= Math.max(5 * limited.readP99Idle, limited.readP99Idle + 50),
+                "Catalog p99 under checkout overload should stay close to idle");
+        assertTrue(limited.readP99UnderLoad < unlimited.readP99UnderLoad);
+    }
+
+    private static void print(String label, Result r) {
+        System.out.printf("  %s: products p99 idle %4d ms, under load %4d ms; checkout %s%n",
+                label, r.readP99Idle, r.readP99UnderLoad, r.statuses);
+    }
+
+    private static final class Result {
+        long readP99Idle;
+        long readP99UnderLoad;
+        int shed;
+        final ConcurrentHashMap<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+    }
+
+    private Result run(boolean limits) throws Exception {
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(VertoShopApplication.class,
+                ExecutionModeLoadTest.BlockingJournalConfig.class)
+                .run("--server.port=0",
+                        "--spring.main.allow-bean-definition-overriding=true",
+                        "--server.tomcat.threads.max=" + SERVLET_THREADS,
+                        // Clients identify themselves with X-Forwarded-For from loopback
+                        "--server.forward-headers-strategy=native",
+                        "--app.inventory.default-stock=100000000",
+                        "--app.admission.checkout.rate-per-second=" + (limits ? 2 : 0),
+                        "--app.admission.checkout.burst=2",
+                        "--app.admission.checkout.max-concurrent=" + (limits ? 8 : 0),
+                        "--app.images.cache-dir=" + dir.resolve("images"),
+                        "--logging.level.com.verto.shop=WARN")) {
+            int port = Integer.parseInt(ctx.getEnvironment().getProperty("local.server.port"));
+            return drive("http://localhost:" + port);
+        }
+    }
+
+    private Result drive(String base) throws Exception {
+        String body = "{\"items\":[{\"productId\":\"p_001\",\"quantity\":1}],\"user\":{\"name\":\"Load\",\"email\":\"load@example.com\"}}";
+        HttpRequest read = HttpRequest.newBuilder(URI.create(base + "/api/products?limit=5")).GET().build();
+        Result result = new Result();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build();
+            for (int i = 0; i < 200; i++) http.send(read, HttpResponse.BodyHandlers.discarding()); // warm-up
+            result.readP99Idle = readP99(http, read, clients);
+
+            AtomicInteger running = new AtomicInteger(1);
+            List<Future<?>> flood = new ArrayList<>();
+            for (int c = 0; c < CHECKOUT_CLIENTS; c++) {
+                HttpRequest checkout = HttpRequest.newBuilder(URI.create(base + "/api/checkout"))
+                        .header("Content-Type", "application/json")
+                        .header("X-Forwarded-For", "10.0." + (c / 250) + "." + (c % 250 + 1))
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+                flood.add(clients.submit(() -> {
+                    while (running.get() == 1) {
+                        HttpResponse<Void> response = http.send(checkout, HttpResponse.BodyHandlers.discarding());
+                        result.statuses.computeIfAbsent(response.statusCode(), s -> new AtomicInteger()).incrementAndGet();
+                        // Well-behaved clients wait as long as Retry-After says
+                        long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(0);
+                        if (retryAfter > 0) Thread.sleep(retryAfter * 1000);
+                    }
+                    return null;
+                }));
+            }
+            Thread.sleep(1000); // let the flood saturate the server
+            result.readP99UnderLoad = readP99(http, read, clients);
+            running.set(0);
+            for (Future<?> f : flood) f.get();
+        }
+        result.statuses.forEach((status, n) -> {
+            if (status == 429 || status == 503) result.shed += n.get();
+        });
+        return result;
+    }
+
+    private static long readP99(HttpClient http, HttpRequest read, ExecutorService clients) throws Exception {
+        long[] latencies = new long[READERS * READS_PER_READER];
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            int offset = r * READS_PER_READER;
+            readers.add(clients.submit(() -> {
+                for (int i = 0; i < READS_PER_READER; i++) {
+                    long t0 = System.nanoTime();
+                    HttpResponse<Void> response = http.send(read, HttpResponse.BodyHandlers.discarding());
+                    latencies[offset + i] = System.nanoTime() - t0;
+                    assertEquals(200, response.statusCode());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : readers) f.get();
+        Arrays.sort(latencies);
+        return latencies[(int) (latencies.length * 0.99) - 1] / 1_000_000;
+    }
+}
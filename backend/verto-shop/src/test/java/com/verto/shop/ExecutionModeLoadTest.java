@@ -0,0 +1,142 @@
+// PATH: src/test/java/com/verto/shop/ExecutionModeLoadTest.java
+package com.verto.shop;
+
+import com.verto.shop.model.Order;
+import com.verto.shop.service.JournalDurability;
+import com.verto.shop.service.OrderJournal;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comparative load test of the two request execution modes.
+ * Starts the app twice on random ports, once on a small platform thread pool and
+ * once with spring.threads.virtual.enabled=true, with a journal whose durable
+ * write blocks for a fixed time (simulated fsync), then drives the same number
+ * of concurrent checkouts at both and reports throughput and p99.
+ * Run with: mvn test -Pload-test
+ */
+@Tag("load")
+public class ExecutionModeLoadTest {
+
+    private static final long SIMULATED_IO_MILLIS = 200;
+    private static final int PLATFORM_THREADS = 20;
+    private static final int CLIENTS = 100;
+    private static final int REQUESTS_PER_CLIENT = 5;
+
+    @TempDir
+    Path dir;
+
+    // Replaces the file-backed journal with one whose durable write just blocks
+    @TestConfiguration
+    static class BlockingJournalConfig {
+        @Bean
+        OrderJournal orderJournal() {
+            return new OrderJournal(System.getProperty("java.io.tmpdir"), JournalDurability.PER_ORDER, 1024) {
+                @Override public void open() { }
+                @Override public void close() { }
+                @Override public long[] appendAll(List<Order> orders) {
+                    try {
+                        Thread.sleep(SIMULATED_IO_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new long[orders.size()];
+                }
+            };
+        }
+    }
+
+    @Test
+    void virtualThreads_shouldOutperformSmallPlatformPoolUnderBlockingCheckout() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+        System.out.printf("Execution mode load test (%d clients, %d ms blocking I/O per checkout)%n", CLIENTS, SIMULATED_IO_MILLIS);
+        System.out.printf("  platform (%d threads): %,8.0f req/s, p50 %4d ms, p99 %4d ms%n", PLATFORM_THREADS, platform.throughput, platform.p50, platform.p99);
+        System.out.printf("  virtual             : %,8.0f req/s, p50 %4d ms, p99 %4d ms%n", virtual.throughput, virtual.p50, virtual.p99);
+
+        assertTrue(virtual.throughput > platform.throughput,
+                "Virtual threads should not be capped by the platform pool size");
+        assertTrue(virtual.p99 < platform.p99);
+    }
+
+    private static final class Result {
+        double throughput;
+        long p50;
+        long p99;
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(VertoShopApplication.class, BlockingJournalConfig.class)
+                .run("--server.port=0",
+                        "--spring.main.allow-bean-definition-overriding=true",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "--app.inventory.default-stock=100000000",
+                        "--app.admission.checkout.rate-per-second=0",
+                        "--app.admission.checkout.max-concurrent=0",
+                        "--app.images.cache-dir=" + dir.resolve("images"),
+                        "--logging.level.com.verto.shop=WARN")) {
+            int port = Integer.parseInt(ctx.getEnvironment().getProperty("local.server.port"));
+            return drive(URI.create("http://localhost:" + port + "/api/checkout"));
+        }
+    }
+
+    private Result drive(URI checkout) throws Exception {
+        String body = "{\"items\":[{\"productId\":\"p_001\",\"quantity\":1},{\"productId\":\"p_003\",\"quantity\":2}],"
+                + "\"user\":{\"name\":\"Load\",\"email\":\"load@example.com\"}}";
+        HttpRequest request = HttpRequest.newBuilder(checkout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build();
+            // Warm-up so both modes are measured with a JIT-compiled server
+            for (int i = 0; i < 50; i++) http.send(request, HttpResponse.BodyHandlers.discarding());
+
+            long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < CLIENTS; c++) {
+                int offset = c * REQUESTS_PER_CLIENT;
+                futures.add(clients.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        long t0 = System.nanoTime();
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[offset + i] = System.nanoTime() - t0;
+                        assertEquals(200, response.statusCode());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            Result r = new Result();
+            r.throughput = latencies.length / (elapsed / 1e9);
+            r.p50 = latencies[latencies.length / 2] / 1_000_000;
+            r.p99 = latencies[(int) (latencies.length * 0.99) - 1] / 1_000_000;
+            return r;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+// PATH: src/test/java/com/verto/shop/LoadHarness.java
+package com.verto.shop;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Drives weighted HTTP traffic at a running server and records per-operation
+ * latency histograms.
+ *
+ * Each client is a thread that sends at a fixed rate. Request i is due
+ * at start + i / rate, and its latency is measured from that due time, not from
+ * when it was actually sent. A slow response therefore also counts against the
+ * requests that queued up behind it, instead of hiding them (coordinated
+ * omission). Latencies are recorded in microseconds in HdrHistograms. Requests
+ * due during the warm-up are sent but not recorded.
+ */
+final class LoadHarness {
+
+    /** One kind of request: how often it is picked and what counts as success. */
+    static final class Operation {
+        final String name;
+        final int weight;
+        final Function<Random, HttpRequest> request;
+        final int expectedStatus;
+        final BiConsumer<Random, String> onSuccess;
+
+        Operation(String name, int weight, int expectedStatus, Function<Random, HttpRequest> request) {
+            this(name, weight, expectedStatus, request, (rnd, body) -> { });
+        }
+
+        Operation(String name, int weight, int expectedStatus, Function<Random, HttpRequest> request,
+                  BiConsumer<Random, String> onSuccess) {
+            this.name = name;
+            this.weight = weight;
+            this.expectedStatus = expectedStatus;
+            this.request = request;
+            this.onSuccess = onSuccess;
+        }
+    }
+
+    /** Latencies and outcomes of one operation over the measured window. */
+    static final class Stats {
+        final Histogram latencyMicros = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        final AtomicLong errors = new AtomicLong();
+        final Map<Integer, AtomicLong> unexpectedStatuses = new ConcurrentHashMap<>();
+
+        long count() { return latencyMicros.getTotalCount(); }
+        double percentileMillis(double percentile) { return latencyMicros.getValueAtPercentile(percentile) / 1000.0; }
+        double maxMillis() { return latencyMicros.getMaxValue() / 1000.0; }
+    }
+
+    /** Results of a run, per operation in declaration order. */
+    static final class Report {
+        final Map<String, Stats> stats;
+        final double measuredSeconds;
+        final double offeredPerSecond;
+
+        Report(Map<String, Stats> stats, double measuredSeconds, double offeredPerSecond) {
+            this.stats = stats;
+            this.measuredSeconds = measuredSeconds;
+            this.offeredPerSecond = offeredPerSecond;
+        }
+
+        long total() { return stats.values().stream().mapToLong(s -> s.count() + s.errors.get()).sum(); }
+        long errors() { return stats.values().stream().mapToLong(s -> s.errors.get()).sum(); }
+        double throughput() { return total() / measuredSeconds; }
+
+        // Latency over all operations of the given names
+        Histogram combined(List<String> names) {
+            Histogram all = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+            for (String name : names) all.add(stats.get(name).latencyMicros);
+            return all;
+        }
+
+        String format() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("  %-16s %8s %9s %9s %9s %9s %9s %7s%n",
+                    "operation", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors"));
+            stats.forEach((name, s) -> out.append(String.format("  %-16s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %7d%s%n",
+                    name, s.count(), s.count() / measuredSeconds, s.percentileMillis(50), s.percentileMillis(99),
+                    s.percentileMillis(99.9), s.maxMillis(), s.errors.get(),
+                    s.unexpectedStatuses.isEmpty() ? "" : " " + s.unexpectedStatuses)));
+            out.append(String.format("  total %,d requests in %.1f s: %.1f req/s (offered %.1f req/s), %d errors%n",
+                    total(), measuredSeconds, throughput(), offeredPerSecond, errors()));
+            return out.toString();
+        }
+    }
+
+    private final HttpClient http;
+    private final List<Operation> operations;
+    private final int totalWeight;
+
+    LoadHarness(HttpClient http, List<Operation> operations) {
+        this.http = http;
+        this.operations = List.copyOf(operations);
+        this.totalWeight = operations.stream().mapToInt(o -> o.weight).sum();
+    }
+
+    /**
+     * Runs clients at ratePerClient requests per second each: warm-up first, then
+     * the measured window. Client c uses seed + c for its random choices, so a
+     * run can be repeated.
+     */
+    Report run(int clients, double ratePerClient, long warmupMillis, long measureMillis, long seed) throws Exception {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        for (Operation op : operations) stats.put(op.name, new Stats());
+        long intervalNanos = (long) (1_000_000_000L / ratePerClient);
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        long end = measureFrom + TimeUnit.MILLISECONDS.toNanos(measureMillis);
+        AtomicLong lastDone = new AtomicLong(end);
+
+        // Platform threads: on a machine with few cores, one pinned virtual thread would stall every client
+        try (ExecutorService pool = Executors.newFixedThreadPool(clients)) {
+            List<Future<?>> running = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                Random rnd = new Random(seed + c);
+                // Spread the clients' schedules over one interval so they do not fire in lockstep
+                long first = start + (long) (rnd.nextDouble() * intervalNanos);
+                running.add(pool.submit(() -> client(rnd, first, intervalNanos, measureFrom, end, stats, lastDone)));
+            }
+            for (Future<?> f : running) f.get();
+        }
+        // A server that falls behind is still answering after the window closes: that time counts too
+        return new Report(stats, (lastDone.get() - measureFrom) / 1e9, clients * ratePerClient);
+    }
+
+    private Void client(Random rnd, long first, long intervalNanos, long measureFrom, long end,
+                        Map<String, Stats> stats, AtomicLong lastDone) throws Exception {
+        for (long due = first; due < end; due += intervalNanos) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            Operation op = pick(rnd);
+            HttpRequest request = op.request.apply(rnd);
+            int status;
+            String body;
+            try {
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                status = response.statusCode();
+                body = response.body();
+            } catch (IOException e) {
+                status = -1;
+                body = null;
+            }
+            long done = System.nanoTime();
+            if (status == op.expectedStatus) op.onSuccess.accept(rnd, body);
+            if (due < measureFrom) continue;
+            lastDone.accumulateAndGet(done, Math::max);
+            Stats s = stats.get(op.name);
+            if (status == op.expectedStatus) {
+                s.latencyMicros.recordValue(Math.min((done - due) / 1000, s.latencyMicros.getHighestTrackableValue()));
+            } else {
+                s.errors.incrementAndGet();
+                s.unexpectedStatuses.computeIfAbsent(status, k -> new AtomicLong()).incrementAndGet();
+            }
+        }
+        return null;
+    }
+
+    private Operation pick(Random rnd) {
+        int r = rnd.nextInt(totalWeight);
+        for (Operation op : operations) {
+            r -= op.weight;
+            if (r < 0) return op;
+        }
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,222 @@
+// PATH: src/test/java/com/verto/shop/MixedTrafficLoadTest.java
+package com.verto.shop;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Release-gate load test: starts the whole application on a random port, with a
+ * generated catalog and a real journal in a temp directory, and drives mixed
+ * traffic from many clients through LoadHarness:
+ * - catalog pages, searches and conditional full-catalog reads;
+ * - cart quotes;
+ * - checkouts of 1 to 20 lines;
+ * - checkouts with unknown product ids;
+ * - lookups of placed orders.
+ * Each client request comes from a random client address, so admission control
+ * stays on as in production. The test fails when a latency SLO, the throughput
+ * floor or the error budget is missed. The report is printed and written to
+ * target/load-report.txt.
+ *
+ * Run with: mvn test -Pload-test -Dtest=MixedTrafficLoadTest
+ * Load and SLOs are system properties, e.g. -Dload.clients=64 -Dload.rate-per-client=10 -Dload.slo.checkout-p99-ms=100
+ */
+@Tag("load")
+public class MixedTrafficLoadTest {
+
+    private static final int CATALOG_SIZE = 2000;
+    private static final String[] WORDS = {"wireless", "mechanical", "usb", "hub", "mouse", "keyboard", "monitor",
+            "stand", "cable", "charger", "speaker", "webcam", "laptop", "sleeve", "dock", "adapter"};
+    private static final List<String> READS = List.of("products.page", "products.search", "products.full", "cart.quote", "orders.get");
+    private static final List<String> CHECKOUTS = List.of("checkout", "checkout.invalid");
+
+    // Load shape. The defaults pass with margin on a single-core CI runner; raise them on real hardware
+    private final int clients = Integer.getInteger("load.clients", 16);
+    private final double ratePerClient = Double.parseDouble(System.getProperty("load.rate-per-client", "4"));
+    private final long warmupMillis = Long.getLong("load.warmup-seconds", 15) * 1000;
+    private final long durationMillis = Long.getLong("load.duration-seconds", 30) * 1000;
+    private final long seed = Long.getLong("load.seed", 42);
+    // SLOs
+    private final double readP99 = slo("read-p99-ms", 150);
+    private final double readP999 = slo("read-p999-ms", 300);
+    private final double checkoutP99 = slo("checkout-p99-ms", 250);
+    private final double checkoutP999 = slo("checkout-p999-ms", 500);
+    private final double minThroughputRatio = slo("min-throughput-ratio", 0.95);
+    private final double maxErrorRate = slo("max-error-rate", 0.001);
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper json = new ObjectMapper();
+    // Recently placed orders, for lookups
+    private final AtomicReferenceArray<String> placed = new AtomicReferenceArray<>(1024);
+    private final AtomicInteger placedCount = new AtomicInteger();
+
+    @Test
+    void mixedTraffic_shouldMeetLatencySlos() throws Exception {
+        Path catalog = writeCatalog(dir.resolve("catalog.jsonl"));
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(VertoShopApplication.class)
+                .run("--server.port=0",
+                        "--app.catalog.file=" + catalog,
+                        "--app.journal.dir=" + dir.resolve("journal"),
+                        "--app.images.cache-dir=" + dir.resolve("images"),
+                        "--app.inventory.default-stock=100000000",
+                        // Clients identify themselves with X-Forwarded-For from loopback
+                        "--server.forward-headers-strategy=native",
+                        "--logging.level.com.verto.shop=WARN")) {
+            String base = "http://localhost:" + ctx.getEnvironment().getProperty("local.server.port") + "/api";
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            LoadHarness.Report report = new LoadHarness(http, operations(http, base))
+                    .run(clients, ratePerClient, warmupMillis, durationMillis, seed);
+
+            Histogram reads = report.combined(READS);
+            Histogram checkouts = report.combined(CHECKOUTS);
+            String summary = String.format(Locale.ROOT,
+                    "Mixed traffic load test (%d clients x %.1f req/s, %d s warm-up, %d s measured)%n%s"
+                            + "  reads     p99 %.2f ms (SLO %.0f), p999 %.2f ms (SLO %.0f)%n"
+                            + "  checkouts p99 %.2f ms (SLO %.0f), p999 %.2f ms (SLO %.0f)%n",
+                    clients, ratePerClient, warmupMillis / 1000, durationMillis / 1000, report.format(),
+                    millis(reads, 99), readP99, millis(reads, 99.9), readP999,
+                    millis(checkouts, 99), checkoutP99, millis(checkouts, 99.9), checkoutP999);
+            System.out.print(summary);
+            Files.createDirectories(Paths.get("target"));
+            Files.writeString(Paths.get("target", "load-report.txt"), summary);
+
+            assertAll(
+                    () -> assertTrue(report.errors() <= maxErrorRate * report.total(),
+                            "Error budget exceeded: " + report.errors() + " of " + report.total()),
+                    () -> assertTrue(report.throughput() >= minThroughputRatio * report.offeredPerSecond,
+                            "Throughput " + report.throughput() + " req/s below offered " + report.offeredPerSecond),
+                    () -> assertTrue(millis(reads, 99) <= readP99, "Read p99 over SLO"),
+                    () -> assertTrue(millis(reads, 99.9) <= readP999, "Read p999 over SLO"),
+                    () -> assertTrue(millis(checkouts, 99) <= checkoutP99, "Checkout p99 over SLO"),
+                    () -> assertTrue(millis(checkouts, 99.9) <= checkoutP999, "Checkout p999 over SLO"));
+        }
+    }
+
+    private List<LoadHarness.Operation> operations(HttpClient http, String base) throws Exception {
+        // The full catalog is fetched conditionally, as a browser revalidating its cache would
+        HttpResponse<Void> full = http.send(HttpRequest.newBuilder(URI.create(base + "/products")).build(),
+                HttpResponse.BodyHandlers.discarding());
+        String etag = full.headers().firstValue("ETag").orElseThrow();
+        // One order to look up before the first checkouts complete
+        HttpResponse<String> first = http.send(post(base + "/checkout", checkoutBody(new Random(seed), false), "10.255.0.1"),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, first.statusCode(), first.body());
+        remember(first.body());
+
+        List<LoadHarness.Operation> ops = new ArrayList<>();
+        ops.add(new LoadHarness.Operation("products.page", 25, 200, rnd -> get(base + "/products?limit=20&sort="
+                + List.of("id", "price", "-price", "name").get(rnd.nextInt(4)) + "&minPriceCents=" + rnd.nextInt(20000), rnd)));
+        ops.add(new LoadHarness.Operation("products.search", 15, 200, rnd -> get(base + "/products/search?limit=20&q="
+                + WORDS[rnd.nextInt(WORDS.length)] + "+" + WORDS[rnd.nextInt(WORDS.length)].substring(0, 3), rnd)));
+        ops.add(new LoadHarness.Operation("products.full", 10, 304, rnd -> HttpRequest.newBuilder(URI.create(base + "/products"))
+                .header("If-None-Match", etag).header("X-Forwarded-For", address(rnd)).build()));
+        ops.add(new LoadHarness.Operation("cart.quote", 15, 200, rnd -> post(base + "/cart/quote",
+                checkoutBody(rnd, false), address(rnd))));
+        ops.add(new LoadHarness.Operation("checkout", 20, 200, rnd -> post(base + "/checkout",
+                checkoutBody(rnd, false), address(rnd)), (rnd, body) -> remember(body)));
+        ops.add(new LoadHarness.Operation("checkout.invalid", 5, 422, rnd -> post(base + "/checkout",
+                checkoutBody(rnd, true), address(rnd))));
+        ops.add(new LoadHarness.Operation("orders.get", 10, 200, rnd -> {
+            int known = Math.min(placedCount.get(), placed.length());
+            return get(base + "/orders/" + placed.get(rnd.nextInt(known)), rnd);
+        }));
+        return ops;
+    }
+
+    // Carts of 1 to 20 lines, mostly small; optionally with one unknown product id
+    private static String checkoutBody(Random rnd, boolean invalid) {
+        int lines = Math.min(20, 1 + (int) (-Math.log(1 - rnd.nextDouble()) * 3));
+        StringBuilder body = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < lines; i++) {
+            if (i > 0) body.append(',');
+            String id = invalid && i == lines - 1 ? "p_missing_" + rnd.nextInt(1000) : productId(rnd.nextInt(CATALOG_SIZE));
+            body.append("{\"productId\":\"").append(id).append("\",\"quantity\":").append(1 + rnd.nextInt(3)).append('}');
+        }
+        int user = rnd.nextInt(10_000);
+        return body.append("],\"user\":{\"name\":\"Load ").append(user)
+                .append("\",\"email\":\"load").append(user).append("@example.com\"}}").toString();
+    }
+
+    private void remember(String checkoutResponse) {
+        try {
+            JsonNode node = json.readTree(checkoutResponse);
+            int slot = placedCount.getAndIncrement() % placed.length();
+            placed.set(slot, node.get("orderId").asText());
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected checkout response: " + checkoutResponse, e);
+        }
+    }
+
+    private static HttpRequest get(String url, Random rnd) {
+        return HttpRequest.newBuilder(URI.create(url)).header("X-Forwarded-For", address(rnd)).build();
+    }
+
+    private static HttpRequest post(String url, String body, String address) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", address)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    // One of 4096 client addresses, so per-client rate limits see many users
+    private static String address(Random rnd) {
+        int n = rnd.nextInt(4096);
+        return "10.1." + (n >> 8) + "." + (n & 0xFF);
+    }
+
+    private static Path writeCatalog(Path file) throws Exception {
+        Random rnd = new Random(7);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < CATALOG_SIZE; i++) {
+                String name = capitalize(WORDS[rnd.nextInt(WORDS.length)]) + " " + capitalize(WORDS[rnd.nextInt(WORDS.length)]) + " " + i;
+                out.write(String.format(Locale.ROOT,
+                        "{\"id\":\"%s\",\"name\":\"%s\",\"description\":\"A %s for load testing\",\"priceCents\":%d,"
+                                + "\"imageUrl\":\"https://example.com/%d.jpg\",\"currency\":\"INR\"}%n",
+                        productId(i), name, name.toLowerCase(Locale.ROOT), 199 + rnd.nextInt(20000), i));
+            }
+        }
+        return file;
+    }
+
+    private static String productId(int i) {
+        return String.format("p_%05d", i);
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static double millis(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static double slo(String name, double defaultValue) {
+        return Double.parseDouble(System.getProperty("load.slo." + name, Double.toString(defaultValue)));
+    }
+}
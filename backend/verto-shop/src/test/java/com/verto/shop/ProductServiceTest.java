@@ -3,9 +3,21 @@ package com.verto.shop;
 
 import com.verto.shop.service.ProductService;
 import com.verto.shop.model.Product;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -13,8 +25,19 @@ import static org.junit.jupiter.api.Assertions.*;
  * This complements the existing integration test for the controller.
  */
 @SpringBootTest
+@DirtiesContext // closes the journal before the temp dir is deleted
 public class ProductServiceTest {
 
+    @TempDir
+    static Path dir;
+
+    // The journal and image cache would otherwise write to ./data in the module
+    @DynamicPropertySource
+    static void dataDirs(DynamicPropertyRegistry registry) {
+        registry.add("app.journal.dir", () -> dir.resolve("journal").toString());
+        registry.add("app.images.cache-dir", () -> dir.resolve("images").toString());
+    }
+
     // Inject the service layer bean for testing
     @Autowired
     private ProductService productService;
@@ -44,4 +67,80 @@ public class ProductServiceTest {
         // Test for a non-existing product
         assertTrue(productService.findById("p_999").isEmpty(), "Searching for a non-existent ID should return empty.");
     }
+
+    /**
+     * Unit Test 3: Updates swap in a new snapshot; a previously obtained view stays unchanged.
+     */
+    @Test
+    void upsert_shouldReplaceByIdAndLeaveOldSnapshotIntact() {
+        ProductService svc = new ProductService();
+        svc.replaceAll(List.of(product("p_001", 5000), product("p_002", 9000)));
+        List<Product> before = svc.getAll();
+
+        svc.upsert(List.of(product("p_002", 9900), product("p_003", 100)));
+
+        assertEquals(2, before.size(), "An earlier getAll() view must not see later updates.");
+        assertEquals(9000, before.get(1).getPriceCents());
+        assertEquals(3, svc.getAll().size());
+        assertEquals("p_002", svc.getAll().get(1).getId(), "Replaced products keep their position.");
+        assertEquals(9900, svc.findById("p_002").orElseThrow().getPriceCents());
+        assertTrue(svc.getCatalog().getVersion() > 1);
+    }
+
+    /**
+     * Unit Test 4: A batch that replaces an existing product and then adds the same new id twice
+     * keeps one entry for it, at the position of its first occurrence.
+     */
+    @Test
+    void upsert_shouldHandleRepeatedNewIdAfterAReplacement() {
+        ProductService svc = new ProductService();
+        svc.replaceAll(List.of(product("p_001", 5000), product("p_002", 9000)));
+
+        svc.upsert(List.of(product("p_002", 9900), product("p_003", 100), product("p_003", 200)));
+
+        assertEquals(3, svc.getAll().size());
+        assertEquals("p_003", svc.getAll().get(2).getId());
+        assertEquals(200, svc.getAll().get(2).getPriceCents(), "The later duplicate wins.");
+        assertEquals(9900, svc.findById("p_002").orElseThrow().getPriceCents());
+    }
+
+    /**
+     * Load Test: Lookup latency must not grow with catalog size (1K vs 1M products).
+     * Run with: mvn test -Pload-test
+     */
+    @Test
+    @Tag("load")
+    void findById_latencyShouldNotGrowWithCatalogSize() {
+        double smallNanos = averageLookupNanos(1_000);
+        double largeNanos = averageLookupNanos(1_000_000);
+
+        // A linear scan would be ~1000x slower on the large catalog; hashing stays flat
+        // apart from cache misses, so allow a generous constant factor.
+        assertTrue(largeNanos < Math.max(smallNanos, 50) * 20,
+                "Lookup latency grew with catalog size: 1K=" + smallNanos + "ns, 1M=" + largeNanos + "ns");
+    }
+
+    private static double averageLookupNanos(int catalogSize) {
+        List<Product> products = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) products.add(product("p_" + i, i));
+        ProductService svc = new ProductService();
+        svc.replaceAll(products);
+
+        Random random = new Random(42);
+        String[] probes = new String[4096];
+        for (int i = 0; i < probes.length; i++) probes[i] = "p_" + random.nextInt(catalogSize);
+
+        long found = 0;
+        for (int i = 0; i < 200_000; i++) found += svc.findById(probes[i & 4095]).isPresent() ? 1 : 0; // warm-up
+        int lookups = 1_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) found += svc.findById(probes[i & 4095]).isPresent() ? 1 : 0;
+        long elapsed = System.nanoTime() - start;
+        assertEquals(200_000 + lookups, found);
+        return (double) elapsed / lookups;
+    }
+
+    private static Product product(String id, long priceCents) {
+        return new Product(id, "Product " + id, "desc", priceCents, "/images/" + id + ".jpg", "INR");
+    }
 }
@@ -3,11 +3,28 @@
 package com.verto.shop;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
 
 @SpringBootTest
+@DirtiesContext // closes the journal before the temp dir is deleted
 class VertoShopApplicationTests {
 
+	@TempDir
+	static Path dir;
+
+	// The journal and image cache would otherwise write to ./data in the module
+	@DynamicPropertySource
+	static void dataDirs(DynamicPropertyRegistry registry) {
+		registry.add("app.journal.dir", () -> dir.resolve("journal").toString());
+		registry.add("app.images.cache-dir", () -> dir.resolve("images").toString());
+	}
+
 	@Test
 	void contextLoads() {
 	}
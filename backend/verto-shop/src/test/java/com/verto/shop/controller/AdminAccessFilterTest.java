@@ -0,0 +1,82 @@
+// PATH: src/test/java/com/verto/shop/controller/AdminAccessFilterTest.java
+package com.verto.shop.controller;
+
+import com.verto.shop.service.AdmissionControl;
+import com.verto.shop.service.PricingEngine;
+import com.verto.shop.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PromotionAdminController.class)
+@Import({PricingEngine.class, AdmissionControl.class})
+public class AdminAccessFilterTest {
+
+    private static final String FREE_ORDERS = "[{\"id\": \"all-free\", \"type\": \"PERCENT_OFF\", \"productIds\": [\"p_001\"], \"percent\": 100}]";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @MockBean
+    private ProductService productService;
+
+    @Test
+    void adminWrites_shouldBeUnreachableByDefault() throws Exception {
+        long version = pricingEngine.getRules().getVersion();
+
+        mockMvc.perform(put("/api/admin/promotions").contentType(MediaType.APPLICATION_JSON).content(FREE_ORDERS))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/api/admin/promotions;x=1").header("X-Admin-Token", "guess")
+                        .contentType(MediaType.APPLICATION_JSON).content(FREE_ORDERS))
+                .andExpect(status().isNotFound());
+        assertEquals(version, pricingEngine.getRules().getVersion());
+
+        // Reads stay open
+        mockMvc.perform(get("/api/admin/promotions")).andExpect(status().isOk());
+    }
+
+    @Test
+    void withToken_adminWritesShouldNeedIt() throws Exception {
+        AdminAccessFilter filter = new AdminAccessFilter("s3cret");
+
+        assertEquals(403, run(filter, "PUT", "/api/admin/promotions", null).getStatus());
+        assertEquals(403, run(filter, "POST", "/api/admin/catalog/reload", "wrong").getStatus());
+        MockFilterChain passed = new MockFilterChain();
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/admin/promotions");
+        request.addHeader("X-Admin-Token", "s3cret");
+        filter.doFilter(request, new MockHttpServletResponse(), passed);
+        assertNotNull(passed.getRequest());
+
+        // Everything else passes untouched
+        MockFilterChain other = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/checkout"), new MockHttpServletResponse(), other);
+        assertNotNull(other.getRequest());
+    }
+
+    private static MockHttpServletResponse run(AdminAccessFilter filter, String method, String path, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (token != null) request.addHeader("X-Admin-Token", token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        assertNull(chain.getRequest(), method + " " + path + " must not reach the controller");
+        return response;
+    }
+}
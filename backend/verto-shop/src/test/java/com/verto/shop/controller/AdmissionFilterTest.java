@@ -0,0 +1,65 @@
+// PATH: src/test/java/com/verto/shop/controller/AdmissionFilterTest.java
+package com.verto.shop.controller;
+
+import com.verto.shop.model.Product;
+import com.verto.shop.service.AdmissionControl;
+import com.verto.shop.service.CatalogResponseCache;
+import com.verto.shop.service.ProductCatalog;
+import com.verto.shop.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ProductController.class)
+@Import({CatalogResponseCache.class, AdmissionControl.class})
+@TestPropertySource(properties = {"app.admission.products.rate-per-second=0.1", "app.admission.products.burst=2"})
+public class AdmissionFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductService productService;
+
+    @Test
+    void emptyBucket_shouldGet429WithRetryAfterPerClientIp() throws Exception {
+        when(productService.getCatalog()).thenReturn(ProductCatalog.of(1, List.of(
+                new Product("p_001", "Wireless Mouse", "Compact wireless mouse", 5000, "/images/mouse.jpg", "INR"))));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/products").with(r -> { r.setRemoteAddr("10.0.0.1"); return r; }))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/products").with(r -> { r.setRemoteAddr("10.0.0.1"); return r; }))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "10"))
+                .andExpect(jsonPath("$.error").value("Too many requests"));
+
+        // Another client still gets through
+        mockMvc.perform(get("/api/products").with(r -> { r.setRemoteAddr("10.0.0.2"); return r; }))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void pathParameters_shouldNotBypassTheBucket() throws Exception {
+        when(productService.getCatalog()).thenReturn(ProductCatalog.of(1, List.of(
+                new Product("p_001", "Wireless Mouse", "Compact wireless mouse", 5000, "/images/mouse.jpg", "INR"))));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/products").with(r -> { r.setRemoteAddr("10.0.0.3"); return r; }))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/products;v=1").with(r -> { r.setRemoteAddr("10.0.0.3"); return r; }))
+                .andExpect(status().isTooManyRequests());
+    }
+}
@@ -0,0 +1,170 @@
+// PATH: src/test/java/com/verto/shop/controller/CartControllerTest.java
+package com.verto.shop.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.verto.shop.model.Product;
+import com.verto.shop.model.Promotion;
+import com.verto.shop.service.AdmissionControl;
+import com.verto.shop.service.CartStore;
+import com.verto.shop.service.CheckoutRequestReader;
+import com.verto.shop.service.PricingEngine;
+import com.verto.shop.service.ProductCatalog;
+import com.verto.shop.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CartController.class)
+@Import({PricingEngine.class, AdmissionControl.class, CartStore.class, CheckoutRequestReader.class})
+public class CartControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @MockBean
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        when(productService.getCatalog()).thenReturn(ProductCatalog.of(1, List.of(
+                new Product("p_001", "Mouse", "desc", 5000, "url", "INR"),
+                new Product("p_002", "Keyboard", "desc", 9000, "url", "INR"))));
+        Promotion keyboards = new Promotion();
+        keyboards.setId("KB-20");
+        keyboards.setType(Promotion.Type.PERCENT_OFF);
+        keyboards.setPercent(20);
+        keyboards.setProductIds(List.of("p_002"));
+        pricingEngine.replacePromotions(List.of(keyboards));
+    }
+
+    @Test
+    void quote_shouldReturnLineAndTotalPrices() throws Exception {
+        Map<String, Object> cart = Map.of("items", List.of(
+                Map.of("productId", "p_002", "quantity", 1),
+                Map.of("productId", "p_001", "quantity", 2)));
+
+        mockMvc.perform(post("/api/cart/quote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cart)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.lines[0].productId").value("p_001"))
+            .andExpect(jsonPath("$.lines[0].totalCents").value(10000))
+            .andExpect(jsonPath("$.lines[1].discountCents").value(1800))
+            .andExpect(jsonPath("$.lines[1].promotionId").value("KB-20"))
+            .andExpect(jsonPath("$.subtotalCents").value(19000))
+            .andExpect(jsonPath("$.discountCents").value(1800))
+            .andExpect(jsonPath("$.totalCents").value(17200));
+    }
+
+    @Test
+    void quote_shouldRejectUnknownProductsAndInvalidItems() throws Exception {
+        mockMvc.perform(post("/api/cart/quote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items", List.of(Map.of("productId", "p_999", "quantity", 1))))))
+            .andExpect(status().isUnprocessableEntity())
+            .andExpect(jsonPath("$.invalidIds[0]").value("p_999"));
+
+        mockMvc.perform(post("/api/cart/quote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items", List.of(Map.of("productId", "p_001", "quantity", 0))))))
+            .andExpect(status().isBadRequest());
+
+        // Same cart limits as checkout
+        mockMvc.perform(post("/api/cart/quote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items", List.of(
+                    Map.of("productId", "p_001", "quantity", Integer.MAX_VALUE),
+                    Map.of("productId", "p_001", "quantity", 2))))))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/cart/quote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items", List.of(Map.of("productId", "<p_001>", "quantity", 1))))))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/cart/quote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items",
+                    Collections.nCopies(101, Map.of("productId", "p_001", "quantity", 1))))))
+            .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void storedCart_shouldApplyPutPatchAndDelete() throws Exception {
+        mockMvc.perform(put("/api/cart/c-put-patch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items", List.of(
+                    Map.of("productId", "p_001", "quantity", 1),
+                    Map.of("productId", "p_001", "quantity", 2))))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cartId").value("c-put-patch"))
+            .andExpect(jsonPath("$.items.length()").value(1))
+            .andExpect(jsonPath("$.items[0].quantity").value(3));
+
+        // PATCH touches only the lines it lists
+        mockMvc.perform(patch("/api/cart/c-put-patch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items", List.of(Map.of("productId", "p_002", "quantity", 4))))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].productId").value("p_001"))
+            .andExpect(jsonPath("$.items[1].productId").value("p_002"))
+            .andExpect(jsonPath("$.items[1].quantity").value(4));
+        mockMvc.perform(patch("/api/cart/c-put-patch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items", List.of(Map.of("productId", "p_001", "quantity", 0))))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(1));
+
+        mockMvc.perform(get("/api/cart/c-put-patch"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].productId").value("p_002"));
+        mockMvc.perform(delete("/api/cart/c-put-patch")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/cart/c-put-patch")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void storedCart_shouldRejectUnknownProductsAndBadIds() throws Exception {
+        mockMvc.perform(put("/api/cart/c-invalid")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items", List.of(Map.of("productId", "p_999", "quantity", 1))))))
+            .andExpect(status().isUnprocessableEntity())
+            .andExpect(jsonPath("$.invalidIds[0]").value("p_999"));
+        mockMvc.perform(get("/api/cart/c-invalid")).andExpect(status().isNotFound());
+
+        // Each line is within max-quantity, their total is not
+        mockMvc.perform(put("/api/cart/c-invalid")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items", List.of(
+                    Map.of("productId", "p_001", "quantity", 1000),
+                    Map.of("productId", "p_001", "quantity", 1000))))))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("total quantity of product p_001 must be at most 1000"));
+        mockMvc.perform(get("/api/cart/c-invalid")).andExpect(status().isNotFound());
+
+        mockMvc.perform(put("/api/cart/not a cart")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items", List.of()))))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -2,29 +2,59 @@
 package com.verto.shop.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.model.Order;
 import com.verto.shop.model.Product;
+import com.verto.shop.model.Promotion;
+import com.verto.shop.service.AdmissionControl;
+import com.verto.shop.service.CartStore;
+import com.verto.shop.service.ProductCatalog;
+import com.verto.shop.service.CheckoutRequestReader;
+import com.verto.shop.service.CheckoutService;
+import com.verto.shop.service.IdempotencyCache;
+import com.verto.shop.service.InventoryService;
+import com.verto.shop.service.OrderJournal;
+import com.verto.shop.service.OrderStore;
+import com.verto.shop.service.PricingEngine;
 import com.verto.shop.service.ProductService;
+import com.verto.shop.service.SnowflakeOrderIdGenerator;
+import com.verto.shop.service.ShopMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.mockito.Mockito.times;
 
 /**
  * Integration Test for CheckoutController using MockMvc.
  * This ensures the API contract (validation, response structure, total calculation) is correct.
  */
 @WebMvcTest(CheckoutController.class)
+@Import({CheckoutService.class, InventoryService.class, SnowflakeOrderIdGenerator.class, ShopMetrics.class,
+        IdempotencyCache.class, AdmissionControl.class, OrderStore.class, PricingEngine.class, CheckoutRequestReader.class,
+        CartStore.class})
+// Every request comes from the same address; batch rate limits have their own test
+@TestPropertySource(properties = {"app.admission.checkout-batch.rate-per-second=0", "app.order-id.node-id=1"})
 public class CheckoutControllerIntegrationTest {
 
     @Autowired
@@ -37,15 +67,29 @@ public class CheckoutControllerIntegrationTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private OrderJournal orderJournal;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private CartStore cartStore;
+
     private final Product product1 = new Product("p_001", "Mouse", "desc", 5000, "url", "INR");
     private final Product product2 = new Product("p_002", "Keyboard", "desc", 9000, "url", "INR");
 
     @BeforeEach
     void setUp() {
         //   behavior of the mocked ProductService
-        when(productService.findById("p_001")).thenReturn(Optional.of(product1));
-        when(productService.findById("p_002")).thenReturn(Optional.of(product2));
-        when(productService.findById("p_999")).thenReturn(Optional.empty()); // Invalid product
+        // Catalog snapshot with p_001 and p_002; p_999 is an invalid product
+        when(productService.getCatalog()).thenReturn(ProductCatalog.of(1, List.of(product1, product2)));
+        inventoryService.setStock("p_001", 100);
+        inventoryService.setStock("p_002", 100);
+        pricingEngine.replacePromotions(List.of()); // the context, and its rules, outlive each test
     }
 
     @Test
@@ -70,7 +114,48 @@ public class CheckoutControllerIntegrationTest {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.success").value(true))
             .andExpect(jsonPath("$.totalCents").value(expectedTotalCents))
-            .andExpect(jsonPath("$.orderId").isString());
+            .andExpect(jsonPath("$.orderId").value(matchesPattern("[0-9A-HJKMNP-TV-Z]{13}")));
+
+        // The priced order is journaled before the response is sent
+        verify(orderJournal).append(argThat((Order o) -> o.getTotalCents() == expectedTotalCents
+                && o.getLines().size() == 2 && "test@example.com".equals(o.getUserEmail())));
+    }
+
+    @Test
+    void checkout_withPromotions_shouldChargeTheQuotedTotal() throws Exception {
+        Promotion mice = new Promotion();
+        mice.setId("MOUSE-B2G1");
+        mice.setType(Promotion.Type.BUY_X_GET_Y);
+        mice.setProductIds(List.of("p_001"));
+        mice.setBuyQuantity(2);
+        mice.setFreeQuantity(1);
+        Promotion tenOff = new Promotion();
+        tenOff.setId("TEN-OFF");
+        tenOff.setType(Promotion.Type.PERCENT_OFF);
+        tenOff.setPercent(10);
+        pricingEngine.replacePromotions(List.of(mice, tenOff));
+
+        Map<String, Object> request = Map.of(
+            "items", List.of(
+                Map.of("productId", "p_001", "quantity", 3),
+                Map.of("productId", "p_002", "quantity", 1)
+            ),
+            "user", Map.of("name", "Test User", "email", "test@example.com")
+        );
+
+        // 3 mice pay for 2 (10000), plus the keyboard (9000), less 10% of 19000
+        long expectedTotalCents = 17100L;
+        assertEquals(expectedTotalCents, pricingEngine.quote(List.of(
+                new CheckoutRequest.Item("p_002", 1), new CheckoutRequest.Item("p_001", 3))).getTotalCents());
+
+        mockMvc.perform(post("/api/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalCents").value(expectedTotalCents));
+
+        verify(orderJournal).append(argThat((Order o) -> o.getTotalCents() == expectedTotalCents
+                && o.getLines().get(0).getDiscountCents() == 5000 && o.getLines().get(1).getDiscountCents() == 0));
     }
 
     @Test
@@ -113,6 +198,8 @@ public class CheckoutControllerIntegrationTest {
             .andExpect(status().isUnprocessableEntity()) // HTTP 422
             .andExpect(jsonPath("$.error").value("Invalid productId(s)"))
             .andExpect(jsonPath("$.invalidIds[0]").value("p_999"));
+
+        verify(orderJournal, never()).append(any());
     }
 
     @Test
@@ -129,4 +216,250 @@ public class CheckoutControllerIntegrationTest {
                 .content(objectMapper.writeValueAsString(emptyRequest)))
             .andExpect(status().isBadRequest()); // HTTP 400 (due to validation failure)
     }
-}
\ No newline at end of file
+
+    @Test
+    void checkout_cartBreakingLimits_shouldBeRejectedWhileParsing() throws Exception {
+        Map<String, Object> line = Map.of("productId", "p_001", "quantity", 1);
+        mockMvc.perform(post("/api/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items", Collections.nCopies(101, line)))))
+            .andExpect(status().isPayloadTooLarge());
+
+        mockMvc.perform(post("/api/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items",
+                    List.of(Map.of("productId", "p_001", "quantity", 1001))))))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("quantity must be 1 to 1000"));
+
+        mockMvc.perform(post("/api/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items",
+                    List.of(Map.of("productId", "p 001; drop", "quantity", 1))))))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"items\": [{\"productId\": \"p_001\", \"quantity\": 1}"))
+            .andExpect(status().isBadRequest());
+
+        verify(orderJournal, never()).append(any());
+        assertEquals(100, inventoryService.available("p_001"));
+    }
+
+    @Test
+    void checkout_storedCart_shouldPlaceItsLinesAndDeleteIt() throws Exception {
+        cartStore.replace("cart-1", new String[] {"p_001", "p_002"}, new int[] {2, 1}, 2);
+
+        mockMvc.perform(post("/api/checkout").param("cartId", "cart-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("user", Map.of("name", "Test User", "email", "test@example.com")))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalCents").value(19000));
+        verify(orderJournal).append(argThat((Order order) -> order.getLines().size() == 2 && "test@example.com".equals(order.getUserEmail())));
+        assertEquals(98, inventoryService.available("p_001"));
+
+        // Checked out carts are gone; items may not be sent with a cartId
+        mockMvc.perform(post("/api/checkout").param("cartId", "cart-1"))
+            .andExpect(status().isNotFound());
+        cartStore.replace("cart-2", new String[] {"p_001"}, new int[] {1}, 1);
+        mockMvc.perform(post("/api/checkout").param("cartId", "cart-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items", List.of(Map.of("productId", "p_002", "quantity", 1))))))
+            .andExpect(status().isBadRequest());
+
+        // Zero-quantity lines are never stored, so they cannot be ordered
+        cartStore.replace("cart-3", new String[] {"p_001"}, new int[] {0}, 1);
+        mockMvc.perform(post("/api/checkout").param("cartId", "cart-3"))
+            .andExpect(status().isBadRequest());
+        assertEquals(98, inventoryService.available("p_001"));
+    }
+
+    @Test
+    void checkout_insufficientStock_shouldReturnConflictAndReserveNothing() throws Exception {
+        inventoryService.setStock("p_002", 1);
+        Map<String, Object> request = Map.of(
+            "items", List.of(
+                Map.of("productId", "p_001", "quantity", 2),
+                Map.of("productId", "p_002", "quantity", 3)
+            )
+        );
+
+        mockMvc.perform(post("/api/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isConflict()) // HTTP 409
+            .andExpect(jsonPath("$.error").value("Insufficient stock"))
+            .andExpect(jsonPath("$.outOfStockIds[0]").value("p_002"))
+            .andExpect(jsonPath("$.outOfStockIds.length()").value(1));
+
+        // All or nothing: the in-stock line was not taken either
+        assertEquals(100, inventoryService.available("p_001"));
+        assertEquals(1, inventoryService.available("p_002"));
+        verify(orderJournal, never()).append(any());
+    }
+
+    @Test
+    void checkout_withReservation_shouldConsumeHeldStock() throws Exception {
+        InventoryService.Reservation held = inventoryService.reserve(new String[] {"p_001"}, new int[] {4});
+        Map<String, Object> request = Map.of(
+            "items", List.of(Map.of("productId", "p_001", "quantity", 4)),
+            "reservationId", held.getId()
+        );
+
+        mockMvc.perform(post("/api/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalCents").value(20000));
+        assertEquals(96, inventoryService.available("p_001"));
+
+        // The reservation is used up, so replaying it is rejected
+        mockMvc.perform(post("/api/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    void checkout_retryWithIdempotencyKey_shouldReturnOriginalOrder() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of(
+            "items", List.of(Map.of("productId", "p_001", "quantity", 2)),
+            "user", Map.of("name", "Test User", "email", "test@example.com")));
+
+        String first = mockMvc.perform(post("/api/checkout")
+                .header("Idempotency-Key", "retry-me")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Idempotent-Replayed"))
+            .andReturn().getResponse().getContentAsString();
+
+        // The retry replays the same response; no second order, no second stock deduction
+        mockMvc.perform(post("/api/checkout")
+                .header("Idempotency-Key", "retry-me")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Idempotent-Replayed", "true"))
+            .andExpect(content().json(first, true));
+        verify(orderJournal, times(1)).append(any());
+        assertEquals(98, inventoryService.available("p_001"));
+
+        // Same key, different cart
+        mockMvc.perform(post("/api/checkout")
+                .header("Idempotency-Key", "retry-me")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                    "items", List.of(Map.of("productId", "p_002", "quantity", 1))))))
+            .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void checkout_storedCartRetryWithIdempotencyKey_shouldReturnOriginalOrderAfterTheCartIsGone() throws Exception {
+        cartStore.replace("cart-retry", new String[] {"p_001"}, new int[] {2}, 1);
+        String body = objectMapper.writeValueAsString(Map.of("user", Map.of("name", "Test User", "email", "test@example.com")));
+
+        String first = mockMvc.perform(post("/api/checkout").param("cartId", "cart-retry")
+                .header("Idempotency-Key", "cart-retry-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        String orderId = objectMapper.readTree(first).get("orderId").asText();
+        assertNull(cartStore.get("cart-retry"));
+
+        // The cart was deleted by the first checkout; the retry still gets the same order
+        mockMvc.perform(post("/api/checkout").param("cartId", "cart-retry")
+                .header("Idempotency-Key", "cart-retry-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Idempotent-Replayed", "true"))
+            .andExpect(jsonPath("$.orderId").value(orderId));
+        verify(orderJournal, times(1)).append(any());
+        assertEquals(98, inventoryService.available("p_001"));
+
+        // The key is bound to its cart
+        cartStore.replace("cart-other", new String[] {"p_001"}, new int[] {1}, 1);
+        mockMvc.perform(post("/api/checkout").param("cartId", "cart-other")
+                .header("Idempotency-Key", "cart-retry-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isUnprocessableEntity());
+
+        // A missing cart is not remembered under the key
+        mockMvc.perform(post("/api/checkout").param("cartId", "cart-late").header("Idempotency-Key", "late-key"))
+            .andExpect(status().isNotFound());
+        cartStore.replace("cart-late", new String[] {"p_001"}, new int[] {1}, 1);
+        mockMvc.perform(post("/api/checkout").param("cartId", "cart-late").header("Idempotency-Key", "late-key"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Idempotent-Replayed"));
+    }
+
+    @Test
+    void checkoutBatch_shouldReturnOneResultPerOrderInInputOrder() throws Exception {
+        List<Object> batch = List.of(
+            Map.of("items", List.of(Map.of("productId", "p_001", "quantity", 2))),
+            Map.of("items", List.of(Map.of("productId", "p_999", "quantity", 1))),
+            Map.of("items", List.of()),
+            Map.of("items", List.of(
+                Map.of("productId", "p_002", "quantity", 1),
+                Map.of("productId", "p_001", "quantity", 1)))
+        );
+
+        mockMvc.perform(post("/api/checkout/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(4))
+            .andExpect(jsonPath("$[0].success").value(true))
+            .andExpect(jsonPath("$[0].totalCents").value(10000))
+            .andExpect(jsonPath("$[1].success").value(false))
+            .andExpect(jsonPath("$[1].invalidIds[0]").value("p_999"))
+            .andExpect(jsonPath("$[2].error").value("Invalid request"))
+            .andExpect(jsonPath("$[3].totalCents").value(14000));
+
+        // Accepted orders are journaled together in a single write
+        verify(orderJournal).appendAll(argThat((List<Order> orders) -> orders.size() == 2));
+        assertEquals(97, inventoryService.available("p_001"));
+    }
+
+    @Test
+    void checkoutBatch_ordersOverTheCartLimits_shouldBeRejectedOneByOne() throws Exception {
+        List<Object> batch = List.of(
+            Map.of("items", List.of(
+                Map.of("productId", "p_001", "quantity", Integer.MAX_VALUE),
+                Map.of("productId", "p_001", "quantity", 2))),
+            Map.of("items", List.of(Map.of("productId", "p_001", "quantity", 1))),
+            Map.of("items", Collections.nCopies(101, Map.of("productId", "p_002", "quantity", 1))),
+            Map.of("items", List.of(Map.of("productId", "p_" + "0".repeat(100), "quantity", 1)))
+        );
+
+        mockMvc.perform(post("/api/checkout/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(4))
+            .andExpect(jsonPath("$[0].success").value(false))
+            .andExpect(jsonPath("$[0].violations[0]").value("quantity must be 1 to 1000"))
+            .andExpect(jsonPath("$[1].success").value(true))
+            .andExpect(jsonPath("$[2].success").value(false))
+            .andExpect(jsonPath("$[3].success").value(false));
+
+        assertEquals(99, inventoryService.available("p_001"));
+        assertEquals(100, inventoryService.available("p_002"));
+    }
+
+    @Test
+    void checkoutBatch_tooLarge_shouldBeRejected() throws Exception {
+        List<Object> batch = Collections.nCopies(1001,
+            Map.of("items", List.of(Map.of("productId", "p_001", "quantity", 1))));
+
+        mockMvc.perform(post("/api/checkout/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+            .andExpect(status().isPayloadTooLarge());
+        verify(orderJournal, never()).appendAll(any());
+    }
+}
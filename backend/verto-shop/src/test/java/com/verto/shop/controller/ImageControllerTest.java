@@ -0,0 +1,60 @@
+// PATH: src/test/java/com/verto/shop/controller/ImageControllerTest.java
+package com.verto.shop.controller;
+
+import com.verto.shop.service.AdmissionControl;
+import com.verto.shop.service.ImageVariant;
+import com.verto.shop.service.ImageVariants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ImageController.class)
+@Import({ImageVariants.class, AdmissionControl.class})
+@TestPropertySource(properties = "app.images.cache-dir=target/test-images")
+public class ImageControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageVariants imageVariants;
+
+    @Test
+    void variant_shouldBeServedWithImmutableCachingAndRevalidation() throws Exception {
+        String url = imageVariants.url("/images/headphones.jpg", ImageVariant.THUMBNAIL);
+
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(header().string("Cache-Control", containsString("immutable")))
+                .andExpect(header().string("Cache-Control", containsString("max-age=31536000")))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(url).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void variant_shouldServeByteRanges() throws Exception {
+        String url = imageVariants.url("/images/headphones.jpg", ImageVariant.MEDIUM);
+
+        mockMvc.perform(get(url).header("Range", "bytes=0-99"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", containsString("bytes 0-99/")))
+                .andExpect(header().longValue("Content-Length", 100));
+    }
+
+    @Test
+    void unknownVariant_shouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/images/variants/headphones-thumb-0000000000000000.jpg"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,157 @@
+// PATH: src/test/java/com/verto/shop/controller/InventoryControllerTest.java
+package com.verto.shop.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.verto.shop.model.Product;
+import com.verto.shop.service.AdmissionControl;
+import com.verto.shop.service.CheckoutRequestReader;
+import com.verto.shop.service.InventoryService;
+import com.verto.shop.service.OrderJournal;
+import com.verto.shop.service.ProductCatalog;
+import com.verto.shop.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(InventoryController.class)
+@Import({InventoryService.class, CheckoutRequestReader.class, AdmissionControl.class})
+public class InventoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private OrderJournal orderJournal;
+
+    @BeforeEach
+    void setUp() {
+        ProductCatalog catalog = ProductCatalog.of(1, List.of(
+                new Product("p_001", "Mouse", "desc", 5000, "url", "INR"),
+                new Product("p_002", "Keyboard", "desc", 9000, "url", "INR")));
+        when(productService.getCatalog()).thenReturn(catalog);
+        when(productService.findById(anyString())).thenAnswer(i -> Optional.ofNullable(catalog.get(i.getArgument(0))));
+        inventoryService.setStock("p_001", 100);
+        inventoryService.setStock("p_002", 100);
+    }
+
+    @Test
+    void reserveThenRelease_shouldHoldAndReturnTheStock() throws Exception {
+        String body = mockMvc.perform(post("/api/inventory/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(items(Map.of("productId", "p_001", "quantity", 2), Map.of("productId", "p_002", "quantity", 1),
+                        Map.of("productId", "p_001", "quantity", 3))))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.expiresAt").exists())
+            .andReturn().getResponse().getContentAsString();
+        String id = objectMapper.readTree(body).get("reservationId").asText();
+
+        // Duplicate lines are merged into one hold
+        assertEquals(2, inventoryService.find(id).size());
+        mockMvc.perform(get("/api/inventory/p_001"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.available").value(95));
+
+        mockMvc.perform(delete("/api/inventory/reservations/" + id)).andExpect(status().isNoContent());
+        assertEquals(100, inventoryService.available("p_001"));
+        assertEquals(100, inventoryService.available("p_002"));
+        mockMvc.perform(delete("/api/inventory/reservations/" + id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void confirmedReservation_shouldKeepItsStockAndNoLongerBeReleasable() throws Exception {
+        String body = mockMvc.perform(post("/api/inventory/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(items(Map.of("productId", "p_002", "quantity", 4))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        String id = objectMapper.readTree(body).get("reservationId").asText();
+
+        assertTrue(inventoryService.commit(id));
+        mockMvc.perform(delete("/api/inventory/reservations/" + id)).andExpect(status().isNotFound());
+        assertEquals(96, inventoryService.available("p_002"));
+    }
+
+    @Test
+    void reserve_overTheLimitsOrOverflowing_shouldBeRejectedAndHoldNothing() throws Exception {
+        mockMvc.perform(post("/api/inventory/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(items(Map.of("productId", "p_001", "quantity", Integer.MAX_VALUE),
+                        Map.of("productId", "p_001", "quantity", Integer.MAX_VALUE))))
+            .andExpect(status().isBadRequest());
+        // Each line is within max-quantity, their total is not
+        mockMvc.perform(post("/api/inventory/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(items(Map.of("productId", "p_001", "quantity", 600), Map.of("productId", "p_001", "quantity", 600))))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("total quantity of product p_001 must be at most 1000"));
+        mockMvc.perform(post("/api/inventory/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("items",
+                        Collections.nCopies(101, Map.of("productId", "p_001", "quantity", 1))))))
+            .andExpect(status().isPayloadTooLarge());
+        mockMvc.perform(post("/api/inventory/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(items(Map.of("productId", "<p_001>", "quantity", 1))))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/inventory/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(items(Map.of("productId", "p_001", "quantity", 0))))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/inventory/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(items(Map.of("productId", "p_999", "quantity", 1))))
+            .andExpect(status().isUnprocessableEntity())
+            .andExpect(jsonPath("$.invalidIds[0]").value("p_999"));
+        mockMvc.perform(post("/api/inventory/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(items(Map.of("productId", "p_001", "quantity", 1), Map.of("productId", "p_002", "quantity", 101))))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.outOfStockIds[0]").value("p_002"));
+
+        assertEquals(100, inventoryService.available("p_001"));
+        assertEquals(100, inventoryService.available("p_002"));
+    }
+
+    @Test
+    void setStock_shouldBeAnAdminWrite() throws Exception {
+        mockMvc.perform(put("/api/inventory/p_001")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"available\": 1000000}"))
+            .andExpect(status().isNotFound());
+        assertEquals(100, inventoryService.available("p_001"));
+        mockMvc.perform(get("/api/inventory/p_999")).andExpect(status().isNotFound());
+    }
+
+    private String items(Object... lines) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("items", List.of(lines)));
+    }
+}
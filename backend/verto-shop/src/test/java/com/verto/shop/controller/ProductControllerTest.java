@@ -2,21 +2,33 @@
 
 package com.verto.shop.controller;
 
+import com.jayway.jsonpath.JsonPath;
 import com.verto.shop.model.Product;
+import com.verto.shop.service.AdmissionControl;
+import com.verto.shop.service.CatalogResponseCache;
+import com.verto.shop.service.ProductCatalog;
 import com.verto.shop.service.ProductService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ProductController.class)
+@Import({CatalogResponseCache.class, AdmissionControl.class})
 public class ProductControllerTest {
 
     @Autowired
@@ -31,7 +43,7 @@ public class ProductControllerTest {
         Product p1 = new Product("p_001", "Wireless Mouse", "Compact wireless mouse", 5000, "/images/mouse.jpg", "INR");
         Product p2 = new Product("p_002", "Mechanical Keyboard", "Tactile mechanical keyboard", 9000, "/images/keyboard.jpg", "INR");
 
-        when(productService.getAll()).thenReturn(List.of(p1, p2));
+        when(productService.getCatalog()).thenReturn(ProductCatalog.of(1, List.of(p1, p2)));
 
         mockMvc.perform(get("/api/products"))
                 .andExpect(status().isOk())
@@ -46,4 +58,130 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$[1].id").value("p_002"))
                 .andExpect(jsonPath("$[1].currency").value("INR"));
     }
+
+    @Test
+    void getProducts_paged_shouldFollowCursorInPriceOrder() throws Exception {
+        when(productService.getCatalog()).thenReturn(sampleCatalog());
+
+        MvcResult first = mockMvc.perform(get("/api/products").param("sort", "price").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value("p_003"))
+                .andExpect(jsonPath("$.items[1].id").value("p_001"))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn();
+        String cursor = JsonPath.read(first.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/api/products").param("sort", "price").param("limit", "2").param("after", cursor))
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value("p_002"))
+                .andExpect(jsonPath("$.items[1].id").value("p_004"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getProducts_paged_shouldApplyPriceAndCurrencyFilters() throws Exception {
+        when(productService.getCatalog()).thenReturn(sampleCatalog());
+
+        mockMvc.perform(get("/api/products").param("sort", "-price").param("minPriceCents", "5000").param("currency", "inr"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"))
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value("p_002"))
+                .andExpect(jsonPath("$.items[1].id").value("p_001"));
+    }
+
+    @Test
+    void getProducts_paged_invalidParams_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/products").param("sort", "rating"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unsupported sort: rating"));
+        mockMvc.perform(get("/api/products").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static ProductCatalog sampleCatalog() {
+        return ProductCatalog.of(1, List.of(
+                new Product("p_001", "Wireless Mouse", "desc", 5000, "/images/mouse.jpg", "INR"),
+                new Product("p_002", "Mechanical Keyboard", "desc", 9000, "/images/keyboard.jpg", "INR"),
+                new Product("p_003", "USB-C Hub", "desc", 800, "/images/hub.jpg", "INR"),
+                new Product("p_004", "Headphones", "desc", 12000, "/images/headphones.jpg", "USD")));
+    }
+
+    @Test
+    void search_shouldReturnRankedMatches() throws Exception {
+        when(productService.getCatalog()).thenReturn(ProductCatalog.of(1, List.of(
+                new Product("p_001", "Wireless Mouse", "Compact wireless mouse", 5000, "/images/mouse.jpg", "INR"),
+                new Product("p_002", "Mechanical Keyboard", "Pairs with any wireless mouse", 9000, "/images/keyboard.jpg", "INR"),
+                new Product("p_003", "USB-C Hub", "5-in-1 hub", 8000, "/images/hub.jpg", "INR"))));
+
+        mockMvc.perform(get("/api/products/search").param("q", "WIRELESS mouse"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value("p_001"))
+                .andExpect(jsonPath("$.items[1].id").value("p_002"));
+        mockMvc.perform(get("/api/products/search").param("q", "mouse").param("limit", "1"))
+                .andExpect(jsonPath("$.items.length()").value(1));
+        mockMvc.perform(get("/api/products/search").param("q", "  "))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/products/autocomplete").param("q", "wireless m"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.suggestions[0]").value("wireless mouse"))
+                .andExpect(jsonPath("$.suggestions[1]").value("wireless mechanical"));
+        mockMvc.perform(get("/api/products/autocomplete").param("q", "wireless m").param("limit", "-5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.suggestions.length()").value(1));
+    }
+
+    @Test
+    void getProducts_withMatchingEtag_shouldReturnNotModified() throws Exception {
+        when(productService.getCatalog()).thenReturn(sampleCatalog());
+
+        String etag = mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        // Weak comparison: a proxy that weakened the tag still gets a 304
+        mockMvc.perform(get("/api/products").header("If-None-Match", "\"other\", W/" + etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getProducts_acceptingGzip_shouldServeCompressedBody() throws Exception {
+        when(productService.getCatalog()).thenReturn(sampleCatalog());
+
+        MvcResult result = mockMvc.perform(get("/api/products").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andReturn();
+
+        byte[] compressed = result.getResponse().getContentAsByteArray();
+        String json;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(json.startsWith("[{\"id\":\"p_001\""), json);
+    }
+
+    @Test
+    void getProducts_afterCatalogChange_shouldServeNewEtag() throws Exception {
+        when(productService.getCatalog()).thenReturn(sampleCatalog());
+        String etag = mockMvc.perform(get("/api/products")).andReturn().getResponse().getHeader("ETag");
+
+        when(productService.getCatalog()).thenReturn(ProductCatalog.of(2, List.of(
+                new Product("p_001", "Wireless Mouse", "desc", 4500, "/images/mouse.jpg", "INR"))));
+
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].priceCents").value(4500));
+    }
 }
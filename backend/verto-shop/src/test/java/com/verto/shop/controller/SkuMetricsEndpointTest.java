@@ -0,0 +1,27 @@
+// PATH: src/test/java/com/verto/shop/controller/SkuMetricsEndpointTest.java
+package com.verto.shop.controller;
+
+import com.verto.shop.service.ShopMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SkuMetricsEndpointTest {
+
+    @Test
+    void top_shouldRankByUnitsAndClampTheLimit() {
+        ShopMetrics metrics = new ShopMetrics(new SimpleMeterRegistry(), true);
+        metrics.checkedOut(new String[] {"p_001", "p_002", "p_003"}, new int[] {1, 5, 3}, 3);
+        SkuMetricsEndpoint endpoint = new SkuMetricsEndpoint(metrics);
+
+        assertEquals(List.of("p_002", "p_003", "p_001"), List.copyOf(endpoint.top(null).keySet()));
+        assertEquals(List.of("p_002"), List.copyOf(endpoint.top(-5).keySet()));
+        assertEquals(List.of("p_002"), List.copyOf(endpoint.top(0).keySet()));
+        assertEquals(3, endpoint.top(Integer.MAX_VALUE).size());
+        assertEquals(Map.of("orders", 1L, "units", 5L), endpoint.sku("p_002"));
+    }
+}
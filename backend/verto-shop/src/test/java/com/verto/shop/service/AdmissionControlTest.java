@@ -0,0 +1,118 @@
+// PATH: src/test/java/com/verto/shop/service/AdmissionControlTest.java
+package com.verto.shop.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for admission control: token bucket refill and bursts, exact
+ * counting under contention, the bounded client map, and concurrency slots.
+ */
+public class AdmissionControlTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(5 * SECOND);
+
+    @Test
+    void bucket_shouldAllowTheBurstThenRefillAtTheRate() {
+        RateLimiter limiter = new RateLimiter(2, 3, 100, now::get);
+        for (int i = 0; i < 3; i++) assertEquals(0, limiter.tryAcquire("a"));
+        long wait = limiter.tryAcquire("a");
+        assertEquals(SECOND / 2, wait, "One token comes back every 500 ms.");
+        assertEquals(0, limiter.tryAcquire("b"), "Clients have their own buckets.");
+
+        now.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+
+        // A long pause refills the bucket to the burst, not beyond
+        now.addAndGet(60 * SECOND);
+        for (int i = 0; i < 3; i++) assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    void concurrentClients_shouldNeverGetMoreThanTheBurst() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, 50, 100, now::get); // frozen clock: no refill
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        if (limiter.tryAcquire("shared") == 0) allowed.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(50, allowed.get());
+    }
+
+    @Test
+    void clientMap_shouldStayBoundedAndDropOnlyRefilledBuckets() {
+        RateLimiter limiter = new RateLimiter(1, 1, 100, now::get);
+        for (int i = 0; i < 100; i++) assertEquals(0, limiter.tryAcquire("c" + i));
+        assertEquals(100, limiter.trackedClients());
+
+        // Every tracked client is still limited: newcomers share the overflow bucket
+        assertEquals(0, limiter.tryAcquire("new-1"));
+        assertTrue(limiter.tryAcquire("new-2") > 0);
+        assertEquals(100, limiter.trackedClients());
+        assertTrue(limiter.tryAcquire("c0") > 0, "Tracked clients keep their state.");
+
+        // Once buckets have refilled they can be dropped to make room
+        now.addAndGet(2 * SECOND);
+        for (int i = 0; i < 10_000; i++) limiter.tryAcquire("flood-" + i);
+        assertTrue(limiter.trackedClients() <= 100);
+    }
+
+    @Test
+    void admission_shouldCapConcurrencyPerGroupAndReadLimitsFromConfig() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("app.admission.checkout.max-concurrent", "2")
+                .withProperty("app.admission.checkout.rate-per-second", "0.5")
+                .withProperty("app.admission.checkout.client-key", "email");
+        AdmissionControl admission = new AdmissionControl(env);
+
+        assertTrue(admission.tryEnter(AdmissionEndpoint.CHECKOUT));
+        assertTrue(admission.tryEnter(AdmissionEndpoint.CHECKOUT));
+        assertFalse(admission.tryEnter(AdmissionEndpoint.CHECKOUT));
+        assertTrue(admission.tryEnter(AdmissionEndpoint.PRODUCTS), "Other groups are not affected.");
+        admission.exit(AdmissionEndpoint.CHECKOUT);
+        assertTrue(admission.tryEnter(AdmissionEndpoint.CHECKOUT));
+
+        assertTrue(admission.limitsClientsBy(AdmissionEndpoint.CHECKOUT, AdmissionControl.ClientKey.EMAIL));
+        assertFalse(admission.limitsClientsBy(AdmissionEndpoint.PRODUCTS, AdmissionControl.ClientKey.IP));
+        assertEquals(0, admission.tryAcquire(AdmissionEndpoint.CHECKOUT, "a@example.com"));
+        assertEquals(2, admission.tryAcquire(AdmissionEndpoint.CHECKOUT, "a@example.com"), "Retry-After rounds up to seconds.");
+        assertEquals(0, admission.tryAcquire(AdmissionEndpoint.PRODUCTS, "a@example.com"));
+
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionControl(
+                new MockEnvironment().withProperty("app.admission.products.client-key", "email")));
+    }
+
+    @Test
+    void endpoints_shouldMatchByMethodAndPath() {
+        assertEquals(AdmissionEndpoint.CHECKOUT, AdmissionEndpoint.of("POST", "/api/checkout"));
+        assertEquals(AdmissionEndpoint.CHECKOUT_BATCH, AdmissionEndpoint.of("POST", "/api/checkout/batch"));
+        assertEquals(AdmissionEndpoint.PRODUCTS, AdmissionEndpoint.of("GET", "/api/products/search"));
+        assertEquals(AdmissionEndpoint.INVENTORY, AdmissionEndpoint.of("PUT", "/api/inventory/p_001"));
+        assertNull(AdmissionEndpoint.of("GET", "/api/productsX"));
+        assertNull(AdmissionEndpoint.of("OPTIONS", "/api/checkout"));
+    }
+}
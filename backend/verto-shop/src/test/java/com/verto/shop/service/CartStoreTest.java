@@ -0,0 +1,111 @@
+// PATH: src/test/java/com/verto/shop/service/CartStoreTest.java
+package com.verto.shop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the sharded cart store: line updates, eviction and concurrent writers.
+ */
+public class CartStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private CartStore store(int maxCarts) {
+        return new CartStore(4, maxCarts, 60_000, 1_000, 5, 1000, now::get);
+    }
+
+    @Test
+    void replaceAndUpdate_shouldKeepOneMergedLinePerProduct() {
+        CartStore carts = store(100);
+        CartStore.Snapshot cart = carts.replace("c1", new String[] {"p_001", "p_002", "p_001"}, new int[] {1, 2, 3}, 3);
+        assertArrayEquals(new String[] {"p_001", "p_002"}, cart.ids);
+        assertArrayEquals(new int[] {4, 2}, cart.qtys);
+
+        // A zero quantity is no line, on PUT as on PATCH
+        cart = carts.replace("c0", new String[] {"p_001", "p_002"}, new int[] {0, 1}, 2);
+        assertArrayEquals(new String[] {"p_002"}, cart.ids);
+
+        cart = carts.update("c1", new String[] {"p_002", "p_003", "p_001"}, new int[] {5, 1, 0}, 3);
+        assertArrayEquals(new String[] {"p_002", "p_003"}, cart.ids);
+        assertArrayEquals(new int[] {5, 1}, cart.qtys);
+        assertEquals(cart.getVersion(), carts.get("c1").getVersion());
+
+        // Over max-items the cart stays as it was
+        assertThrows(CartStore.TooManyLinesException.class,
+                () -> carts.update("c1", new String[] {"a", "b", "c", "d"}, new int[] {1, 1, 1, 1}, 4));
+        assertEquals(2, carts.get("c1").size());
+
+        // max-quantity holds for each product's added-up total, not just for each line
+        assertThrows(CartStore.QuantityTooLargeException.class,
+                () -> carts.replace("c1", new String[] {"p_002", "p_002"}, new int[] {1000, 1000}, 2));
+        assertThrows(CartStore.QuantityTooLargeException.class,
+                () -> carts.update("c1", new String[] {"p_002"}, new int[] {1001}, 1));
+        assertArrayEquals(new int[] {5, 1}, carts.get("c1").qtys);
+        assertArrayEquals(new int[] {1000}, carts.replace("c2", new String[] {"p_002", "p_002"}, new int[] {400, 600}, 2).qtys);
+
+        // Removing by snapshot only works while the cart is unchanged
+        CartStore.Snapshot stale = carts.get("c1");
+        carts.update("c1", new String[] {"p_003"}, new int[] {2}, 1);
+        assertFalse(carts.remove(stale));
+        assertTrue(carts.remove(carts.get("c1")));
+        assertNull(carts.get("c1"));
+    }
+
+    @Test
+    void eviction_shouldDropIdleAndLeastRecentlyUsedCarts() {
+        CartStore carts = store(100);
+        carts.replace("idle", new String[] {"p_001"}, new int[] {1}, 1);
+        now.addAndGet(30_000);
+        carts.replace("active", new String[] {"p_001"}, new int[] {1}, 1);
+        now.addAndGet(31_000);
+
+        // Past the TTL a cart is gone at once, before any sweep
+        assertNull(carts.get("idle"));
+        assertNotNull(carts.get("active"));
+        now.addAndGet(61_000);
+        assertEquals(1, carts.evictIdle());
+        assertEquals(0, carts.size());
+
+        // 4 shards of 2: every shard keeps its 2 most recently used carts
+        CartStore small = store(8);
+        for (int i = 0; i < 100; i++) small.replace("cart-" + i, new String[] {"p_001"}, new int[] {1}, 1);
+        assertEquals(8, small.size());
+        assertEquals(92, small.getEvictions());
+        assertNotNull(small.get("cart-99"));
+    }
+
+    @Test
+    void concurrentPatches_shouldAllLand() throws Exception {
+        CartStore carts = store(1000);
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String sku = "p_00" + t;
+            done.add(pool.submit(() -> {
+                for (int q = 1; q <= 1000; q++) {
+                    for (int c = 0; c < 20; c++) carts.update("cart-" + c, new String[] {sku}, new int[] {q}, 1);
+                }
+            }));
+        }
+        for (Future<?> f : done) f.get();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (int c = 0; c < 20; c++) {
+            CartStore.Snapshot cart = carts.get("cart-" + c);
+            assertEquals(threads, cart.size());
+            for (int q : cart.qtys) assertEquals(1000, q);
+        }
+    }
+}
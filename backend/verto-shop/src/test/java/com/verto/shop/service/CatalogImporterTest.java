@@ -0,0 +1,106 @@
+// PATH: src/test/java/com/verto/shop/service/CatalogImporterTest.java
+package com.verto.shop.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for catalog imports: full loads with delta files, incremental deltas,
+ * failed reloads keeping the current catalog, and change detection by polling.
+ */
+public class CatalogImporterTest {
+
+    @TempDir
+    Path dir;
+
+    private final ProductService productService = new ProductService();
+
+    @Test
+    void fullLoad_shouldApplyDeltasInNameOrderAndPublishOnce() throws Exception {
+        Path base = write("catalog.csv", "id,name,priceCents\np_1,Mouse,5000\np_2,Keyboard,9000\n", 1);
+        Path deltas = Files.createDirectories(dir.resolve("deltas"));
+        write("deltas/002.jsonl", "{\"id\":\"p_2\",\"name\":\"Keyboard\",\"priceCents\":7000}\n", 1);
+        write("deltas/001.jsonl", "{\"id\":\"p_2\",\"name\":\"Keyboard\",\"priceCents\":8000}\n{\"id\":\"p_3\",\"name\":\"Hub\",\"priceCents\":100}\n", 1);
+        write("deltas/notes.txt", "ignored", 1);
+
+        CatalogImporter importer = new CatalogImporter(productService, base.toString(), deltas.toString(), 0);
+        CatalogImporter.LoadReport report = importer.reloadNow();
+
+        assertNull(report.getError());
+        assertEquals(5, report.getRows());
+        assertEquals(2, report.getDeltaFiles());
+        assertEquals(3, report.getCatalogSize());
+        assertEquals(1, productService.getCatalog().getVersion(), "A full load should be a single swap.");
+        assertEquals(7000, productService.findById("p_2").orElseThrow().getPriceCents());
+        assertSame(report, importer.getLastReport());
+    }
+
+    @Test
+    void failedReload_shouldKeepTheCurrentCatalog() throws Exception {
+        Path base = write("catalog.jsonl", "{\"id\":\"p_1\",\"name\":\"Mouse\",\"priceCents\":5000}\n", 1);
+        CatalogImporter importer = new CatalogImporter(productService, base.toString(), "", 0);
+        assertNull(importer.reloadNow().getError());
+        ProductCatalog loaded = productService.getCatalog();
+
+        write("catalog.jsonl", "{\"id\":\"p_1\",\"name\":\"Mouse\",\"priceCents\":4000}\n{\"id\":\"p_2\",\"priceCents\":1}\n", 2);
+        CatalogImporter.LoadReport report = importer.reloadNow();
+        assertTrue(report.getError().contains(":2: name is required"), report.getError());
+        assertSame(loaded, productService.getCatalog());
+        assertEquals(5000, productService.findById("p_1").orElseThrow().getPriceCents());
+    }
+
+    @Test
+    void poll_shouldApplyNewDeltasAndReloadChangedFilesOnceStable() throws Exception {
+        Path base = write("catalog.jsonl", "{\"id\":\"p_1\",\"name\":\"Mouse\",\"priceCents\":5000}\n", 1);
+        Path deltas = Files.createDirectories(dir.resolve("deltas"));
+        CatalogImporter importer = new CatalogImporter(productService, base.toString(), deltas.toString(), 0);
+        importer.reloadNow();
+        importer.poll(); // first look only records what is there
+
+        // A new delta file is applied on its own, once it has stopped changing
+        write("deltas/001.csv", "id,name,priceCents\np_2,Hub,100\n", 2);
+        importer.poll();
+        assertTrue(productService.findById("p_2").isEmpty(), "A file seen once may still be being written.");
+        importer.poll();
+        assertEquals(100, productService.findById("p_2").orElseThrow().getPriceCents());
+        assertEquals("delta", importer.getLastReport().getKind());
+        long version = productService.getCatalog().getVersion();
+        importer.poll();
+        assertEquals(version, productService.getCatalog().getVersion(), "Unchanged files should not reload.");
+
+        // A changed base file triggers a full reload that re-applies the deltas
+        write("catalog.jsonl", "{\"id\":\"p_1\",\"name\":\"Mouse\",\"priceCents\":4500}\n", 3);
+        importer.poll();
+        importer.poll();
+        assertEquals("full", importer.getLastReport().getKind());
+        assertEquals(4500, productService.findById("p_1").orElseThrow().getPriceCents());
+        assertEquals(100, productService.findById("p_2").orElseThrow().getPriceCents());
+
+        // Removing a delta file drops its rows
+        Files.delete(deltas.resolve("001.csv"));
+        importer.poll();
+        importer.poll();
+        assertTrue(productService.findById("p_2").isEmpty());
+    }
+
+    @Test
+    void start_shouldFailWhenTheConfiguredFileCannotBeLoaded() {
+        CatalogImporter importer = new CatalogImporter(productService, dir.resolve("missing.jsonl").toString(), "", 0);
+        assertThrows(CatalogLoadException.class, importer::start);
+        assertThrows(IllegalStateException.class, () -> new CatalogImporter(productService, "", "", 0).reload());
+    }
+
+    // Writes the file with a distinct modification time, so change detection does not depend on clock granularity
+    private Path write(String name, String content, int modifiedSeconds) throws Exception {
+        Path file = Files.writeString(dir.resolve(name), content);
+        Files.setLastModifiedTime(file, FileTime.from(1_700_000_000L + modifiedSeconds, TimeUnit.SECONDS));
+        return file;
+    }
+}
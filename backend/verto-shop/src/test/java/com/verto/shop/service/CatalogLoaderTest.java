@@ -0,0 +1,118 @@
+// PATH: src/test/java/com/verto/shop/service/CatalogLoaderTest.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Product;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming catalog file reader: JSON Lines and CSV parsing,
+ * validation errors with line numbers, and the cost of a 1M-row import.
+ */
+public class CatalogLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void jsonLines_shouldMapFieldsAndDefaultTheOptionalOnes() throws Exception {
+        Path file = write("catalog.jsonl",
+                "{\"id\":\"p_1\",\"name\":\"Mouse\",\"description\":\"Small\",\"priceCents\":5000,\"imageUrl\":\"/images/mouse.jpg\",\"currency\":\"USD\"}\n"
+                        + "\n"
+                        + "{\"priceCents\":0,\"name\":\"Free \\\"Sample\\\"\",\"id\":\"p_2\",\"tags\":[\"a\",{\"b\":1}],\"stock\":3}\n");
+
+        List<Product> products = CatalogLoader.loadAll(file);
+        assertEquals(2, products.size());
+        Product mouse = products.get(0);
+        assertEquals("p_1", mouse.getId());
+        assertEquals("Small", mouse.getDescription());
+        assertEquals(5000, mouse.getPriceCents());
+        assertEquals("/images/mouse.jpg", mouse.getImageUrl());
+        assertEquals("USD", mouse.getCurrency());
+
+        Product sample = products.get(1);
+        assertEquals("Free \"Sample\"", sample.getName());
+        assertEquals("", sample.getDescription());
+        assertNull(sample.getImageUrl());
+        assertEquals(CatalogLoader.DEFAULT_CURRENCY, sample.getCurrency());
+    }
+
+    @Test
+    void csv_shouldFollowTheHeaderAndHandleQuoting() throws Exception {
+        Path file = write("catalog.csv",
+                "﻿priceCents,id,name,description,ignored\r\n"
+                        + "5000,p_1,Mouse,\"Small, \"\"wireless\"\"\",x\r\n"
+                        + "9000,p_2,\"Keyboard\",\"Line one\nline two\",\r\n"
+                        + "\r\n"
+                        + "100,p_3,Cable,,\n");
+
+        List<Product> products = CatalogLoader.loadAll(file);
+        assertEquals(List.of("p_1", "p_2", "p_3"), products.stream().map(Product::getId).toList());
+        assertEquals("Small, \"wireless\"", products.get(0).getDescription());
+        assertEquals("Line one\nline two", products.get(1).getDescription());
+        assertEquals(9000, products.get(1).getPriceCents());
+        assertEquals("", products.get(2).getDescription());
+        assertSame(products.get(0).getCurrency(), products.get(2).getCurrency(), "Currency codes should be shared.");
+    }
+
+    @Test
+    void invalidRows_shouldFailTheWholeFileWithTheLineNumber() throws Exception {
+        assertError("bad.jsonl", "{\"id\":\"p_1\",\"name\":\"A\",\"priceCents\":1}\n{\"id\":\"p_2\",\"priceCents\":1}\n",
+                "bad.jsonl:2: name is required for p_2");
+        assertError("bad.jsonl", "{\"id\":\"p_1\",\"name\":\"A\",\"priceCents\":\"12\"}\n", "bad.jsonl:1: priceCents must be an integer");
+        assertError("bad.jsonl", "{\"id\":\"p_1\",\"name\":\"A\",\"priceCents\":1}\n{\"id\":\"p_2\" \"name\"}\n", "bad.jsonl:2: Unexpected character");
+        assertError("bad.csv", "id,name,priceCents\np_1,A,1\n\"p_2\",B,-5\n", "bad.csv:3: priceCents must be a non-negative integer for p_2");
+        assertError("bad.csv", "id,name,priceCents\np_1,\"A,1\n", "bad.csv:3: unterminated quoted field");
+        assertError("bad.csv", "id,title,priceCents\n", "bad.csv:1: header must have id, name and priceCents columns");
+        assertError("catalog.xml", "<products/>", "unsupported catalog format");
+    }
+
+    // Load test, skipped by a plain mvn test: run with mvn test -Pload-test
+    @Test
+    @Tag("load")
+    void millionRowImport_shouldStreamWithoutHoldingTheFileText() throws Exception {
+        int n = 1_000_000;
+        Path file = dir.resolve("large.jsonl");
+        try (BufferedWriter w = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < n; i++) {
+                w.write("{\"id\":\"p_" + i + "\",\"name\":\"Product " + i + "\",\"description\":\"Description of product " + i
+                        + "\",\"priceCents\":" + (i % 10_000) + ",\"imageUrl\":\"/images/p" + (i % 100) + ".jpg\",\"currency\":\"INR\"}\n");
+            }
+        }
+        long fileBytes = Files.size(file);
+
+        long[] count = {0};
+        long start = System.nanoTime();
+        int rows = CatalogLoader.load(file, p -> count[0]++);
+        long parseMillis = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(n, rows);
+        assertEquals(n, count[0]);
+
+        start = System.nanoTime();
+        ProductCatalog catalog = ProductCatalog.of(1, CatalogLoader.loadAll(file));
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(n, catalog.size());
+        assertEquals("Product 999999", catalog.get("p_999999").getName());
+
+        System.out.printf("Catalog import of %d rows (%d MB JSONL): parse only %d ms, parse + snapshot %d ms%n",
+                n, fileBytes >> 20, parseMillis, buildMillis);
+    }
+
+    private void assertError(String name, String content, String expected) throws Exception {
+        Path file = write(name, content);
+        CatalogLoadException e = assertThrows(CatalogLoadException.class, () -> CatalogLoader.loadAll(file));
+        assertTrue(e.getMessage().contains(expected), e.getMessage());
+    }
+
+    private Path write(String name, String content) throws Exception {
+        return Files.writeString(dir.resolve(name), content);
+    }
+}
@@ -0,0 +1,177 @@
+// PATH: src/test/java/com/verto/shop/service/CheckoutAllocationTest.java
+package com.verto.shop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.model.Order;
+import com.verto.shop.model.OrderLine;
+import com.verto.shop.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Allocation profile of the checkout hot path: bytes allocated per checkout by
+ * CheckoutService compared with the previous map/Optional/UUID based pricing,
+ * which is reproduced here as the baseline. The journal is a no-op so only
+ * merging, lookup, pricing, stock and order building are measured.
+ */
+public class CheckoutAllocationTest {
+
+    private final ProductService productService = new ProductService();
+    private final InventoryService inventoryService;
+    private final CheckoutService checkoutService;
+    private final CheckoutService meteredCheckoutService;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ShopMetrics metrics = new ShopMetrics(registry, true);
+
+    CheckoutAllocationTest() {
+        productService.replaceAll(List.of(
+                new Product("p_001", "Wireless Mouse", "desc", 5000, "/images/mouse.jpg", "INR"),
+                new Product("p_002", "Mechanical Keyboard", "desc", 9000, "/images/keyboard.jpg", "INR"),
+                new Product("p_003", "USB-C Hub", "desc", 8000, "/images/hub.jpg", "INR")));
+        OrderJournal noopJournal = new OrderJournal(System.getProperty("java.io.tmpdir"), JournalDurability.BATCHED, 1024) {
+            @Override public long[] appendAll(List<Order> orders) { return new long[orders.size()]; }
+        };
+        inventoryService = new InventoryService(productService, noopJournal);
+        for (String id : List.of("p_001", "p_002", "p_003")) inventoryService.setStock(id, Long.MAX_VALUE / 4);
+        OrderStore noopStore = new OrderStore(noopJournal, 1024) {
+            @Override public void add(Order order, long journalPosition) { }
+        };
+        PricingEngine pricing = new PricingEngine(productService, new ObjectMapper(), "", 1000);
+        checkoutService = new CheckoutService(productService, inventoryService, noopJournal,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new SnowflakeOrderIdGenerator(1, System::currentTimeMillis), ShopMetrics.noop(), noopStore, pricing);
+        meteredCheckoutService = new CheckoutService(productService, inventoryService, noopJournal,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new SnowflakeOrderIdGenerator(2, System::currentTimeMillis), metrics, noopStore, pricing);
+    }
+
+    @Test
+    void mergeLines_shouldCombineDuplicatesInFirstSeenOrder() {
+        List<CheckoutRequest.Item> small = List.of(item("b", 1), item("a", 2), item("b", 3));
+        String[] ids = new String[3];
+        int[] qtys = new int[3];
+        assertEquals(2, CheckoutService.mergeLines(small, ids, qtys));
+        assertArrayEquals(new String[] {"b", "a"}, Arrays.copyOf(ids, 2));
+        assertArrayEquals(new int[] {4, 2}, Arrays.copyOf(qtys, 2));
+
+        List<CheckoutRequest.Item> large = new ArrayList<>();
+        for (int i = 0; i < 100; i++) large.add(item("p" + (i % 10), 1));
+        ids = new String[100];
+        qtys = new int[100];
+        assertEquals(10, CheckoutService.mergeLines(large, ids, qtys));
+        for (int i = 0; i < 10; i++) assertEquals(10, qtys[i]);
+    }
+
+    @Test
+    void mergeLines_quantitiesPastIntRange_shouldBeRejectedNotWrapped() {
+        List<CheckoutRequest.Item> small = List.of(item("p_001", Integer.MAX_VALUE), item("p_001", 2));
+        CheckoutService.QuantityOverflowException e = assertThrows(CheckoutService.QuantityOverflowException.class,
+                () -> CheckoutService.mergeLines(small, new String[2], new int[2]));
+        assertEquals("p_001", e.getProductId());
+
+        List<CheckoutRequest.Item> large = new ArrayList<>();
+        for (int i = 0; i < 40; i++) large.add(item("p" + i, 1));
+        large.add(item("p_001", Integer.MAX_VALUE - 1));
+        large.add(item("p_001", 2));
+        assertThrows(CheckoutService.QuantityOverflowException.class,
+                () -> CheckoutService.mergeLines(large, new String[42], new int[42]));
+
+        // At checkout the order is rejected and no stock moves
+        long stock = inventoryService.available("p_001");
+        CheckoutRequest request = request();
+        request.setItems(small);
+        CheckoutResult result = checkoutService.checkout(request);
+        assertEquals(CheckoutResult.Status.INVALID_REQUEST, result.getStatus());
+        assertEquals(stock, inventoryService.available("p_001"));
+    }
+
+    @Test
+    void checkout_storedCartWithZeroQuantity_shouldBeRejected() {
+        long stock = inventoryService.available("p_001");
+        CartStore.Snapshot cart = new CartStore.Snapshot("c1", 1, new String[] {"p_001", "p_002"}, new int[] {1, 0});
+        CheckoutResult result = checkoutService.checkout(cart, new CheckoutRequest());
+        assertEquals(CheckoutResult.Status.INVALID_REQUEST, result.getStatus());
+        assertEquals(stock, inventoryService.available("p_001"));
+    }
+
+    @Test
+    void checkout_shouldAllocateLessThanLegacyPricing() {
+        CheckoutRequest request = request();
+        assertTrue(checkoutService.checkout(request).isOk());
+        assertEquals(legacyCheckout(request).getTotalCents(), checkoutService.checkout(request).getOrder().getTotalCents());
+
+        long before = bytesPerCall(() -> legacyCheckout(request));
+        long after = bytesPerCall(() -> checkoutService.checkout(request));
+        assertTrue(after < before, "Expected fewer bytes per checkout: legacy=" + before + " current=" + after);
+    }
+
+    @Test
+    void checkout_metricsShouldNotAllocateOnTheRequestPath() {
+        CheckoutRequest request = request();
+        assertTrue(meteredCheckoutService.checkout(request).isOk());
+
+        long plain = bytesPerCall(() -> checkoutService.checkout(request));
+        long metered = bytesPerCall(() -> meteredCheckoutService.checkout(request));
+        assertTrue(metered <= plain + 8, "Metrics should not allocate per checkout: off=" + plain + " on=" + metered);
+
+        long checkouts = metrics.sku("p_002").getOrders();
+        assertEquals(checkouts * 3, metrics.sku("p_001").getUnits());
+        assertEquals(checkouts, registry.get("shop.checkout.cart.lines").summary().count());
+        assertEquals(checkouts, registry.get("shop.product.lookup").timer().count());
+    }
+
+    // The pricing path as it was before: HashMap merge, Optional lookups, a
+    // reservation with a random UUID, and an order id cut from a UUID string.
+    private Order legacyCheckout(CheckoutRequest request) {
+        Map<String, Integer> merged = new LinkedHashMap<>();
+        for (CheckoutRequest.Item it : request.getItems()) merged.merge(it.getProductId(), it.getQuantity(), Integer::sum);
+        long total = 0;
+        List<OrderLine> lines = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : merged.entrySet()) {
+            Optional<Product> p = productService.findById(e.getKey());
+            total += p.get().getPriceCents() * e.getValue();
+            lines.add(new OrderLine(e.getKey(), p.get().getName(), p.get().getPriceCents(), e.getValue()));
+        }
+        String[] ids = new String[lines.size()];
+        int[] qtys = new int[lines.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = lines.get(i).getProductId();
+            qtys[i] = lines.get(i).getQuantity();
+        }
+        InventoryService.Reservation held = inventoryService.reserve(ids, qtys);
+        inventoryService.commit(held.getId());
+        String orderId = UUID.randomUUID().toString().toUpperCase().replace("-", "").substring(0, 12);
+        return new Order(orderId, System.currentTimeMillis(), total, "Test User", "test@example.com", lines);
+    }
+
+    private static long bytesPerCall(Supplier<?> call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 20_000; i++) call.get(); // warm-up so the JIT settles
+        int iterations = 50_000;
+        long start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) call.get();
+        return (threads.getCurrentThreadAllocatedBytes() - start) / iterations;
+    }
+
+    private static CheckoutRequest request() {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(List.of(item("p_001", 2), item("p_002", 1), item("p_001", 1), item("p_003", 4)));
+        CheckoutRequest.User user = new CheckoutRequest.User();
+        user.setName("Test User");
+        user.setEmail("test@example.com");
+        request.setUser(user);
+        return request;
+    }
+
+    private static CheckoutRequest.Item item(String id, int qty) {
+        return new CheckoutRequest.Item(id, qty);
+    }
+}
@@ -0,0 +1,147 @@
+// PATH: src/test/java/com/verto/shop/service/CheckoutRequestReaderTest.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming checkout body parser and its early rejections.
+ */
+public class CheckoutRequestReaderTest {
+
+    private final ProductService productService = new ProductService();
+    private final CheckoutRequestReader reader = new CheckoutRequestReader(productService, 3, 10, 16);
+
+    CheckoutRequestReaderTest() {
+        productService.replaceAll(List.of(
+                new Product("p_001", "Wireless Mouse", "desc", 5000, "/images/mouse.jpg", "INR"),
+                new Product("p_002", "Mechanical Keyboard", "desc", 9000, "/images/keyboard.jpg", "INR")));
+    }
+
+    @Test
+    void read_validBody_shouldBindEveryField() throws Exception {
+        CheckoutRequest request = read("""
+                {"items": [{"productId": "p_001", "quantity": 2, "note": {"gift": true}}, {"quantity": 1, "productId": "p_002"}],
+                 "user": {"name": "Test User", "email": "test@example.com"}, "reservationId": "r1", "coupon": [1, 2]}""");
+
+        assertEquals(2, request.getItems().size());
+        assertEquals("p_001", request.getItems().get(0).getProductId());
+        assertEquals(2, request.getItems().get(0).getQuantity());
+        assertEquals(1, request.getItems().get(1).getQuantity());
+        assertEquals("test@example.com", request.getUser().getEmail());
+        assertEquals("r1", request.getReservationId());
+        // Known ids are the catalog's own Strings
+        assertSame(productService.getCatalog().get("p_001").getId(), request.getItems().get(0).getProductId());
+    }
+
+    @Test
+    void read_invalidLines_shouldBeRejectedWithTheirReason() {
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.INVALID_ITEM, "{\"items\": []}");
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.INVALID_ITEM, "{\"user\": null}");
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.INVALID_ITEM,
+                "{\"items\": [{\"productId\": \"p_001\", \"quantity\": 0}]}");
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.INVALID_ITEM,
+                "{\"items\": [{\"productId\": \"p_001\", \"quantity\": 11}]}");
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.INVALID_ITEM,
+                "{\"items\": [{\"productId\": \"p_001\", \"quantity\": 99999999999}]}");
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.INVALID_ITEM,
+                "{\"items\": [{\"productId\": \"p_001\", \"quantity\": \"2\"}]}");
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.INVALID_ITEM, "{\"items\": [{\"quantity\": 1}]}");
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.INVALID_ITEM,
+                "{\"items\": [{\"productId\": \"p_00000000000000001\", \"quantity\": 1}]}");
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.INVALID_ITEM,
+                "{\"items\": [{\"productId\": \"<p_001>\", \"quantity\": 1}]}");
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.MALFORMED, "[]");
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.MALFORMED, "{\"items\": [{\"productId\": \"p_001\"");
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.MALFORMED, "{\"user\": {\"name\": \"" + "x".repeat(5000) + "\"}}");
+        assertRejected(CheckoutRequestReader.RejectedException.Reason.MALFORMED, "{\"extra\": " + "[".repeat(100) + "]}");
+
+        CheckoutRequestReader.RejectedException unknown = assertRejected(CheckoutRequestReader.RejectedException.Reason.UNKNOWN_PRODUCT,
+                "{\"items\": [{\"productId\": \"p_001\", \"quantity\": 1}, {\"productId\": \"p_999\", \"quantity\": 1}]}");
+        assertEquals("p_999", unknown.getProductId());
+    }
+
+    @Test
+    void read_endlessCart_shouldStopReadingAtTheItemLimit() {
+        // A body that never ends: the reader must give up on it after max-items lines
+        byte[] line = "{\"productId\": \"p_001\", \"quantity\": 1},".getBytes(StandardCharsets.UTF_8);
+        InputStream endless = new InputStream() {
+            private final byte[] head = "{\"items\": [".getBytes(StandardCharsets.UTF_8);
+            long position;
+
+            @Override
+            public int read() {
+                long p = position++;
+                return p < head.length ? head[(int) p] : line[(int) ((p - head.length) % line.length)];
+            }
+        };
+
+        CheckoutRequestReader.RejectedException e = assertThrows(CheckoutRequestReader.RejectedException.class,
+                () -> reader.read(endless));
+        assertEquals(CheckoutRequestReader.RejectedException.Reason.TOO_MANY_ITEMS, e.getReason());
+    }
+
+    @Test
+    void readBatch_shouldRejectOrdersOneByOneAndSkipTheirRest() throws Exception {
+        List<CheckoutRequestReader.BatchOrder> orders = reader.readBatch(new ByteArrayInputStream("""
+                [{"items": [{"productId": "p_001", "quantity": 1}, {"productId": "p_001", "quantity": 1},
+                            {"productId": "p_001", "quantity": 1}, {"productId": "p_001", "quantity": 1},
+                            {"productId": "p_002", "quantity": 1, "note": {"a": [1, 2]}}],
+                  "user": {"name": "Skipped"}},
+                 null,
+                 {"items": [{"productId": "p_999", "quantity": 2}], "user": {"email": "a@b.com"}},
+                 {"items": []}]""".getBytes(StandardCharsets.UTF_8)), 10);
+
+        assertEquals(4, orders.size());
+        assertEquals(CheckoutRequestReader.RejectedException.Reason.TOO_MANY_ITEMS, orders.get(0).getRejection().getReason());
+        assertNull(orders.get(1).getRequest());
+        assertNull(orders.get(1).getRejection());
+        // Unknown products and empty orders are left for checkout to report
+        assertEquals("p_999", orders.get(2).getRequest().getItems().get(0).getProductId());
+        assertEquals("a@b.com", orders.get(2).getRequest().getUser().getEmail());
+        assertTrue(orders.get(3).getRequest().getItems().isEmpty());
+
+        CheckoutRequestReader.RejectedException e = assertThrows(CheckoutRequestReader.RejectedException.class,
+                () -> reader.readBatch(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)), 10));
+        assertEquals(CheckoutRequestReader.RejectedException.Reason.MALFORMED, e.getReason());
+    }
+
+    @Test
+    void readBatch_endlessBatch_shouldStopReadingAtTheBatchLimit() {
+        // A batch that never ends: the reader must give up on it after max-batch-size orders
+        byte[] order = "{\"items\": [{\"productId\": \"p_001\", \"quantity\": 1}]},".getBytes(StandardCharsets.UTF_8);
+        InputStream endless = new InputStream() {
+            long position;
+
+            @Override
+            public int read() {
+                long p = position++;
+                return p == 0 ? '[' : order[(int) ((p - 1) % order.length)];
+            }
+        };
+
+        CheckoutRequestReader.RejectedException e = assertThrows(CheckoutRequestReader.RejectedException.class,
+                () -> reader.readBatch(endless, 5));
+        assertEquals(CheckoutRequestReader.RejectedException.Reason.TOO_MANY_ITEMS, e.getReason());
+        assertEquals("Batch exceeds maximum size of 5", e.getMessage());
+    }
+
+    private CheckoutRequest read(String body) throws IOException {
+        return reader.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private CheckoutRequestReader.RejectedException assertRejected(CheckoutRequestReader.RejectedException.Reason reason, String body) {
+        CheckoutRequestReader.RejectedException e = assertThrows(CheckoutRequestReader.RejectedException.class, () -> read(body), body);
+        assertEquals(reason, e.getReason(), body);
+        return e;
+    }
+}
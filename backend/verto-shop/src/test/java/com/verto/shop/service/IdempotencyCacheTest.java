@@ -0,0 +1,130 @@
+// PATH: src/test/java/com/verto/shop/service/IdempotencyCacheTest.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.model.Order;
+import com.verto.shop.model.OrderLine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Idempotency-Key cache: one computation per key under
+ * concurrent duplicates, TTL and size eviction, and failures not being cached.
+ */
+public class IdempotencyCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    void concurrentDuplicates_shouldComputeOnceAndShareTheResult() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(100, 60_000, now::get);
+        CheckoutRequest request = request("p_001", 2);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<IdempotencyCache.Outcome>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(() -> cache.execute("key-1", request, () -> {
+                    computations.incrementAndGet();
+                    started.countDown();
+                    await(release); // hold the first computation until every duplicate has arrived
+                    return CheckoutResult.ok(order("ORDER-1"));
+                })));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            release.countDown();
+
+            int replayed = 0;
+            for (Future<IdempotencyCache.Outcome> f : futures) {
+                IdempotencyCache.Outcome outcome = f.get(5, TimeUnit.SECONDS);
+                assertEquals("ORDER-1", outcome.getResult().getOrder().getOrderId());
+                if (outcome.isReplayed()) replayed++;
+            }
+            assertEquals(1, computations.get());
+            assertEquals(threads - 1, replayed);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void expiredKey_shouldBeComputedAgain() {
+        IdempotencyCache cache = new IdempotencyCache(100, 1_000, now::get);
+        CheckoutRequest request = request("p_001", 1);
+        assertEquals("A", cache.execute("k", request, () -> CheckoutResult.ok(order("A"))).getResult().getOrder().getOrderId());
+        now.addAndGet(999);
+        assertTrue(cache.execute("k", request, () -> CheckoutResult.ok(order("B"))).isReplayed());
+
+        now.addAndGet(1);
+        IdempotencyCache.Outcome outcome = cache.execute("k", request, () -> CheckoutResult.ok(order("B")));
+        assertFalse(outcome.isReplayed());
+        assertEquals("B", outcome.getResult().getOrder().getOrderId());
+    }
+
+    @Test
+    void sizeBound_shouldEvictOldestKeysAndKeepMemoryFlat() {
+        IdempotencyCache cache = new IdempotencyCache(1_000, 60_000, now::get);
+        for (int i = 0; i < 100_000; i++) {
+            String id = "O" + i;
+            cache.execute("key-" + i, request("p_001", 1), () -> CheckoutResult.ok(order(id)));
+            assertTrue(cache.size() <= 1_000);
+        }
+        assertEquals(1_000, cache.size());
+
+        // The newest keys survive, the oldest were evicted
+        assertTrue(cache.execute("key-99999", request("p_001", 1), () -> fail("should be cached")).isReplayed());
+        assertFalse(cache.execute("key-0", request("p_001", 1), () -> CheckoutResult.ok(order("again"))).isReplayed());
+    }
+
+    @Test
+    void failure_shouldNotBeCached() {
+        IdempotencyCache cache = new IdempotencyCache(100, 60_000, now::get);
+        CheckoutRequest request = request("p_001", 1);
+        assertThrows(IllegalStateException.class,
+                () -> cache.execute("k", request, () -> { throw new IllegalStateException("journal down"); }));
+        assertEquals(0, cache.size());
+        assertFalse(cache.execute("k", request, () -> CheckoutResult.ok(order("A"))).isReplayed());
+    }
+
+    @Test
+    void reusedKeyWithDifferentRequest_shouldBeRejected() {
+        IdempotencyCache cache = new IdempotencyCache(100, 60_000, now::get);
+        cache.execute("k", request("p_001", 1), () -> CheckoutResult.ok(order("A")));
+        assertThrows(IdempotencyCache.KeyReuseException.class,
+                () -> cache.execute("k", request("p_001", 2), () -> CheckoutResult.ok(order("B"))));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CheckoutRequest request(String productId, int quantity) {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(List.of(new CheckoutRequest.Item(productId, quantity)));
+        return request;
+    }
+
+    private static Order order(String id) {
+        return new Order(id, 0, 5000, null, null, List.of(new OrderLine("p_001", "Mouse", 5000, 1)));
+    }
+}
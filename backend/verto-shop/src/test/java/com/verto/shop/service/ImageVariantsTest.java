@@ -0,0 +1,76 @@
+// PATH: src/test/java/com/verto/shop/service/ImageVariantsTest.java
+package com.verto.shop.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the product image pipeline: content-hashed variant URLs,
+ * downscaling, and reuse of renditions cached on disk.
+ */
+public class ImageVariantsTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void url_shouldCarryVariantAndContentHash() throws Exception {
+        ImageVariants images = images(0.82f);
+        String thumb = images.url("/images/stand.jpg", ImageVariant.THUMBNAIL);
+        assertTrue(thumb.matches("/images/variants/stand-thumb-[0-9a-f]{16}\\.jpg"), thumb);
+        assertNotEquals(thumb, images.url("/images/stand.jpg", ImageVariant.MEDIUM));
+
+        // Rendition settings are part of the hash, so changing them changes the URL
+        assertNotEquals(thumb, images(0.5f).url("/images/stand.jpg", ImageVariant.THUMBNAIL));
+        // Unknown images, and sources ImageIO cannot decode (keyboard.jpg is WebP), keep their path
+        assertEquals("/images/missing.jpg", images.url("/images/missing.jpg", ImageVariant.THUMBNAIL));
+        assertEquals("/images/keyboard.jpg", images.url("/images/keyboard.jpg", ImageVariant.THUMBNAIL));
+        assertNull(images.file("../../etc/passwd"));
+    }
+
+    @Test
+    void file_shouldRenderSmallerVariantOnceAndReuseIt() throws Exception {
+        ImageVariants images = images(0.82f);
+        String name = fileName(images.url("/images/stand.jpg", ImageVariant.THUMBNAIL));
+
+        Path file = images.file(name);
+        BufferedImage thumb = ImageIO.read(file.toFile());
+        assertEquals(ImageVariant.THUMBNAIL.getMaxSize(), Math.max(thumb.getWidth(), thumb.getHeight()));
+        long original = Files.size(Path.of("src/main/resources/static/images/stand.jpg"));
+        assertTrue(Files.size(file) * 5 < original, "thumbnail should be far smaller than " + original + " bytes");
+
+        // Cached on disk: neither this instance nor a restarted one renders it again
+        Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+        assertEquals(file, images.file(name));
+        assertEquals(file, images(0.82f).file(name));
+        assertEquals(0, Files.getLastModifiedTime(file).toMillis());
+    }
+
+    @Test
+    void scale_shouldKeepAspectRatioAndNeverUpscale() {
+        BufferedImage wide = ImageVariants.scale(new BufferedImage(4000, 1000, BufferedImage.TYPE_INT_RGB), 320);
+        assertEquals(320, wide.getWidth());
+        assertEquals(80, wide.getHeight());
+        BufferedImage small = ImageVariants.scale(new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB), 320);
+        assertEquals(200, small.getWidth());
+        assertEquals(100, small.getHeight());
+    }
+
+    private ImageVariants images(float quality) throws Exception {
+        ImageVariants images = new ImageVariants("classpath:static/images/", cacheDir.toString(), quality);
+        images.index();
+        return images;
+    }
+
+    private static String fileName(String url) {
+        return url.substring(ImageVariants.URL_PREFIX.length());
+    }
+}
@@ -0,0 +1,148 @@
+// PATH: src/test/java/com/verto/shop/service/InventoryServiceTest.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Order;
+import com.verto.shop.model.OrderLine;
+import com.verto.shop.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the lock-free inventory: all-or-nothing reservations,
+ * expiry of abandoned reservations, no oversell under contention, and stock
+ * rebuilt from the journal on restart.
+ */
+public class InventoryServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final ProductService productService = new ProductService();
+    private InventoryService inventory;
+
+    @BeforeEach
+    void setUp() {
+        inventory = new InventoryService(productService, new OrderJournal(dir.toString(), JournalDurability.BATCHED, 1 << 20));
+        inventory.startSweeper();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventory.stopSweeper();
+    }
+
+    @Test
+    void reserve_shouldTakeAllLinesOrNone() {
+        inventory.setStock("hot", 1);
+        inventory.setStock("cold", 10);
+
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> inventory.reserve(new String[] {"cold", "hot"}, new int[] {5, 2}));
+        assertEquals(List.of("hot"), e.getProductIds());
+        assertEquals(10, inventory.available("cold"), "Lines taken before the failure must be given back.");
+        assertEquals(1, inventory.available("hot"));
+
+        InventoryService.Reservation r = inventory.reserve(new String[] {"cold", "hot"}, new int[] {5, 1});
+        assertEquals(5, inventory.available("cold"));
+        assertEquals(0, inventory.available("hot"));
+        assertTrue(inventory.commit(r.getId()));
+        assertFalse(inventory.release(r.getId()), "A committed reservation cannot be released.");
+        assertEquals(0, inventory.available("hot"));
+    }
+
+    @Test
+    void restart_shouldRebuildSoldStockFromTheJournal() throws Exception {
+        productService.replaceAll(List.of(
+                new Product("p_001", "Wireless Mouse", "desc", 5000, "/images/mouse.jpg", "INR"),
+                new Product("p_002", "Mechanical Keyboard", "desc", 9000, "/images/keyboard.jpg", "INR")));
+        OrderJournal journal = new OrderJournal(dir.resolve("journal").toString(), JournalDurability.BATCHED, 1 << 20);
+        journal.open();
+        for (int i = 0; i < 2; i++) {
+            journal.append(new Order("R" + i, 42L, 15000, null, null, List.of(new OrderLine("p_001", "Wireless Mouse", 5000, 3))));
+        }
+
+        InventoryService restarted = new InventoryService(productService, journal);
+        restarted.rebuildFromJournal();
+        assertEquals(994, restarted.available("p_001"), "Journaled sales must come off the default stock.");
+        assertEquals(1000, restarted.available("p_002"));
+        journal.close();
+
+        // No counter is created for SKUs outside the catalog
+        assertEquals(0, restarted.available("p_999"));
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> restarted.take(new String[] {"p_002", "p_999"}, new int[] {1, 1}, 2));
+        assertEquals(List.of("p_999"), e.getProductIds());
+        assertEquals(1000, restarted.available("p_002"));
+        assertThrows(IllegalArgumentException.class, () -> restarted.take(new String[] {"p_002"}, new int[] {-2}, 1));
+    }
+
+    @Test
+    void expiredReservation_shouldReturnStock() {
+        inventory.setStock("sku", 3);
+        InventoryService.Reservation r = inventory.reserve(new String[] {"sku"}, new int[] {3}, -1);
+        assertEquals(0, inventory.available("sku"));
+        assertNull(inventory.find(r.getId()));
+
+        assertEquals(1, inventory.releaseExpired());
+        assertEquals(3, inventory.available("sku"));
+        assertFalse(inventory.commit(r.getId()), "An expired reservation cannot be committed.");
+    }
+
+    @Test
+    void concurrentCheckoutsOnHotSku_shouldNeverOversell() throws Exception {
+        int initialStock = 500;
+        inventory.setStock("hot", initialStock);
+        inventory.setStock("side", 1_000_000);
+
+        int threads = 32, attemptsPerThread = 2_000;
+        AtomicLong sold = new AtomicLong();
+        AtomicLong carts = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    int qty = 1 + rnd.nextInt(3);
+                    try {
+                        InventoryService.Reservation r = inventory.reserve(new String[] {"side", "hot"}, new int[] {1, qty});
+                        // Abandon some carts; the rest check out
+                        if (rnd.nextInt(4) == 0) {
+                            inventory.release(r.getId());
+                        } else if (inventory.commit(r.getId())) {
+                            sold.addAndGet(qty);
+                            carts.incrementAndGet();
+                        }
+                    } catch (InsufficientStockException ignored) {
+                        // sold out
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get();
+        pool.shutdown();
+
+        long remaining = inventory.available("hot");
+        assertTrue(remaining >= 0, "Stock went negative: " + remaining);
+        assertEquals(initialStock, sold.get() + remaining, "Units sold plus units left must equal the initial stock.");
+        assertEquals(1_000_000 - carts.get(), inventory.available("side"), "Failed carts must not keep their other lines.");
+    }
+}
@@ -0,0 +1,206 @@
+// PATH: src/test/java/com/verto/shop/service/OrderJournalTest.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Order;
+import com.verto.shop.model.OrderLine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the memory-mapped order journal: round trip, recovery, segment rolling
+ * and group commit, plus a small throughput comparison of the durability modes.
+ */
+public class OrderJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendedOrders_shouldSurviveReopen() throws Exception {
+        OrderJournal journal = open(JournalDurability.PER_ORDER, 1 << 20);
+        journal.append(order("A1", 2));
+        journal.append(new Order("A2", 42L, 0, null, null, List.of()));
+        journal.close();
+
+        OrderJournal reopened = open(JournalDurability.PER_ORDER, 1 << 20);
+        assertEquals(2, reopened.getRecoveredOrders());
+        List<Order> replayed = replay(reopened);
+        assertEquals("A1", replayed.get(0).getOrderId());
+        assertEquals(2, replayed.get(0).getLines().size());
+        assertEquals(10000, replayed.get(0).getLines().get(1).getUnitPriceCents());
+        assertEquals("user@example.com", replayed.get(0).getUserEmail());
+        assertNull(replayed.get(1).getUserName(), "Null strings must round-trip as null.");
+        assertEquals(0, replayed.get(0).getLines().get(0).getDiscountCents());
+
+        // New appends continue after the recovered records
+        reopened.append(order("A3", 1));
+        assertEquals(List.of("A1", "A2", "A3"), replay(reopened).stream().map(Order::getOrderId).toList());
+        reopened.close();
+    }
+
+    @Test
+    void lineDiscounts_shouldRoundTrip() throws Exception {
+        OrderJournal journal = open(JournalDurability.BATCHED, 1 << 20);
+        List<OrderLine> lines = List.of(new OrderLine("p_001", "Mouse", 5000, 3, 5000), new OrderLine("p_002", "Keyboard", 9000, 1));
+        long position = journal.append(new Order("E1", 42L, 17100, "Test User", "user@example.com", lines));
+
+        Order read = journal.read(position);
+        assertEquals(5000, read.getLines().get(0).getDiscountCents());
+        assertEquals(10000, read.getLines().get(0).getTotalCents());
+        assertEquals(0, read.getLines().get(1).getDiscountCents());
+        assertEquals(17100, read.getTotalCents());
+        journal.close();
+    }
+
+    @Test
+    void tornTailRecord_shouldBeTruncatedOnRecovery() throws Exception {
+        OrderJournal journal = open(JournalDurability.BATCHED, 1 << 20);
+        journal.append(order("B1", 1));
+        journal.append(order("B2", 1));
+        journal.close();
+
+        // Flip a payload byte of the last record so its checksum no longer matches
+        Path segment = dir.resolve("segment-00000001.log");
+        int first;
+        try (RandomAccessFile f = new RandomAccessFile(segment.toFile(), "r")) {
+            first = f.readInt();
+        }
+        flipByte(segment, OrderJournal.HEADER_BYTES + first + OrderJournal.HEADER_BYTES + 3);
+
+        OrderJournal recovered = open(JournalDurability.BATCHED, 1 << 20);
+        assertEquals(1, recovered.getRecoveredOrders());
+        recovered.append(order("B3", 1));
+        assertEquals(List.of("B1", "B3"), replay(recovered).stream().map(Order::getOrderId).toList());
+        recovered.close();
+    }
+
+    @Test
+    void corruptRecordBeforeIntactOnes_shouldFailStartupAndKeepTheFile() throws Exception {
+        OrderJournal journal = open(JournalDurability.BATCHED, 1 << 20);
+        journal.append(order("F1", 1));
+        journal.append(order("F2", 1));
+        journal.append(order("F3", 1));
+        journal.close();
+
+        // A flipped bit in the first record, with two acknowledged records after it
+        Path segment = dir.resolve("segment-00000001.log");
+        flipByte(segment, OrderJournal.HEADER_BYTES + 3);
+        assertThrows(IllegalStateException.class, () -> open(JournalDurability.BATCHED, 1 << 20));
+
+        // Nothing was truncated: once repaired, every order is back
+        flipByte(segment, OrderJournal.HEADER_BYTES + 3);
+        OrderJournal repaired = open(JournalDurability.BATCHED, 1 << 20);
+        assertEquals(List.of("F1", "F2", "F3"), replay(repaired).stream().map(Order::getOrderId).toList());
+        repaired.close();
+    }
+
+    @Test
+    void fullSegment_shouldRollToNextFile() throws Exception {
+        OrderJournal journal = open(JournalDurability.BATCHED, 512);
+        for (int i = 0; i < 20; i++) journal.append(order("C" + i, 1));
+        journal.close();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.filter(p -> p.getFileName().toString().startsWith("segment-")).count() > 1);
+        }
+        OrderJournal reopened = open(JournalDurability.BATCHED, 512);
+        assertEquals(20, reopened.getRecoveredOrders());
+        assertEquals("C19", replay(reopened).get(19).getOrderId());
+        reopened.close();
+    }
+
+    @Test
+    void read_shouldReturnTheRecordAtAnAppendPosition() throws Exception {
+        OrderJournal journal = open(JournalDurability.BATCHED, 512);
+        List<Long> positions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) positions.add(journal.append(order("D" + i, 1)));
+        long[] batch = journal.appendAll(List.of(order("D10", 2), order("D11", 1)));
+
+        assertEquals("D0", journal.read(positions.get(0)).getOrderId());
+        assertEquals("D9", journal.read(positions.get(9)).getOrderId(), "Positions span segments.");
+        assertEquals(2, journal.read(batch[0]).getLines().size());
+        assertEquals("D11", journal.read(batch[1]).getOrderId());
+        assertNull(journal.read(positions.get(9) + 1), "A position inside a record is not a record.");
+        journal.close();
+
+        OrderJournal reopened = open(JournalDurability.BATCHED, 512);
+        List<Long> replayed = new ArrayList<>();
+        reopened.replayWithPositions((o, position) -> replayed.add(position));
+        assertEquals(positions, replayed.subList(0, 10));
+        assertEquals("D5", reopened.read(replayed.get(5)).getOrderId());
+        reopened.close();
+    }
+
+    // Load test, skipped by a plain mvn test: run with mvn test -Pload-test
+    @Test
+    @Tag("load")
+    void durabilityModes_throughput() throws Exception {
+        for (JournalDurability mode : JournalDurability.values()) {
+            Path modeDir = Files.createDirectory(dir.resolve(mode.name()));
+            OrderJournal journal = new OrderJournal(modeDir.toString(), mode, 8 << 20);
+            journal.open();
+
+            int threads = 8, perThread = 500;
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) journal.append(order("T" + id + "-" + i, 3));
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+            long elapsed = System.nanoTime() - start;
+            pool.shutdown();
+
+            int total = threads * perThread;
+            assertEquals(total, replay(journal).size());
+            assertTrue(journal.getSyncCount() <= total);
+            System.out.printf("OrderJournal %-9s %,10.0f orders/s, %d syncs for %d orders%n",
+                    mode, total / (elapsed / 1e9), journal.getSyncCount(), total);
+            journal.close();
+        }
+    }
+
+    private OrderJournal open(JournalDurability mode, int segmentSize) throws Exception {
+        OrderJournal journal = new OrderJournal(dir.toString(), mode, segmentSize);
+        journal.open();
+        return journal;
+    }
+
+    private static void flipByte(Path file, long offset) throws Exception {
+        try (RandomAccessFile f = new RandomAccessFile(file.toFile(), "rw")) {
+            f.seek(offset);
+            int b = f.read();
+            f.seek(offset);
+            f.write(b ^ 0xFF);
+        }
+    }
+
+    private static List<Order> replay(OrderJournal journal) throws Exception {
+        List<Order> orders = new ArrayList<>();
+        journal.replay(orders::add);
+        return orders;
+    }
+
+    private static Order order(String id, int lines) {
+        List<OrderLine> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) items.add(new OrderLine("p_00" + (i + 1), "Product " + i, 5000 * (i + 1), i + 1));
+        long total = items.stream().mapToLong(OrderLine::getSubtotalCents).sum();
+        return new Order(id, System.currentTimeMillis(), total, "Test User", "user@example.com", items);
+    }
+}
@@ -0,0 +1,149 @@
+// PATH: src/test/java/com/verto/shop/service/OrderStoreTest.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Order;
+import com.verto.shop.model.OrderLine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the order store: lookups, paged email history, eviction to the
+ * journal and rebuilding from it, plus the heap cost per order at volume.
+ */
+public class OrderStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void find_shouldReturnStoredOrdersById() throws Exception {
+        OrderJournal journal = openJournal();
+        OrderStore store = new OrderStore(journal, 1 << 20);
+        for (int i = 0; i < 100; i++) store.add(order("E" + i, "user" + (i % 7) + "@example.com"), -1);
+
+        Order found = store.find("E42");
+        assertEquals("E42", found.getOrderId());
+        assertEquals("user0@example.com", found.getUserEmail());
+        assertEquals(2, found.getLines().size());
+        assertEquals(15000, found.getTotalCents());
+        assertNull(store.find("E100"));
+        assertNull(store.find(""));
+        assertEquals(100, store.size());
+        journal.close();
+    }
+
+    @Test
+    void findByEmail_shouldPageNewestFirstIgnoringCase() throws Exception {
+        OrderJournal journal = openJournal();
+        OrderStore store = new OrderStore(journal, 1 << 20);
+        for (int i = 0; i < 25; i++) {
+            store.add(order("F" + i, "Alice@Example.com"), -1);
+            store.add(order("G" + i, "bob@example.com"), -1);
+        }
+        store.add(order("H0", null), -1);
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            OrderStore.Page page = store.findByEmail(" alice@example.COM ", cursor, 10);
+            page.getItems().forEach(o -> seen.add(o.getOrderId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(25, seen.size());
+        assertEquals("F24", seen.get(0));
+        assertEquals("F0", seen.get(24));
+        assertTrue(store.findByEmail("carol@example.com", null, 10).getItems().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> store.findByEmail("bob@example.com", "nope", 10));
+        assertThrows(IllegalArgumentException.class, () -> store.findByEmail("bob@example.com", "999", 10));
+
+        // A cursor only continues the listing it came from
+        String aliceCursor = store.findByEmail("alice@example.com", null, 10).getNextCursor();
+        assertThrows(IllegalArgumentException.class, () -> store.findByEmail("bob@example.com", aliceCursor, 10));
+        assertThrows(IllegalArgumentException.class, () -> store.findByEmail("nobody@example.com", aliceCursor, 10));
+        assertThrows(IllegalArgumentException.class, () -> store.findByEmail("nobody@example.com", "0", 10));
+        journal.close();
+    }
+
+    @Test
+    void evictedOrders_shouldBeReadBackFromTheJournal() throws Exception {
+        OrderJournal journal = openJournal();
+        OrderStore store = new OrderStore(journal, 4096);
+        for (int i = 0; i < 200; i++) {
+            Order order = order("J" + i, "user" + (i % 3) + "@example.com");
+            store.add(order, journal.append(order));
+        }
+
+        assertTrue(store.residentOrders() < 200, "The ring must have evicted old orders.");
+        assertTrue(store.residentBytes() <= 4096);
+        assertEquals("J0", store.find("J0").getOrderId());
+        assertEquals("J199", store.find("J199").getOrderId());
+        List<Order> history = store.findByEmail("user1@example.com", null, 100).getItems();
+        assertEquals(67, history.size());
+        assertEquals("J199", history.get(0).getOrderId());
+        assertEquals("J1", history.get(66).getOrderId());
+        journal.close();
+
+        // A restart rebuilds the indexes from the journal
+        OrderJournal reopened = openJournal();
+        OrderStore rebuilt = new OrderStore(reopened, 4096);
+        rebuilt.load();
+        assertEquals(200, rebuilt.size());
+        assertEquals("J7", rebuilt.find("J7").getOrderId());
+        assertEquals("J199", rebuilt.getHighestOrderId());
+        assertEquals(67, rebuilt.findByEmail("user1@example.com", null, 100).getItems().size());
+        reopened.close();
+    }
+
+    // Load test, skipped by a plain mvn test: run with mvn test -Pload-test
+    @Test
+    @Tag("load")
+    void manyOrders_heapPerOrder() throws Exception {
+        OrderJournal journal = new OrderJournal(dir.toString(), JournalDurability.BATCHED, 64 << 20);
+        journal.open();
+        OrderStore store = new OrderStore(journal, 16 << 20);
+        int orders = 1_000_000;
+        long start = System.nanoTime();
+        List<Order> batch = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            batch.add(order("K" + i, "user" + (i % 50_000) + "@example.com"));
+            if (batch.size() == 1000) {
+                long[] positions = journal.appendAll(batch);
+                for (int j = 0; j < batch.size(); j++) store.add(batch.get(j), positions[j]);
+                batch.clear();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(orders, store.size());
+        assertEquals("K999999", store.find("K999999").getOrderId());
+        assertEquals(20, store.findByEmail("user49999@example.com", null, 100).getItems().size());
+        double heapPerOrder = (double) store.indexBytes() / orders;
+        assertTrue(heapPerOrder < 64, "Index heap per order should stay small, was " + heapPerOrder);
+        System.out.printf("OrderStore: %,d orders journaled and indexed in %d ms, %.1f B of index heap per order, %,d in memory (%d MB off-heap)%n",
+                orders, elapsed / 1_000_000, heapPerOrder, store.residentOrders(), store.residentBytes() >> 20);
+        journal.close();
+    }
+
+    private OrderJournal openJournal() throws Exception {
+        OrderJournal journal = new OrderJournal(dir.toString(), JournalDurability.BATCHED, 1 << 16);
+        journal.open();
+        return journal;
+    }
+
+    private static Order order(String id, String email) {
+        List<OrderLine> lines = List.of(new OrderLine("p_001", "Wireless Mouse", 5000, 1),
+                new OrderLine("p_002", "Mechanical Keyboard", 5000, 2));
+        return new Order(id, 1_700_000_000_000L, 15000, "Test User", email, lines);
+    }
+}
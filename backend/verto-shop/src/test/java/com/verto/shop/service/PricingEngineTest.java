@@ -0,0 +1,150 @@
+// PATH: src/test/java/com/verto/shop/service/PricingEngineTest.java
+package com.verto.shop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.verto.shop.model.CheckoutRequest;
+import com.verto.shop.model.Product;
+import com.verto.shop.model.Promotion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for promotion compilation, cart pricing and the quote cache.
+ */
+public class PricingEngineTest {
+
+    @TempDir
+    Path dir;
+
+    private final ProductService productService = new ProductService();
+    private final PricingEngine engine = new PricingEngine(productService, new ObjectMapper(), "", 100);
+
+    PricingEngineTest() {
+        productService.replaceAll(List.of(
+                new Product("p_001", "Wireless Mouse", "desc", 5000, "/images/mouse.jpg", "INR"),
+                new Product("p_002", "Mechanical Keyboard", "desc", 9000, "/images/keyboard.jpg", "INR"),
+                new Product("p_003", "USB-C Hub", "desc", 799, "/images/hub.jpg", "INR")));
+    }
+
+    @Test
+    void skuPromotions_shouldApplyTheBestRulePerLine() {
+        engine.replacePromotions(List.of(
+                promotion("HUB-15", Promotion.Type.PERCENT_OFF, p -> { p.setPercent(15); p.setProductIds(List.of("p_003")); }),
+                promotion("KB-1000", Promotion.Type.AMOUNT_OFF, p -> { p.setAmountCents(1000); p.setProductIds(List.of("p_002")); }),
+                promotion("KB-5", Promotion.Type.PERCENT_OFF, p -> { p.setPercent(5); p.setProductIds(List.of("p_002")); }),
+                promotion("MOUSE-B2G1", Promotion.Type.BUY_X_GET_Y, p -> {
+                    p.setBuyQuantity(2);
+                    p.setFreeQuantity(1);
+                    p.setProductIds(List.of("p_001"));
+                })));
+
+        CartQuote quote = engine.quote(List.of(item("p_003", 3), item("p_001", 7), item("p_002", 2)));
+
+        assertTrue(quote.isOk());
+        assertEquals(List.of("p_001", "p_002", "p_003"), quote.getLines().stream().map(CartQuote.Line::getProductId).toList());
+        CartQuote.Line mice = quote.getLines().get(0);
+        assertEquals(10000, mice.getDiscountCents(), "7 mice: two groups of three, two free");
+        assertEquals("MOUSE-B2G1", mice.getPromotionId());
+        CartQuote.Line keyboards = quote.getLines().get(1);
+        assertEquals(2000, keyboards.getDiscountCents(), "1000 off each beats 5%");
+        assertEquals("KB-1000", keyboards.getPromotionId());
+        CartQuote.Line hubs = quote.getLines().get(2);
+        assertEquals(359, hubs.getDiscountCents(), "15% of 2397 rounds down");
+        assertEquals(35000 + 18000 + 2397, quote.getSubtotalCents());
+        assertEquals(quote.getSubtotalCents() - 12359, quote.getTotalCents());
+        assertNull(quote.getPromotionId());
+    }
+
+    @Test
+    void cartPromotions_shouldApplyToTheDiscountedSubtotalFromTheirMinimum() {
+        engine.replacePromotions(List.of(
+                promotion("MOUSE-500", Promotion.Type.AMOUNT_OFF, p -> { p.setAmountCents(500); p.setProductIds(List.of("p_001")); }),
+                promotion("FLAT-2000", Promotion.Type.AMOUNT_OFF, p -> { p.setAmountCents(2000); p.setMinSubtotalCents(20000); }),
+                promotion("TEN-PCT", Promotion.Type.PERCENT_OFF, p -> { p.setPercent(10); p.setMinSubtotalCents(30000); })));
+
+        CartQuote small = engine.quote(List.of(item("p_002", 1)));
+        assertEquals(9000, small.getTotalCents());
+        assertNull(small.getPromotionId());
+
+        // 4 mice at 4500 = 18000 after the line discount: below FLAT-2000's minimum
+        assertEquals(18000, engine.quote(List.of(item("p_001", 4))).getTotalCents());
+
+        CartQuote mid = engine.quote(List.of(item("p_001", 2), item("p_002", 2)));
+        assertEquals("FLAT-2000", mid.getPromotionId());
+        assertEquals(27000 - 2000, mid.getTotalCents());
+        assertEquals(1000 + 2000, mid.getDiscountCents());
+
+        CartQuote large = engine.quote(List.of(item("p_002", 5)));
+        assertEquals("TEN-PCT", large.getPromotionId());
+        assertEquals(45000 - 4500, large.getTotalCents());
+    }
+
+    @Test
+    void invalidPromotions_shouldBeRejectedAndKeepTheCurrentRules() {
+        engine.replacePromotions(List.of(promotion("OK", Promotion.Type.PERCENT_OFF, p -> p.setPercent(5))));
+
+        assertThrows(IllegalArgumentException.class, () -> engine.replacePromotions(List.of(
+                promotion("BAD", Promotion.Type.PERCENT_OFF, p -> p.setPercent(150)))));
+        assertThrows(IllegalArgumentException.class, () -> engine.replacePromotions(List.of(
+                promotion("B2G1", Promotion.Type.BUY_X_GET_Y, p -> { p.setBuyQuantity(2); p.setFreeQuantity(1); }))));
+        IllegalArgumentException duplicate = assertThrows(IllegalArgumentException.class, () -> engine.replacePromotions(List.of(
+                promotion("X", Promotion.Type.AMOUNT_OFF, p -> p.setAmountCents(1)),
+                promotion("X", Promotion.Type.AMOUNT_OFF, p -> p.setAmountCents(2)))));
+        assertEquals("Duplicate promotion id X", duplicate.getMessage());
+
+        assertEquals(1, engine.getRules().getVersion());
+        assertEquals("OK", engine.getRules().getPromotions().get(0).getId());
+    }
+
+    @Test
+    void quotes_shouldBeCachedByCartContentUntilPricesOrRulesChange() {
+        CartQuote first = engine.quote(List.of(item("p_001", 1), item("p_002", 1), item("p_001", 1)));
+        assertSame(first, engine.quote(List.of(item("p_002", 1), item("p_001", 2))), "Same merged content, other order");
+        assertEquals(1, engine.getCacheHits());
+        assertNotSame(first, engine.quote(List.of(item("p_001", 3), item("p_002", 1))));
+
+        engine.replacePromotions(List.of(promotion("TEN-PCT", Promotion.Type.PERCENT_OFF, p -> p.setPercent(10))));
+        assertEquals(17100, engine.quote(List.of(item("p_001", 2), item("p_002", 1))).getTotalCents());
+
+        productService.upsert(List.of(new Product("p_001", "Wireless Mouse", "desc", 4000, "/images/mouse.jpg", "INR")));
+        assertEquals(15300, engine.quote(List.of(item("p_001", 2), item("p_002", 1))).getTotalCents());
+        assertEquals(1, engine.getCacheHits());
+
+        CartQuote invalid = engine.quote(List.of(item("p_999", 1), item("p_001", 1)));
+        assertEquals(List.of("p_999"), invalid.getInvalidIds());
+    }
+
+    @Test
+    void promotionsFile_shouldBeLoadedAtStartup() throws Exception {
+        Path file = dir.resolve("promotions.json");
+        Files.writeString(file, """
+                [{"id":"HUB-2-FOR-1","type":"BUY_X_GET_Y","productIds":["p_003"],"buyQuantity":1,"freeQuantity":1}]
+                """);
+        PricingEngine loaded = new PricingEngine(productService, new ObjectMapper(), file.toString(), 100);
+        loaded.load();
+        assertEquals(799, loaded.quote(List.of(item("p_003", 2))).getTotalCents());
+
+        Files.writeString(file, "[{\"id\":\"BROKEN\",\"type\":\"PERCENT_OFF\"}]");
+        PricingEngine broken = new PricingEngine(productService, new ObjectMapper(), file.toString(), 100);
+        assertThrows(IllegalArgumentException.class, broken::load);
+    }
+
+    private static Promotion promotion(String id, Promotion.Type type, Consumer<Promotion> setup) {
+        Promotion p = new Promotion();
+        p.setId(id);
+        p.setType(type);
+        setup.accept(p);
+        return p;
+    }
+
+    private static CheckoutRequest.Item item(String id, int qty) {
+        return new CheckoutRequest.Item(id, qty);
+    }
+}
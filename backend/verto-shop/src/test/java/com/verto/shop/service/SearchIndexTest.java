@@ -0,0 +1,121 @@
+// PATH: src/test/java/com/verto/shop/service/SearchIndexTest.java
+package com.verto.shop.service;
+
+import com.verto.shop.model.Product;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for product search and autocomplete: tokenization, ranking,
+ * incremental updates across catalog snapshots, and query latency on 1M products.
+ */
+public class SearchIndexTest {
+
+    @Test
+    void tokens_shouldBeLowercaseDistinctAlphanumericRuns() {
+        assertEquals(List.of("usb", "c", "hub", "5", "in", "1"), new ArrayList<>(SearchIndex.tokens("USB-C Hub, 5-in-1 hub!")));
+        assertTrue(SearchIndex.tokens(null).isEmpty());
+    }
+
+    @Test
+    void search_shouldRequireEveryTermAndRankNameMatchesFirst() {
+        ProductCatalog catalog = ProductCatalog.of(1, List.of(
+                product("p_1", "Laptop Stand", "Aluminum stand for any laptop"),
+                product("p_2", "Desk Lamp", "Lights your laptop stand"),
+                product("p_3", "Laptop Sleeve", "Padded"),
+                product("p_4", "Stand Mixer", "Kitchen laptop-free zone")));
+
+        assertEquals(List.of("p_1", "p_4", "p_2"), ids(catalog.search("stand LAPTOP", 10)));
+        assertEquals(List.of("p_1"), ids(catalog.search("stand laptop", 1)));
+        assertEquals(List.of("p_1", "p_3"), ids(catalog.search("laptop", 2)));
+        assertTrue(catalog.search("laptop unicorn", 10).isEmpty());
+        assertTrue(catalog.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void upserts_shouldUpdateTheIndexIncrementallyAndKeepOldSnapshots() {
+        ProductCatalog v1 = ProductCatalog.of(1, List.of(
+                product("p_1", "Wireless Mouse", "Compact"),
+                product("p_2", "Wired Keyboard", "Tactile")));
+        assertEquals(List.of("p_1"), ids(v1.search("wireless", 10))); // builds the index
+
+        ProductCatalog v2 = v1.withUpserts(2, List.of(
+                product("p_2", "Wireless Keyboard", "Tactile"),
+                product("p_3", "Wireless Charger", "Fast"),
+                product("p_3", "Wireless Charger Pad", "Fast")));
+        assertNotNull(v2.searchIndex());
+        assertEquals(List.of("p_1", "p_2", "p_3"), ids(v2.search("wireless", 10)));
+        assertTrue(v2.search("wired", 10).isEmpty());
+        assertEquals(List.of("p_3"), ids(v2.search("pad", 10)));
+
+        // The old snapshot still answers from its own index
+        assertEquals(List.of("p_1"), ids(v1.search("wireless", 10)));
+        assertEquals(List.of("p_2"), ids(v1.search("wired", 10)));
+
+        // An incrementally updated index answers like one built from scratch
+        ProductCatalog rebuilt = ProductCatalog.of(2, v2.getProducts());
+        for (String q : List.of("wireless", "keyboard", "tactile", "fast charger", "mouse", "wired")) {
+            assertEquals(ids(rebuilt.search(q, 10)), ids(v2.search(q, 10)), q);
+        }
+        assertEquals(rebuilt.suggest("w", 10), v2.suggest("w", 10));
+    }
+
+    @Test
+    void suggest_shouldCompleteTheLastWordByFrequency() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 30; i++) products.add(product("m" + i, "Mouse " + i, "desc"));
+        for (int i = 0; i < 5; i++) products.add(product("k" + i, "Mechanical Keyboard", "desc"));
+        products.add(product("x", "Microphone", "desc"));
+        ProductCatalog catalog = ProductCatalog.of(1, products);
+
+        assertEquals(List.of("mouse", "mechanical", "microphone"), catalog.suggest("M", 10));
+        assertEquals(List.of("mouse"), catalog.suggest("m", 1));
+        assertEquals(List.of("wireless mouse", "wireless mechanical"), catalog.suggest("Wireless m", 2));
+        assertTrue(catalog.suggest("zz", 10).isEmpty());
+        assertTrue(catalog.suggest("mouse ", 10).isEmpty());
+    }
+
+    // Load test, skipped by a plain mvn test: run with mvn test -Pload-test
+    @Test
+    @Tag("load")
+    void search_shouldStaySubMillisecondOnAMillionProducts() {
+        Random random = new Random(3);
+        String[] nouns = {"mouse", "keyboard", "hub", "headphones", "stand", "monitor", "cable", "charger", "lamp", "speaker"};
+        String[] adjectives = {"wireless", "mechanical", "compact", "ergonomic", "portable", "gaming", "silent", "smart"};
+        List<Product> products = new ArrayList<>(1_000_000);
+        for (int i = 0; i < 1_000_000; i++) {
+            String name = adjectives[random.nextInt(adjectives.length)] + " " + nouns[random.nextInt(nouns.length)] + " m" + i;
+            String desc = "A " + adjectives[random.nextInt(adjectives.length)] + " " + nouns[random.nextInt(nouns.length)] + " for work";
+            products.add(product("p_" + i, name, desc));
+        }
+        ProductCatalog catalog = ProductCatalog.of(1, products);
+        catalog.searchIndex();
+
+        String[] queries = {"wireless mouse", "compact", "gaming keyboard m123456", "silent lamp work", "portable stand", "m999999"};
+        long found = 0;
+        for (int i = 0; i < 20_000; i++) found += catalog.search(queries[i % queries.length], 20).size(); // warm-up
+        int runs = 20_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) found += catalog.search(queries[i % queries.length], 20).size();
+        double micros = (System.nanoTime() - start) / 1000.0 / runs;
+        assertTrue(found > 0);
+        assertTrue(micros < 1000, "Average search took " + micros + " us");
+        System.out.printf("Search on 1M products: %.1f us/query%n", micros);
+    }
+
+    private static Product product(String id, String name, String description) {
+        return new Product(id, name, description, 1000, null, "INR");
+    }
+
+    private static List<String> ids(List<Product> products) {
+        List<String> ids = new ArrayList<>();
+        for (Product p : products) ids.add(p.getId());
+        return ids;
+    }
+}
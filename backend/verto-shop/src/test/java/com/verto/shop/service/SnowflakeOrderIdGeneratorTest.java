@@ -0,0 +1,119 @@
+// PATH: src/test/java/com/verto/shop/service/SnowflakeOrderIdGeneratorTest.java
+package com.verto.shop.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the Snowflake order id generator: layout, ordering, clock going
+ * backwards, and uniqueness across threads and nodes at volume.
+ */
+public class SnowflakeOrderIdGeneratorTest {
+
+    @Test
+    void ids_shouldEncodeTimestampAndNodeAndSortAsStrings() {
+        long now = System.currentTimeMillis();
+        SnowflakeOrderIdGenerator gen = new SnowflakeOrderIdGenerator(517, () -> now);
+        long a = gen.nextLong();
+        long b = gen.nextLong();
+
+        assertEquals(now, SnowflakeOrderIdGenerator.timestampOf(a));
+        assertEquals(517, SnowflakeOrderIdGenerator.nodeOf(a));
+        assertTrue(b > a);
+        String sa = SnowflakeOrderIdGenerator.format(a);
+        String sb = SnowflakeOrderIdGenerator.format(b);
+        assertEquals(13, sa.length());
+        assertTrue(sa.compareTo(sb) < 0, "String ids must sort like their numeric values.");
+        assertTrue(SnowflakeOrderIdGenerator.format(Long.MAX_VALUE).compareTo(SnowflakeOrderIdGenerator.format(1L << 40)) > 0);
+    }
+
+    @Test
+    void clockMovingBackwards_shouldNotRepeatOrReorderIds() {
+        AtomicLong clock = new AtomicLong(SnowflakeOrderIdGenerator.EPOCH_MILLIS + 10_000);
+        SnowflakeOrderIdGenerator gen = new SnowflakeOrderIdGenerator(3, clock::get);
+        long before = gen.nextLong();
+        clock.addAndGet(-5_000); // e.g. an NTP step back
+        long after = gen.nextLong();
+        assertTrue(after > before);
+
+        // Exhausting the sequence within one millisecond rolls over instead of wrapping
+        long prev = after;
+        for (int i = 0; i < 10_000; i++) {
+            long id = gen.nextLong();
+            assertTrue(id > prev);
+            prev = id;
+        }
+    }
+
+    @Test
+    void restart_shouldContinueAfterTheHighestRecoveredId() {
+        // Before the restart the node ran ahead of its clock, e.g. after a clock step back
+        long aheadOfClock = new SnowflakeOrderIdGenerator(5, () -> System.currentTimeMillis() + 3_600_000).nextLong();
+        String recovered = SnowflakeOrderIdGenerator.format(aheadOfClock);
+        assertEquals(aheadOfClock, SnowflakeOrderIdGenerator.parse(recovered));
+
+        OrderStore orders = mock(OrderStore.class);
+        when(orders.getHighestOrderId()).thenReturn(recovered);
+        SnowflakeOrderIdGenerator restarted = new SnowflakeOrderIdGenerator(5, orders);
+        assertTrue(restarted.nextLong() > aheadOfClock);
+
+        // Ids in another format are left alone
+        assertEquals(-1, SnowflakeOrderIdGenerator.parse("A1B2C3D4E5F6"));
+        assertFalse(restarted.advancePast("ZZZZZZZZZZZZZ"));
+    }
+
+    @Test
+    void missingNodeId_shouldRunAsNodeZero() {
+        String id = new SnowflakeOrderIdGenerator(-1, mock(OrderStore.class)).nextId();
+        assertEquals(0, (SnowflakeOrderIdGenerator.parse(id) >>> SnowflakeOrderIdGenerator.SEQUENCE_BITS)
+                & SnowflakeOrderIdGenerator.MAX_NODE_ID);
+    }
+
+    // Load test, skipped by a plain mvn test: run with mvn test -Pload-test
+    @Test
+    @Tag("load")
+    void tensOfMillionsOfIds_acrossThreadsAndNodes_shouldBeUnique() throws Exception {
+        int threads = 4, perThread = 5_000_000;
+        SnowflakeOrderIdGenerator node1 = new SnowflakeOrderIdGenerator(1, System::currentTimeMillis);
+        SnowflakeOrderIdGenerator node2 = new SnowflakeOrderIdGenerator(2, System::currentTimeMillis);
+        long[] ids = new long[threads * perThread];
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            SnowflakeOrderIdGenerator gen = t % 2 == 0 ? node1 : node2;
+            futures.add(pool.submit(() -> {
+                long prev = -1;
+                for (int i = 0; i < perThread; i++) {
+                    long id = gen.nextLong();
+                    if (id <= prev) throw new AssertionError("Ids went backwards within a thread");
+                    ids[offset + i] = prev = id;
+                }
+            }));
+        }
+        for (Future<?> f : futures) f.get();
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        System.out.printf("SnowflakeOrderIdGenerator: %,d ids from %d threads on 2 nodes at %,.0f ids/s%n",
+                ids.length, threads, ids.length / (elapsed / 1e9));
+
+        Arrays.sort(ids);
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i] == ids[i - 1]) fail("Duplicate id " + ids[i]);
+        }
+    }
+}
@@ -77,9 +77,11 @@ const ProductCard: React.FC<{ product: Product }> = React.memo(({ product }) =>
   };
 
   // Resolve image URL: if backend returned a relative path, let dev-server proxy handle it.
-  const resolvedImageUrl = product.imageUrl && product.imageUrl.startsWith('/')
-    ? product.imageUrl
-    : product.imageUrl;
+  // The grid only needs the thumbnail; fall back to the full image when there is none.
+  const gridImageUrl = product.thumbnailUrl || product.imageUrl;
+  const resolvedImageUrl = gridImageUrl && gridImageUrl.startsWith('/')
+    ? gridImageUrl
+    : gridImageUrl;
 
   return (
     <div className="product-card">
@@ -155,7 +157,7 @@ const ProductList: React.FC = () => {
 
 // --- Cart Overlay ---
 const CartOverlay: React.FC = () => {
-  const { cart, totalPriceCents, updateQuantity, removeItem, checkout, isCartOpen, toggleCart, isCheckingOut } = useCart();
+  const { cart, totalPriceCents, discountCents, updateQuantity, removeItem, checkout, isCartOpen, toggleCart, isCheckingOut } = useCart();
 
   const totalDisplay = useMemo(() => formatPrice(totalPriceCents, 'INR'), [totalPriceCents]);
 
@@ -180,7 +182,7 @@ const CartOverlay: React.FC = () => {
                   <div className="item-details">
                     <div className="item-name-wrapper">
                       <img
-                        src={item.imageUrl}
+                        src={item.thumbnailUrl || item.imageUrl}
                         alt={item.name}
                         onError={(e) => {
                           e.currentTarget.src = `https://placehold.co/50x50/cccccc/333333?text=IMG`;
@@ -223,6 +225,12 @@ const CartOverlay: React.FC = () => {
             </div>
 
             <div className="cart-summary">
+              {discountCents > 0 && (
+                <p className="summary-discount">
+                  <span>Promotions:</span>
+                  <span>−{formatPrice(discountCents, 'INR')}</span>
+                </p>
+              )}
               <h3 className="summary-total">
                 <span>Order Total:</span>
                 <span>{totalDisplay}</span>
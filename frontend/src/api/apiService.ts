@@ -13,6 +13,7 @@ export interface Product {
   description: string;
   priceCents: number;
   imageUrl: string;
+  thumbnailUrl?: string; // pre-sized rendition for the grid and cart
   currency: string;
 }
 
@@ -55,8 +56,66 @@ export interface CheckoutResponse {
   totalCents: number;
 }
 
+/**
+ * Prices the cart on the server (POST /api/cart/quote), with promotions applied,
+ * exactly as checkout will charge it.
+ */
+export interface QuoteLine {
+  productId: string;
+  quantity: number;
+  unitPriceCents: number;
+  discountCents: number;
+  totalCents: number;
+  promotionId: string | null;
+}
+
+export interface CartQuote {
+  lines: QuoteLine[];
+  subtotalCents: number;
+  discountCents: number;
+  totalCents: number;
+  promotionId: string | null;
+}
+
+export const quoteCart = async (items: CheckoutItem[], signal?: AbortSignal): Promise<CartQuote> => {
+  const response = await axios.post<CartQuote>(`${API_BASE_URL}/cart/quote`, { items }, { signal });
+  return response.data;
+};
+
 export const checkoutOrder = async (payload: CheckoutPayload): Promise<CheckoutResponse> => {
   // Post request to POST /api/checkout endpoint
   const response = await axios.post<CheckoutResponse>(`${API_BASE_URL}/checkout`, payload);
   return response.data; 
 };
+
+/**
+ * Server-side cart (PUT/PATCH/DELETE /api/cart/{cartId}), so checkout can send the cart id
+ * instead of the whole cart. Lines for the same product are merged by the server.
+ */
+export interface StoredCart {
+  cartId: string;
+  version: number;
+  items: CheckoutItem[];
+}
+
+export const saveCart = async (cartId: string, items: CheckoutItem[]): Promise<StoredCart> => {
+  const response = await axios.put<StoredCart>(`${API_BASE_URL}/cart/${encodeURIComponent(cartId)}`, { items });
+  return response.data;
+};
+
+// PATCH: sets the quantity of the given lines only (0 removes a line); returns the whole cart
+export const updateCart = async (cartId: string, items: CheckoutItem[]): Promise<StoredCart> => {
+  const response = await axios.patch<StoredCart>(`${API_BASE_URL}/cart/${encodeURIComponent(cartId)}`, { items });
+  return response.data;
+};
+
+export const deleteCart = async (cartId: string): Promise<void> => {
+  // 404 just means the server no longer has it (checked out or evicted)
+  await axios.delete(`${API_BASE_URL}/cart/${encodeURIComponent(cartId)}`, { validateStatus: s => s === 204 || s === 404 });
+};
+
+// POST /api/checkout?cartId=...: checks out the stored cart; only the user goes in the body
+export const checkoutStoredCart = async (cartId: string, user: CheckoutPayload['user']): Promise<CheckoutResponse> => {
+  const response = await axios.post<CheckoutResponse>(`${API_BASE_URL}/checkout`, { user }, { params: { cartId } });
+  return response.data;
+};
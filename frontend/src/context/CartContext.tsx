@@ -1,8 +1,8 @@
-import React, { createContext, useState, useContext, useEffect, useCallback, useMemo } from 'react';
+import React, { createContext, useState, useContext, useEffect, useCallback, useMemo, useRef } from 'react';
 import type { ReactNode } from 'react';
 import type { Product } from '../api/apiService';
-import { checkoutOrder } from '../api/apiService';
-import type { CheckoutItem } from '../api/apiService';
+import { checkoutOrder, checkoutStoredCart, deleteCart, quoteCart, saveCart, updateCart } from '../api/apiService';
+import type { CartQuote, CheckoutItem } from '../api/apiService';
 import { useToast } from './ToastContext';
 
 // --- Types ---
@@ -13,6 +13,7 @@ interface CartItem extends Product {
 interface CartContextType {
   cart: CartItem[];
   totalPriceCents: number;
+  discountCents: number;
   isCartOpen: boolean;
   isCheckingOut: boolean;
   lastOrderId?: string | null;
@@ -37,6 +38,23 @@ const getInitialCart = (): CartItem[] => {
   }
 };
 
+// Id of this browser's cart on the server; kept across reloads like the cart itself
+const getCartId = (): string => {
+  let cartId = localStorage.getItem('cartId');
+  if (!cartId) {
+    cartId = crypto.randomUUID();
+    localStorage.setItem('cartId', cartId);
+  }
+  return cartId;
+};
+
+type CartLines = Map<string, number>;
+
+const toLines = (items: CheckoutItem[]): CartLines => new Map(items.map(item => [item.productId, item.quantity]));
+
+const sameLines = (a: CartLines, b: CartLines): boolean =>
+  a.size === b.size && [...a].every(([productId, quantity]) => b.get(productId) === quantity);
+
 export const CartProvider: React.FC<{ children: ReactNode }> = ({ children }) => {
   const [cart, setCart] = useState<CartItem[]>(getInitialCart);
   const [isCartOpen, setIsCartOpen] = useState(false);
@@ -50,11 +68,80 @@ export const CartProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
     localStorage.setItem('shoppingCart', JSON.stringify(cart));
   }, [cart]);
 
-  // Use useMemo for efficient total price calculation
-  const totalPriceCents = useMemo(
+  // Mirror the cart on the server, so checkout only has to send its id. Saves run one after
+  // another, so a slow one can never overwrite a newer cart. Each sends only the lines changed
+  // since the last save (PATCH), or the whole cart (PUT) when the server's copy is unknown.
+  // The latest save is kept so checkout can wait for it; false if it failed.
+  const cartId = useMemo(getCartId, []);
+  const serverLines = useRef<CartLines | null>(null); // null = unknown, e.g. after a failed save
+  const savedCart = useRef<Promise<boolean>>(Promise.resolve(false));
+
+  const syncCart = useCallback(async (items: CheckoutItem[]): Promise<boolean> => {
+    const wanted = toLines(items);
+    const known = serverLines.current;
+    serverLines.current = null;
+    if (items.length === 0) {
+      if (known === null || known.size > 0) await deleteCart(cartId);
+      serverLines.current = wanted;
+      return false;
+    }
+    if (known !== null && sameLines(known, wanted)) {
+      serverLines.current = known;
+      return true;
+    }
+
+    let stored: CartLines;
+    if (known === null) {
+      stored = toLines((await saveCart(cartId, items)).items);
+    } else {
+      const changes = items.filter(item => known.get(item.productId) !== item.quantity);
+      known.forEach((_, productId) => {
+        if (!wanted.has(productId)) changes.push({ productId, quantity: 0 });
+      });
+      stored = toLines((await updateCart(cartId, changes)).items);
+    }
+    // The server's copy drifted, e.g. it was evicted while idle: send the whole cart
+    if (!sameLines(stored, wanted)) stored = toLines((await saveCart(cartId, items)).items);
+    serverLines.current = stored;
+    return true;
+  }, [cartId]);
+
+  useEffect(() => {
+    const items = cart.map(item => ({ productId: item.id, quantity: item.quantity }));
+    savedCart.current = savedCart.current
+      .then(() => syncCart(items))
+      .catch(error => {
+        console.error("Saving the cart failed:", error);
+        return false;
+      });
+  }, [cart, syncCart]);
+
+  // The server prices the cart with promotions; re-quote on every change (quotes are cached server-side)
+  const [quote, setQuote] = useState<CartQuote | null>(null);
+  useEffect(() => {
+    // Drop the previous cart's quote, so its totals are never shown for this one
+    setQuote(null);
+    if (cart.length === 0) return;
+    const controller = new AbortController();
+    const items = cart.map(item => ({ productId: item.id, quantity: item.quantity }));
+    quoteCart(items, controller.signal)
+      .then(setQuote)
+      .catch(error => {
+        if (!controller.signal.aborted) {
+          console.error("Quote failed:", error);
+          setQuote(null);
+        }
+      });
+    return () => controller.abort();
+  }, [cart]);
+
+  // List-price total until the quote for the current cart arrives
+  const listPriceCents = useMemo(
     () => cart.reduce((total, item) => total + item.priceCents * item.quantity, 0),
     [cart]
   );
+  const totalPriceCents = quote ? quote.totalCents : listPriceCents;
+  const discountCents = quote ? quote.discountCents : 0;
 
   const toggleCart = useCallback(() => {
     setIsCartOpen(prev => !prev);
@@ -122,7 +209,13 @@ export const CartProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
     };
 
     try {
-      const response = await checkoutOrder(payload);
+      // Check out the stored cart; if saving it failed, send the whole cart instead
+      const storedCart = await savedCart.current;
+      const response = storedCart
+        ? await checkoutStoredCart(cartId, payload.user)
+        : await checkoutOrder(payload);
+      // The server deletes a cart once it is checked out
+      if (storedCart) serverLines.current = new Map();
       // response: { success, orderId, totalCents }
       setLastOrderId(response.orderId || null);
 
@@ -146,6 +239,7 @@ export const CartProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
     <CartContext.Provider value={{
       cart,
       totalPriceCents,
+      discountCents,
       isCartOpen,
       isCheckingOut,
       lastOrderId,